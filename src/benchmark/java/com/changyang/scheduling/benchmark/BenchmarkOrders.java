@@ -0,0 +1,59 @@
+package com.changyang.scheduling.benchmark;
+
+import com.changyang.scheduling.domain.ChangeoverEntry;
+import com.changyang.scheduling.domain.MotherRollOrder;
+import com.changyang.scheduling.service.ChangeoverService;
+import com.changyang.scheduling.service.ExcelDataLoader;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * JMH 基准的测试数据：与 ExcelDataLoader 相同的换型矩阵，以及按固定种子生成的订单
+ */
+final class BenchmarkOrders {
+
+    private static final int[] THICKNESSES = {4, 5, 7, 9, 10, 14, 24, 29, 42, 61};
+
+    private BenchmarkOrders() {
+    }
+
+    static List<ChangeoverEntry> changeoverEntries() {
+        return new ExcelDataLoader(new ChangeoverService()).buildChangeoverMatrix();
+    }
+
+    /**
+     * 生成 count 个订单，型号/配方取自换型矩阵，厚度、时长、库存随机
+     */
+    static List<MotherRollOrder> orders(int count, long seed) {
+        Map<String, String> formulaByProduct = new LinkedHashMap<>();
+        for (ChangeoverEntry entry : changeoverEntries()) {
+            if (entry.getType() == ChangeoverEntry.Type.FORMULA_MODEL) {
+                formulaByProduct.put(entry.getFromProductCode(), entry.getFromFormulaCode());
+            }
+        }
+        List<String> products = new ArrayList<>(formulaByProduct.keySet());
+
+        Random random = new Random(seed);
+        List<MotherRollOrder> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String productCode = products.get(random.nextInt(products.size()));
+            MotherRollOrder order = new MotherRollOrder();
+            order.setId("B" + i);
+            order.setProductCode(productCode);
+            order.setFormulaCode(formulaByProduct.get(productCode));
+            order.setThickness(THICKNESSES[random.nextInt(THICKNESSES.length)]);
+            order.setProductionDurationHours(2 + random.nextInt(60));
+            order.setQuantity(1000 + random.nextInt(20000));
+            order.setCurrentInventory(random.nextInt(50000));
+            order.setMonthlyShipment(1000 + random.nextInt(30000));
+            order.setCompatibleLines(Set.of("L2", "L4"));
+            orders.add(order);
+        }
+        return orders;
+    }
+}
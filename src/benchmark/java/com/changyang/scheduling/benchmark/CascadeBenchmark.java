@@ -0,0 +1,56 @@
+package com.changyang.scheduling.benchmark;
+
+import com.changyang.scheduling.domain.ChangeoverMatrix;
+import com.changyang.scheduling.domain.MotherRollOrder;
+import com.changyang.scheduling.domain.ProductionLine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 级联影子变量：从队首开始对整条产线调用 updateStartAndEndTime，
+ * 相当于在队首插入订单后 Timefold 触发的最坏情况级联
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CascadeBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    public int lineSize;
+
+    private MotherRollOrder[] sequence;
+
+    @Setup
+    public void setUp() {
+        List<MotherRollOrder> orders = BenchmarkOrders.orders(lineSize, 7L);
+        ProductionLine line = new ProductionLine("L2", "二线", "L2", LocalDateTime.of(2026, 3, 13, 8, 0));
+        line.setChangeoverMatrix(ChangeoverMatrix.build(BenchmarkOrders.changeoverEntries(), orders));
+        line.setOrders(orders);
+
+        MotherRollOrder previous = null;
+        for (MotherRollOrder order : orders) {
+            order.setAssignedLine(line);
+            order.setPreviousOrder(previous);
+            previous = order;
+        }
+        sequence = orders.toArray(new MotherRollOrder[0]);
+    }
+
+    @Benchmark
+    public long fullCascade() {
+        for (MotherRollOrder order : sequence) {
+            order.updateStartAndEndTime();
+        }
+        return sequence[sequence.length - 1].getEndMinute();
+    }
+}
@@ -0,0 +1,59 @@
+package com.changyang.scheduling.benchmark;
+
+import com.changyang.scheduling.domain.ChangeoverMatrix;
+import com.changyang.scheduling.domain.MotherRollOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 换型时间查询：按矩阵下标（求解时的路径）与按编码（未分配下标的降级路径）
+ * <p>
+ * 每次调用遍历 1024 个相邻订单对。
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChangeoverBenchmark {
+
+    private static final int ORDER_COUNT = 1024;
+
+    private ChangeoverMatrix matrix;
+    private MotherRollOrder[] indexedOrders;
+    private MotherRollOrder[] plainOrders;
+
+    @Setup
+    public void setUp() {
+        List<MotherRollOrder> indexed = BenchmarkOrders.orders(ORDER_COUNT, 42L);
+        matrix = ChangeoverMatrix.build(BenchmarkOrders.changeoverEntries(), indexed);
+        indexedOrders = indexed.toArray(new MotherRollOrder[0]);
+        // 同样的订单但不回写下标，走按编码查询
+        plainOrders = BenchmarkOrders.orders(ORDER_COUNT, 42L).toArray(new MotherRollOrder[0]);
+    }
+
+    @Benchmark
+    public long indexedLookup() {
+        return sumChangeovers(indexedOrders);
+    }
+
+    @Benchmark
+    public long codeLookup() {
+        return sumChangeovers(plainOrders);
+    }
+
+    private long sumChangeovers(MotherRollOrder[] orders) {
+        long sum = 0;
+        for (int i = 1; i < orders.length; i++) {
+            sum += matrix.calcChangeover(orders[i - 1], orders[i]);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,44 @@
+package com.changyang.scheduling.benchmark;
+
+import com.changyang.scheduling.domain.MotherRollSchedule;
+import com.changyang.scheduling.service.ChangeoverService;
+import com.changyang.scheduling.service.ExcelDataLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Excel 加载：工作簿预先读入内存，只测解析与建模
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExcelLoadBenchmark {
+
+    @Param({"docs/validation-data/validation-workbook-small.xlsx", "docs/validation-data/validation-workbook.xlsx"})
+    public String workbook;
+
+    private final ExcelDataLoader excelDataLoader = new ExcelDataLoader(new ChangeoverService());
+    private byte[] workbookBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        workbookBytes = Files.readAllBytes(Path.of(workbook));
+    }
+
+    @Benchmark
+    public MotherRollSchedule load() throws Exception {
+        return excelDataLoader.load(new ByteArrayInputStream(workbookBytes), LocalDateTime.of(2026, 3, 13, 8, 0));
+    }
+}
@@ -0,0 +1,50 @@
+package com.changyang.scheduling.benchmark;
+
+import ai.timefold.solver.persistence.common.api.domain.solution.SolutionFileIO;
+import com.changyang.scheduling.domain.MotherRollSchedule;
+import com.changyang.scheduling.service.ChangeoverService;
+import com.changyang.scheduling.service.ExcelDataLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+
+/**
+ * 基准用的 Excel 读取器
+ * <p>
+ * 通过 ExcelDataLoader 读取 .xlsx 排程数据，得到与 REST 上传相同的问题
+ * （换型矩阵已挂载、停机窗口已合并、默认约束配置）。求解开始时间固定，保证各次基准可比。
+ * 基准只读取输入，不写出解。
+ * </p>
+ */
+public class ExcelSolutionFileIO implements SolutionFileIO<MotherRollSchedule> {
+
+    /** 固定的求解开始时间，与验证数据的测试保持一致 */
+    private static final LocalDateTime SOLVE_START = LocalDateTime.of(2026, 3, 13, 8, 0);
+
+    private final ExcelDataLoader excelDataLoader = new ExcelDataLoader(new ChangeoverService());
+
+    @Override
+    public String getInputFileExtension() {
+        return "xlsx";
+    }
+
+    @Override
+    public MotherRollSchedule read(File inputSolutionFile) {
+        try (InputStream inputStream = Files.newInputStream(inputSolutionFile.toPath())) {
+            return excelDataLoader.load(inputStream, SOLVE_START);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read workbook: " + inputSolutionFile, e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to load workbook: " + inputSolutionFile, e);
+        }
+    }
+
+    @Override
+    public void write(MotherRollSchedule solution, File outputSolutionFile) {
+        throw new UnsupportedOperationException("Writing solutions back to Excel is not supported.");
+    }
+}
@@ -0,0 +1,38 @@
+package com.changyang.scheduling.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH 微基准入口
+ * <p>
+ * 统一挂载 GC profiler（输出 gc.alloc.rate.norm 等分配指标），结果另存为 target/jmh-result.json，
+ * 便于性能改动前后对比。
+ * </p>
+ * <p>
+ * 运行：{@code mvn -Pbenchmark compile exec:exec@jmh}，
+ * 只跑部分基准：{@code -Djmh.include=CascadeBenchmark}（正则，匹配类名/方法名）。
+ * </p>
+ */
+public class JmhBenchmarkApp {
+
+    public static void main(String[] args) throws Exception {
+        String include = args.length > 0 && !args[0].isBlank()
+                ? args[0]
+                : JmhBenchmarkApp.class.getPackageName() + ".*Benchmark";
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .result("target/jmh-result.json")
+                .resultFormat(ResultFormatType.JSON)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,74 @@
+package com.changyang.scheduling.benchmark;
+
+import ai.timefold.solver.benchmark.api.PlannerBenchmark;
+import ai.timefold.solver.benchmark.api.PlannerBenchmarkFactory;
+import ai.timefold.solver.benchmark.config.PlannerBenchmarkConfig;
+import ai.timefold.solver.benchmark.config.SolverBenchmarkConfig;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import ai.timefold.solver.core.config.solver.termination.TerminationConfig;
+import ai.timefold.solver.core.enterprise.TimefoldSolverEnterpriseService;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * moveThreadCount 扩展性基准入口
+ * <p>
+ * 沿用 schedulingBenchmarkConfig.xml 的领域模型、约束与统计项，只在 validation-workbook 上
+ * 以当前 solverConfig.xml 的阶段配置依次按 NONE、1、2、4 … 直到 CPU 核数的 move 线程数求解相同时长，
+ * 报告（target/benchmarks）中对比最终分数与 move 评估速度。各配置依次运行，互不争抢 CPU。
+ * 多线程求解需要 Timefold Enterprise。
+ * </p>
+ * <p>
+ * 运行：{@code mvn -Pbenchmark compile exec:java -Dexec.mainClass=com.changyang.scheduling.benchmark.MoveThreadCountBenchmarkApp}，
+ * 可用 {@code -Dbenchmark.seconds=60} 覆盖每次求解的时长（默认 30 秒）。
+ * </p>
+ */
+public class MoveThreadCountBenchmarkApp {
+
+    private static final String BENCHMARK_CONFIG = "schedulingBenchmarkConfig.xml";
+    private static final String SOLVER_CONFIG = "solverConfig.xml";
+    private static final File WORKBOOK = new File("docs/validation-data/validation-workbook.xlsx");
+
+    public static void main(String[] args) {
+        if (!isEnterpriseAvailable()) {
+            throw new IllegalStateException("moveThreadCount requires Timefold Solver Enterprise.");
+        }
+        PlannerBenchmarkConfig benchmarkConfig = PlannerBenchmarkConfig.createFromXmlResource(BENCHMARK_CONFIG);
+        benchmarkConfig.setParallelBenchmarkCount("1");
+        SolverBenchmarkConfig inherited = benchmarkConfig.getInheritedSolverBenchmarkConfig();
+        inherited.getProblemBenchmarksConfig().setInputSolutionFileList(List.of(WORKBOOK));
+        inherited.getSolverConfig().setTerminationConfig(
+                new TerminationConfig().withSecondsSpentLimit(Long.getLong("benchmark.seconds", 30L)));
+
+        SolverConfig baseConfig = SolverConfig.createFromXmlResource(SOLVER_CONFIG);
+        List<String> threadCounts = new ArrayList<>();
+        threadCounts.add(SolverConfig.MOVE_THREAD_COUNT_NONE);
+        for (int threads = 1; threads <= Runtime.getRuntime().availableProcessors(); threads *= 2) {
+            threadCounts.add(String.valueOf(threads));
+        }
+        List<SolverBenchmarkConfig> solverBenchmarks = new ArrayList<>();
+        for (String threadCount : threadCounts) {
+            SolverConfig solverConfig = new SolverConfig().withMoveThreadCount(threadCount);
+            solverConfig.setPhaseConfigList(baseConfig.copyConfig().getPhaseConfigList());
+            solverBenchmarks.add(new SolverBenchmarkConfig()
+                    .withName("moveThreadCount=" + threadCount)
+                    .withSolverConfig(solverConfig));
+        }
+        benchmarkConfig.setSolverBenchmarkConfigList(solverBenchmarks);
+
+        PlannerBenchmark benchmark = PlannerBenchmarkFactory.create(benchmarkConfig).buildPlannerBenchmark();
+        File reportDirectory = benchmark.benchmark();
+        System.out.println("Benchmark report: " + new File(reportDirectory, "index.html").getAbsolutePath());
+    }
+
+    private static boolean isEnterpriseAvailable() {
+        try {
+            TimefoldSolverEnterpriseService.load();
+            return true;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.changyang.scheduling.benchmark;
+
+import ai.timefold.solver.benchmark.api.PlannerBenchmark;
+import ai.timefold.solver.benchmark.api.PlannerBenchmarkFactory;
+import ai.timefold.solver.benchmark.config.PlannerBenchmarkConfig;
+import ai.timefold.solver.core.config.solver.termination.TerminationConfig;
+
+import java.io.File;
+
+/**
+ * 求解器配置基准入口
+ * <p>
+ * 读取 schedulingBenchmarkConfig.xml，在验证数据与生产样例上对比多种求解配置，
+ * 生成含最优分数随时间变化、分数计算速度、move 评估速度的 HTML 报告（target/benchmarks）。
+ * </p>
+ * <p>
+ * 运行：{@code mvn -Pbenchmark compile exec:java}，
+ * 可用 {@code -Dbenchmark.seconds=30} 覆盖每次求解的时长。
+ * </p>
+ */
+public class SchedulingBenchmarkApp {
+
+    private static final String BENCHMARK_CONFIG = "schedulingBenchmarkConfig.xml";
+
+    public static void main(String[] args) {
+        PlannerBenchmarkConfig benchmarkConfig = PlannerBenchmarkConfig.createFromXmlResource(BENCHMARK_CONFIG);
+
+        Long seconds = Long.getLong("benchmark.seconds");
+        if (seconds != null && seconds > 0) {
+            benchmarkConfig.getInheritedSolverBenchmarkConfig().getSolverConfig()
+                    .setTerminationConfig(new TerminationConfig().withSecondsSpentLimit(seconds));
+        }
+
+        PlannerBenchmark benchmark = PlannerBenchmarkFactory.create(benchmarkConfig).buildPlannerBenchmark();
+        File reportDirectory = benchmark.benchmark();
+        System.out.println("Benchmark report: " + new File(reportDirectory, "index.html").getAbsolutePath());
+    }
+}
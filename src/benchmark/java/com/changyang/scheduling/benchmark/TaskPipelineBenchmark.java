@@ -0,0 +1,63 @@
+package com.changyang.scheduling.benchmark;
+
+import com.changyang.scheduling.domain.ChangeoverMatrix;
+import com.changyang.scheduling.domain.MergedTask;
+import com.changyang.scheduling.domain.MotherRollOrder;
+import com.changyang.scheduling.domain.ProductionLine;
+import com.changyang.scheduling.service.TaskMerger;
+import com.changyang.scheduling.service.TaskSplitter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 求解前后处理：按天拆分 1000 个订单、合并一条已排好时间的拆分产线
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskPipelineBenchmark {
+
+    private static final int ORDER_COUNT = 1000;
+
+    private final TaskSplitter taskSplitter = new TaskSplitter();
+    private final TaskMerger taskMerger = new TaskMerger();
+
+    private List<MotherRollOrder> originals;
+    private ProductionLine splitLine;
+
+    @Setup
+    public void setUp() {
+        originals = BenchmarkOrders.orders(ORDER_COUNT, 11L);
+
+        List<MotherRollOrder> subTasks = taskSplitter.splitTasks(BenchmarkOrders.orders(ORDER_COUNT, 11L));
+        splitLine = new ProductionLine("L2", "二线", "L2", LocalDateTime.of(2026, 3, 13, 8, 0));
+        splitLine.setChangeoverMatrix(ChangeoverMatrix.build(BenchmarkOrders.changeoverEntries(), subTasks));
+        splitLine.setOrders(subTasks);
+        MotherRollOrder previous = null;
+        for (MotherRollOrder order : subTasks) {
+            order.setAssignedLine(splitLine);
+            order.setPreviousOrder(previous);
+            order.updateStartAndEndTime();
+            previous = order;
+        }
+    }
+
+    @Benchmark
+    public List<MotherRollOrder> splitTasks() {
+        return taskSplitter.splitTasks(originals);
+    }
+
+    @Benchmark
+    public List<MergedTask> mergeTasks() {
+        return taskMerger.mergeTasks(splitLine);
+    }
+}
@@ -25,6 +25,7 @@ const state = {
   validation: null,
   activeJobId: null,
   pollTimer: null,
+  eventSource: null,
   selectedTaskKey: null,
   ganttTasks: new Map()
 };
@@ -693,6 +694,15 @@ const clearPolling = () => {
     clearInterval(state.pollTimer);
     state.pollTimer = null;
   }
+  if (state.eventSource) {
+    state.eventSource.close();
+    state.eventSource = null;
+  }
+};
+
+const startPolling = (intervalMs) => {
+  clearPolling();
+  state.pollTimer = window.setInterval(pollAsyncStatus, intervalMs);
 };
 
 const pollAsyncStatus = async () => {
@@ -725,6 +735,42 @@ const pollAsyncStatus = async () => {
   }
 };
 
+const renderSolveProgress = (event) => {
+  if (event.score) {
+    elements.resultScore.textContent = event.score;
+  }
+  elements.resultUnassigned.textContent = String(event.totalOrders - event.assignedCount);
+  setStatus('running', `异步求解中：已分配 ${event.assignedCount}/${event.totalOrders}，已用时 ${Math.round(event.elapsedMillis / 1000)} 秒。`);
+};
+
+// 服务端推送新的最佳解；任务结束后再取一次完整结果。浏览器不支持或连接中断时回退到轮询
+const watchAsyncJob = (jobId) => {
+  clearPolling();
+  if (!window.EventSource) {
+    startPolling(1500);
+    return;
+  }
+
+  const source = new EventSource(`${BASE_URL}/events/${jobId}`);
+  state.eventSource = source;
+  source.addEventListener('best-solution', (message) => {
+    renderSolveProgress(JSON.parse(message.data));
+  });
+  const fetchFinalResult = () => {
+    // 最终解先于求解器状态更新，短间隔轮询到 NOT_SOLVING 为止
+    startPolling(500);
+    pollAsyncStatus();
+  };
+  ['finished', 'failed', 'expired'].forEach((eventName) => {
+    source.addEventListener(eventName, fetchFinalResult);
+  });
+  source.onerror = () => {
+    if (state.eventSource === source) {
+      startPolling(1500);
+    }
+  };
+};
+
 const runAsyncSolve = async () => {
   ensureFileSelected();
   const config = buildConfig();
@@ -740,8 +786,7 @@ const runAsyncSolve = async () => {
   elements.resultJobId.textContent = payload.jobId;
   elements.buttons.stop.disabled = false;
 
-  clearPolling();
-  state.pollTimer = window.setInterval(pollAsyncStatus, 1500);
+  watchAsyncJob(payload.jobId);
 };
 
 const stopAsyncSolve = async () => {
@@ -0,0 +1,156 @@
+package com.changyang.scheduling.domain;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 换型矩阵 — 单次求解的只读上下文
+ * <p>
+ * 由 ChangeoverEntry 列表展开得到的稠密 int[][] 表：每个"配方_型号"组合和每个厚度
+ * 都有一个内部下标，并在构建时回写到订单上，查询只做两次数组读取。
+ * </p>
+ * <p>
+ * 构建完成后不再修改，可被同一求解的多个线程（以及 Solver 克隆出的工作解）安全共享；
+ * 每次求解各自持有一份，并发任务之间互不干扰。
+ * </p>
+ */
+public final class ChangeoverMatrix {
+
+    /** "配方_型号" → 矩阵下标 */
+    private final Map<String, Integer> formulaModelIds;
+    /** 厚度 → 矩阵下标 */
+    private final Map<Integer, Integer> thicknessIds;
+
+    /** 配方_型号维度换型分钟数，[from][to] */
+    private final int[][] formulaModelMinutes;
+    /** 厚度维度换型分钟数，[from][to] */
+    private final int[][] thicknessMinutes;
+
+    private ChangeoverMatrix(Map<String, Integer> formulaModelIds, Map<Integer, Integer> thicknessIds,
+                             int[][] formulaModelMinutes, int[][] thicknessMinutes) {
+        this.formulaModelIds = formulaModelIds;
+        this.thicknessIds = thicknessIds;
+        this.formulaModelMinutes = formulaModelMinutes;
+        this.thicknessMinutes = thicknessMinutes;
+    }
+
+    /**
+     * 构建换型矩阵，并为订单分配矩阵下标。
+     * <p>
+     * 订单中出现但矩阵里没有的编码同样会分配下标（对应行列全为 0），
+     * 这样"下标相同"即等价于"编码相同"，同产品判 0 的规则无需再比较字符串。
+     * </p>
+     */
+    public static ChangeoverMatrix build(List<ChangeoverEntry> entries, Collection<MotherRollOrder> orders) {
+        Map<String, Integer> formulaModelIds = new HashMap<>();
+        Map<Integer, Integer> thicknessIds = new HashMap<>();
+
+        // 1. 为矩阵与订单中出现的全部编码分配下标
+        for (ChangeoverEntry entry : entries) {
+            if (entry.getType() == ChangeoverEntry.Type.FORMULA_MODEL) {
+                intern(formulaModelIds, formulaModelKey(entry.getFromFormulaCode(), entry.getFromProductCode()));
+                intern(formulaModelIds, formulaModelKey(entry.getToFormulaCode(), entry.getToProductCode()));
+            } else if (entry.getType() == ChangeoverEntry.Type.THICKNESS
+                    && entry.getFromThickness() != null && entry.getToThickness() != null) {
+                intern(thicknessIds, entry.getFromThickness());
+                intern(thicknessIds, entry.getToThickness());
+            }
+        }
+        for (MotherRollOrder order : orders) {
+            intern(formulaModelIds, formulaModelKey(order.getFormulaCode(), order.getProductCode()));
+            intern(thicknessIds, order.getThickness());
+        }
+
+        // 2. 展开为稠密矩阵，未配置的组合为 0（与原 getOrDefault(key, 0) 语义一致）
+        int[][] fmMinutes = new int[formulaModelIds.size()][formulaModelIds.size()];
+        int[][] thMinutes = new int[thicknessIds.size()][thicknessIds.size()];
+        for (ChangeoverEntry entry : entries) {
+            if (entry.getType() == ChangeoverEntry.Type.FORMULA_MODEL) {
+                int from = formulaModelIds.get(formulaModelKey(entry.getFromFormulaCode(), entry.getFromProductCode()));
+                int to = formulaModelIds.get(formulaModelKey(entry.getToFormulaCode(), entry.getToProductCode()));
+                fmMinutes[from][to] = entry.getChangeoverMinutes();
+            } else if (entry.getType() == ChangeoverEntry.Type.THICKNESS
+                    && entry.getFromThickness() != null && entry.getToThickness() != null) {
+                int from = thicknessIds.get(entry.getFromThickness());
+                int to = thicknessIds.get(entry.getToThickness());
+                thMinutes[from][to] = entry.getChangeoverMinutes();
+            }
+        }
+
+        // 3. 回写订单下标
+        for (MotherRollOrder order : orders) {
+            order.setFormulaModelId(formulaModelIds.get(formulaModelKey(order.getFormulaCode(), order.getProductCode())));
+            order.setThicknessId(thicknessIds.get(order.getThickness()));
+        }
+
+        return new ChangeoverMatrix(Map.copyOf(formulaModelIds), Map.copyOf(thicknessIds), fmMinutes, thMinutes);
+    }
+
+    /**
+     * 计算相邻两单之间的换型时间
+     * <p>
+     * 规则：取（配方_型号维度换型用时，厚度维度换型用时）的最大值。
+     * 同一产品的直接判 0，矩阵中未配置的组合按 0 计。
+     * </p>
+     */
+    public int calcChangeover(MotherRollOrder prev, MotherRollOrder current) {
+        if (prev == null || current == null) {
+            return 0; // 队伍首个订单，换型 0
+        }
+
+        // 两单均已分配矩阵下标：纯数组查询，不产生任何对象分配
+        if (isIndexed(prev) && isIndexed(current)) {
+            int fromFm = prev.getFormulaModelId();
+            int toFm = current.getFormulaModelId();
+            int fromTh = prev.getThicknessId();
+            int toTh = current.getThicknessId();
+            // 同产品同属性判定 0（特别是被拆分的同一天连续子任务）
+            if (fromFm == toFm && fromTh == toTh) {
+                return 0;
+            }
+            return Math.max(formulaModelMinutes[fromFm][toFm], thicknessMinutes[fromTh][toTh]);
+        }
+
+        return calcChangeoverByCode(prev, current);
+    }
+
+    /**
+     * 未分配下标的订单（如单测中手工构造的订单）按编码查询，语义与矩阵查询一致。
+     */
+    private int calcChangeoverByCode(MotherRollOrder prev, MotherRollOrder current) {
+        // 同产品同属性判定 0（特别是被拆分的同一天连续子任务）
+        if (prev.getFormulaCode().equals(current.getFormulaCode()) &&
+            prev.getProductCode().equals(current.getProductCode()) &&
+            prev.getThickness() == current.getThickness()) {
+            return 0;
+        }
+
+        // 1. 查询配方+型号维度
+        Integer fromFm = formulaModelIds.get(formulaModelKey(prev.getFormulaCode(), prev.getProductCode()));
+        Integer toFm = formulaModelIds.get(formulaModelKey(current.getFormulaCode(), current.getProductCode()));
+        int fmTime = (fromFm == null || toFm == null) ? 0 : formulaModelMinutes[fromFm][toFm];
+
+        // 2. 查询厚度维度
+        Integer fromTh = thicknessIds.get(prev.getThickness());
+        Integer toTh = thicknessIds.get(current.getThickness());
+        int thTime = (fromTh == null || toTh == null) ? 0 : thicknessMinutes[fromTh][toTh];
+
+        // 取最大值
+        return Math.max(fmTime, thTime);
+    }
+
+    private boolean isIndexed(MotherRollOrder order) {
+        return order.getFormulaModelId() >= 0 && order.getFormulaModelId() < formulaModelMinutes.length
+                && order.getThicknessId() >= 0 && order.getThicknessId() < thicknessMinutes.length;
+    }
+
+    private static <K> void intern(Map<K, Integer> ids, K key) {
+        ids.putIfAbsent(key, ids.size());
+    }
+
+    private static String formulaModelKey(String formulaCode, String productCode) {
+        return formulaCode + "_" + productCode;
+    }
+}
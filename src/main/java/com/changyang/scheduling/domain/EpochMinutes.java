@@ -0,0 +1,24 @@
+package com.changyang.scheduling.domain;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * 本地时间与 epoch 分钟之间的换算
+ * <p>
+ * 约束与索引统一用 long 分钟比较时间；LocalDateTime 按 UTC 解释，不涉及时区换算。
+ * </p>
+ */
+public final class EpochMinutes {
+
+    private EpochMinutes() {
+    }
+
+    public static long of(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    public static LocalDateTime toLocalDateTime(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+}
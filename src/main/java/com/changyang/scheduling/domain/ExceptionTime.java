@@ -1,10 +1,15 @@
 package com.changyang.scheduling.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 
 /**
  * 例外停机时间 — Problem Fact
@@ -27,4 +32,51 @@ public class ExceptionTime {
     /** 停机结束时间 */
     private LocalDateTime endTime;
 
+    /** 停机开始时间（epoch 分钟），供 HC3 区间连接使用 */
+    @JsonIgnore
+    public long getStartMinute() {
+        return EpochMinutes.of(startTime);
+    }
+
+    /** 停机结束时间（epoch 分钟），供 HC3 区间连接使用 */
+    @JsonIgnore
+    public long getEndMinute() {
+        return EpochMinutes.of(endTime);
+    }
+
+    /**
+     * 按产线合并停机窗口：丢弃不完整或长度为 0 的窗口，
+     * 同一产线上重叠或首尾相接的窗口合并为一个，结果按产线、开始时间排序。
+     * <p>
+     * 合并后同一产线的窗口两两不相交，HC3 对每个订单的重叠分钟数不会重复计算。
+     * </p>
+     */
+    public static List<ExceptionTime> coalesce(Collection<ExceptionTime> exceptionTimes) {
+        List<ExceptionTime> result = new ArrayList<>();
+        if (exceptionTimes == null) {
+            return result;
+        }
+        List<ExceptionTime> sorted = exceptionTimes.stream()
+                .filter(exception -> exception.getLineId() != null
+                        && exception.getStartTime() != null
+                        && exception.getEndTime() != null
+                        && exception.getStartTime().isBefore(exception.getEndTime()))
+                .sorted(Comparator.comparing(ExceptionTime::getLineId)
+                        .thenComparing(ExceptionTime::getStartTime))
+                .toList();
+        ExceptionTime current = null;
+        for (ExceptionTime exception : sorted) {
+            if (current != null
+                    && current.getLineId().equals(exception.getLineId())
+                    && !exception.getStartTime().isAfter(current.getEndTime())) {
+                if (exception.getEndTime().isAfter(current.getEndTime())) {
+                    current.setEndTime(exception.getEndTime());
+                }
+                continue;
+            }
+            current = new ExceptionTime(exception.getLineId(), exception.getStartTime(), exception.getEndTime());
+            result.add(current);
+        }
+        return result;
+    }
 }
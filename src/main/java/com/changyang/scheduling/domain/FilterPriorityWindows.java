@@ -0,0 +1,133 @@
+package com.changyang.scheduling.domain;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 单条产线的过滤器后优先窗口 — 单次求解的只读上下文
+ * <p>
+ * 每次过滤器更换对应一个窗口：开始时间满足 {@code DAYS.between(changeTime, start) ∈ [0, 20]}
+ * 的订单落在窗口内，即 start ∈ (changeTime - 1天, changeTime + 21天)。
+ * 窗口以 epoch 分钟的半开区间 [start, end) 保存并按开始时间排序，
+ * 另存一份合并后的并集，供 MC1 在配对之前先判断订单是否落在任一窗口内。
+ * </p>
+ */
+public final class FilterPriorityWindows {
+
+    /** 没有过滤器更换计划的产线 */
+    public static final FilterPriorityWindows EMPTY = new FilterPriorityWindows(new long[0], new long[0]);
+
+    private static final long MINUTES_PER_DAY = 24 * 60;
+    /** 窗口天数：更换后第 0 天至第 20 天 */
+    private static final long WINDOW_DAYS = 20;
+
+    /** 各窗口起点（含），升序 */
+    private final long[] starts;
+    /** 各窗口终点（不含），与 starts 一一对应 */
+    private final long[] ends;
+    /** 合并后的并集起点（含） */
+    private final long[] unionStarts;
+    /** 合并后的并集终点（不含） */
+    private final long[] unionEnds;
+
+    private FilterPriorityWindows(long[] starts, long[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+
+        long[] mergedStarts = new long[starts.length];
+        long[] mergedEnds = new long[starts.length];
+        int count = 0;
+        for (int i = 0; i < starts.length; i++) {
+            if (count > 0 && starts[i] <= mergedEnds[count - 1]) {
+                mergedEnds[count - 1] = Math.max(mergedEnds[count - 1], ends[i]);
+            } else {
+                mergedStarts[count] = starts[i];
+                mergedEnds[count] = ends[i];
+                count++;
+            }
+        }
+        this.unionStarts = Arrays.copyOf(mergedStarts, count);
+        this.unionEnds = Arrays.copyOf(mergedEnds, count);
+    }
+
+    /**
+     * 按产线 ID 从过滤器更换计划构建窗口
+     */
+    public static FilterPriorityWindows build(List<FilterChangePlan> plans, String lineId) {
+        if (plans == null || plans.isEmpty()) {
+            return EMPTY;
+        }
+        long[][] windows = plans.stream()
+                .filter(plan -> plan.getChangeTime() != null && lineId.equals(plan.getLineId()))
+                .map(plan -> window(plan.getChangeTime()))
+                .sorted((a, b) -> Long.compare(a[0], b[0]))
+                .toArray(long[][]::new);
+        if (windows.length == 0) {
+            return EMPTY;
+        }
+        long[] starts = new long[windows.length];
+        long[] ends = new long[windows.length];
+        for (int i = 0; i < windows.length; i++) {
+            starts[i] = windows[i][0];
+            ends[i] = windows[i][1];
+        }
+        return new FilterPriorityWindows(starts, ends);
+    }
+
+    /**
+     * 某分钟是否落在任一窗口内
+     */
+    public boolean covers(long minute) {
+        int index = upperBound(unionStarts, minute) - 1;
+        return index >= 0 && minute < unionEnds[index];
+    }
+
+    /**
+     * 同时包含两个时刻的窗口个数
+     */
+    public int countCovering(long first, long second) {
+        long earlier = Math.min(first, second);
+        long later = Math.max(first, second);
+        int count = 0;
+        for (int i = upperBound(starts, earlier) - 1; i >= 0; i--) {
+            if (ends[i] > later) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return starts.length == 0;
+    }
+
+    /**
+     * 更换时间对应的窗口 [start, end)：对整分钟的开始时间，
+     * start ∈ (changeTime - 1天, changeTime + 21天) 与 DAYS.between 截断语义一致
+     */
+    private static long[] window(LocalDateTime changeTime) {
+        long changeSecond = changeTime.toEpochSecond(ZoneOffset.UTC);
+        long lowerExclusiveSecond = changeSecond - MINUTES_PER_DAY * 60;
+        long upperExclusiveSecond = changeSecond + (WINDOW_DAYS + 1) * MINUTES_PER_DAY * 60;
+        long start = Math.floorDiv(lowerExclusiveSecond, 60) + 1;
+        long end = Math.floorDiv(upperExclusiveSecond + 59, 60);
+        return new long[]{start, end};
+    }
+
+    /** 第一个大于 value 的下标 */
+    private static int upperBound(long[] sorted, long value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -5,6 +5,8 @@ import ai.timefold.solver.core.api.domain.variable.CascadingUpdateShadowVariable
 import ai.timefold.solver.core.api.domain.variable.IndexShadowVariable;
 import ai.timefold.solver.core.api.domain.variable.InverseRelationShadowVariable;
 import ai.timefold.solver.core.api.domain.variable.PreviousElementShadowVariable;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -29,6 +31,9 @@ import java.util.Set;
 @AllArgsConstructor
 public class MotherRollOrder {
 
+    /** 时间轴哨兵值：未排程（未分配产线或无法推算时间） */
+    public static final long UNSCHEDULED = Long.MIN_VALUE;
+
     // ==================== 问题数据（Problem Facts） ====================
 
     /** 订单ID */
@@ -62,12 +67,28 @@ public class MotherRollOrder {
     /** 期望开始生产时间 */
     private LocalDateTime expectedStartTime;
 
+    /** 期望开始生产时间（epoch 分钟），随 expectedStartTime 一起设置，未设置时为 UNSCHEDULED */
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private long expectedStartMinute = UNSCHEDULED;
+
     /** 兼容产线编码列表 */
     private Set<String> compatibleLines;
 
     /** 优先产线编码 */
     private String preferredLineCode;
 
+    /** MC1 过滤器后优先级（加载时按 "型号_厚度" 解析），0 表示不在优先序列中 */
+    private int filterPriorityRank;
+
+    // ==================== 换型矩阵下标（加载时分配） ====================
+
+    /** "配方_型号"组合在换型矩阵中的下标，-1 表示尚未分配 */
+    private int formulaModelId = -1;
+
+    /** 厚度在换型矩阵中的下标，-1 表示尚未分配 */
+    private int thicknessId = -1;
+
     // ==================== 拆分相关（日颗粒度） ====================
 
     /** 归属的母任务 ID，未拆分的为 null */
@@ -101,61 +122,119 @@ public class MotherRollOrder {
     @PreviousElementShadowVariable(sourceVariableName = "orders")
     private MotherRollOrder previousOrder;
 
-    /** 影子变量 4：计划开始时间（级联计算） */
+    /** 影子变量 4：计划开始时间（epoch 分钟，级联计算），未排程时为 UNSCHEDULED */
+    @JsonIgnore
     @CascadingUpdateShadowVariable(targetMethodName = "updateStartAndEndTime")
-    private LocalDateTime startTime;
+    private long startMinute = UNSCHEDULED;
 
-    /** 影子变量 5：计划结束时间（级联计算） */
+    /** 影子变量 5：计划结束时间（epoch 分钟，级联计算），未排程时为 UNSCHEDULED */
+    @JsonIgnore
     @CascadingUpdateShadowVariable(targetMethodName = "updateStartAndEndTime")
-    private LocalDateTime endTime;
+    private long endMinute = UNSCHEDULED;
 
     /** 换型时间（分钟），在级联更新中计算 */
     @CascadingUpdateShadowVariable(targetMethodName = "updateStartAndEndTime")
     private Integer changeoverMinutes;
 
+    /** 相对前一订单的厚度方向（1 变厚 / -1 变薄 / 0 持平或队首），在级联更新中计算 */
+    @JsonIgnore
+    @CascadingUpdateShadowVariable(targetMethodName = "updateStartAndEndTime")
+    private int thicknessDirection;
+
+    /** 是否为厚度方向反转点（前一段与本段方向相反，平段不算），供 HC4 统计 */
+    @JsonIgnore
+    @CascadingUpdateShadowVariable(targetMethodName = "updateStartAndEndTime")
+    private boolean thicknessReversal;
+
     // ==================== 级联更新回调 ====================
 
     /**
      * 当 assignedLine / previousOrder 变化时，Timefold 自动调用此方法。
-     * 从变化点向后级联传播，重新计算 startTime、endTime、changeoverMinutes。
+     * 从变化点向后级联传播，重新计算 startTime、endTime、changeoverMinutes 以及厚度方向。
      * <p>
-     * 注意：当前为简化版实现，未跳过非工作时间、未查询换型矩阵。
-     * Phase 1 完善后将注入 ChangeoverService 和 FactoryCalendar。
+     * 换型时间取自产线上挂载的本次求解的 ChangeoverMatrix；
+     * 时间轴以 epoch 分钟的 long 值推算，级联过程中不创建 LocalDateTime 对象。
+     * 厚度反转点只依赖前一订单的厚度与方向：前一订单方向变化时其影子变量随之变化，
+     * 级联会继续传播到本订单，因此无需回看前两个订单。
+     * 注意：当前为简化版实现，未跳过非工作时间。
      * </p>
      */
     public void updateStartAndEndTime() {
         if (assignedLine == null) {
-            startTime = null;
-            endTime = null;
+            startMinute = UNSCHEDULED;
+            endMinute = UNSCHEDULED;
             changeoverMinutes = null;
+            thicknessDirection = 0;
+            thicknessReversal = false;
             return;
         }
 
+        // 0. 厚度方向与反转点（HC4）
+        if (previousOrder == null) {
+            thicknessDirection = 0;
+            thicknessReversal = false;
+        } else {
+            thicknessDirection = Integer.compare(thickness, previousOrder.getThickness());
+            int previousDirection = previousOrder.getThicknessDirection();
+            thicknessReversal = previousDirection != 0 && thicknessDirection != 0
+                    && previousDirection != thicknessDirection;
+        }
+
         // 1. 换型时间计算
-        // 尝试从 ChangeoverService 获取，若其尚未初始化（如普通单测），则降级到简单计算
-        if (com.changyang.scheduling.service.ChangeoverService.getInstance() != null) {
-            changeoverMinutes = com.changyang.scheduling.service.ChangeoverService.getInstance().calcChangeover(previousOrder, this);
+        // 从产线上的换型矩阵获取，若未挂载（如普通单测），则降级到简单计算
+        ChangeoverMatrix changeoverMatrix = assignedLine.getChangeoverMatrix();
+        if (changeoverMatrix != null) {
+            changeoverMinutes = changeoverMatrix.calcChangeover(previousOrder, this);
         } else {
             changeoverMinutes = calcSimpleChangeover(previousOrder);
         }
 
         // 2. 计划开始时间
         if (previousOrder == null) {
-            startTime = assignedLine.getAvailableFrom();
+            startMinute = assignedLine.getAvailableFromMinute();
         } else {
-            LocalDateTime prevEnd = previousOrder.getEndTime();
-            startTime = (prevEnd != null) ? prevEnd.plusMinutes(changeoverMinutes) : null;
+            long prevEnd = previousOrder.getEndMinute();
+            startMinute = (prevEnd != UNSCHEDULED) ? prevEnd + changeoverMinutes : UNSCHEDULED;
         }
 
         // 3. 计算结束时间
         // TODO Phase 1 进阶：注入 FactoryCalendar 跳过非工作时间（目前采用 7x24 简单 plus）
-        if (startTime != null) {
-            endTime = startTime.plusMinutes((long) (productionDurationHours * 60));
+        if (startMinute != UNSCHEDULED) {
+            endMinute = startMinute + (long) (productionDurationHours * 60);
         } else {
-            endTime = null;
+            endMinute = UNSCHEDULED;
         }
     }
 
+    // ==================== 时间视图（供 TaskMerger / REST 使用） ====================
+
+    public void setExpectedStartTime(LocalDateTime expectedStartTime) {
+        this.expectedStartTime = expectedStartTime;
+        this.expectedStartMinute = expectedStartTime == null ? UNSCHEDULED : EpochMinutes.of(expectedStartTime);
+    }
+
+    /**
+     * 计划开始时间，由 startMinute 按需换算；未排程时为 null
+     */
+    public LocalDateTime getStartTime() {
+        return startMinute == UNSCHEDULED ? null : EpochMinutes.toLocalDateTime(startMinute);
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startMinute = startTime == null ? UNSCHEDULED : EpochMinutes.of(startTime);
+    }
+
+    /**
+     * 计划结束时间，由 endMinute 按需换算；未排程时为 null
+     */
+    public LocalDateTime getEndTime() {
+        return endMinute == UNSCHEDULED ? null : EpochMinutes.toLocalDateTime(endMinute);
+    }
+
+    public void setEndTime(LocalDateTime endTime) {
+        this.endMinute = endTime == null ? UNSCHEDULED : EpochMinutes.of(endTime);
+    }
+
     /**
      * 降级时的简化计算
      */
@@ -193,6 +272,34 @@ public class MotherRollOrder {
         return !split || dayIndex == 1;
     }
 
+    /**
+     * 复制问题属性，影子变量保持初始值，由求解器重新计算
+     */
+    public MotherRollOrder copyProblem() {
+        MotherRollOrder copy = new MotherRollOrder();
+        copy.setId(id);
+        copy.setMaterialCode(materialCode);
+        copy.setProductCode(productCode);
+        copy.setFormulaCode(formulaCode);
+        copy.setThickness(thickness);
+        copy.setQuantity(quantity);
+        copy.setProductionDurationHours(productionDurationHours);
+        copy.setCurrentInventory(currentInventory);
+        copy.setMonthlyShipment(monthlyShipment);
+        copy.setExpectedStartTime(expectedStartTime);
+        copy.setCompatibleLines(compatibleLines);
+        copy.setPreferredLineCode(preferredLineCode);
+        copy.setFilterPriorityRank(filterPriorityRank);
+        copy.setFormulaModelId(formulaModelId);
+        copy.setThicknessId(thicknessId);
+        copy.setParentTaskId(parentTaskId);
+        copy.setDayIndex(dayIndex);
+        copy.setTotalDays(totalDays);
+        copy.setSplit(split);
+        copy.setPinned(pinned);
+        return copy;
+    }
+
     @Override
     public String toString() {
         return "MotherRollOrder{" + id +
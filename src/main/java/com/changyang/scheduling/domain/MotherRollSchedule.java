@@ -7,12 +7,16 @@ import ai.timefold.solver.core.api.domain.constraintweight.ConstraintConfigurati
 import ai.timefold.solver.core.api.domain.valuerange.ValueRangeProvider;
 import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
 import com.changyang.scheduling.solver.SchedulingConstraintConfiguration;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 母卷排程方案 — Planning Solution
@@ -69,6 +73,12 @@ public class MotherRollSchedule {
     @ai.timefold.solver.core.api.domain.solution.ProblemFactProperty
     private com.changyang.scheduling.domain.FactoryCalendar factoryCalendar;
 
+    /**
+     * 本次求解的换型矩阵（由 changeoverEntries 构建，只读，同时挂在各产线上）
+     */
+    @JsonIgnore
+    private ChangeoverMatrix changeoverMatrix;
+
     /**
      * 基础便捷构造
      */
@@ -81,4 +91,43 @@ public class MotherRollSchedule {
         this.changeoverEntries = new java.util.ArrayList<>();
         this.factoryCalendar = new com.changyang.scheduling.domain.FactoryCalendar();
     }
+
+    /**
+     * 复制问题：订单与产线是新对象，各产线保留已分配订单的顺序；
+     * 停机窗口、过滤器计划等问题事实只读，按引用共享。求解与预处理只修改副本，原对象可以反复复制。
+     */
+    public MotherRollSchedule copyProblem() {
+        Map<String, MotherRollOrder> orderCopies = new LinkedHashMap<>();
+        if (orders != null) {
+            for (MotherRollOrder order : orders) {
+                orderCopies.put(order.getId(), order.copyProblem());
+            }
+        }
+        List<ProductionLine> lineCopies = null;
+        if (productionLines != null) {
+            lineCopies = new ArrayList<>(productionLines.size());
+            for (ProductionLine line : productionLines) {
+                ProductionLine lineCopy = new ProductionLine(line.getId(), line.getName(), line.getLineCode(),
+                        line.getAvailableFrom());
+                lineCopy.setDailyCapacity(line.getDailyCapacity());
+                lineCopy.setChangeoverMatrix(line.getChangeoverMatrix());
+                lineCopy.setFilterPriorityWindows(line.getFilterPriorityWindows());
+                for (MotherRollOrder order : line.getOrders()) {
+                    lineCopy.getOrders().add(orderCopies.get(order.getId()));
+                }
+                lineCopies.add(lineCopy);
+            }
+        }
+
+        MotherRollSchedule copy = new MotherRollSchedule();
+        copy.setProductionLines(lineCopies);
+        copy.setOrders(orders == null ? null : new ArrayList<>(orderCopies.values()));
+        copy.setConstraintConfiguration(constraintConfiguration);
+        copy.setExceptionTimes(exceptionTimes == null ? null : new ArrayList<>(exceptionTimes));
+        copy.setFilterChangePlans(filterChangePlans == null ? null : new ArrayList<>(filterChangePlans));
+        copy.setChangeoverEntries(changeoverEntries == null ? null : new ArrayList<>(changeoverEntries));
+        copy.setFactoryCalendar(factoryCalendar);
+        copy.setChangeoverMatrix(changeoverMatrix);
+        return copy;
+    }
 }
@@ -2,6 +2,7 @@ package com.changyang.scheduling.domain;
 
 import ai.timefold.solver.core.api.domain.entity.PlanningEntity;
 import ai.timefold.solver.core.api.domain.variable.PlanningListVariable;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -42,6 +43,14 @@ public class ProductionLine {
     /** 日产能（吨/天） */
     private double dailyCapacity;
 
+    /** 本次求解的换型矩阵（只读，供影子变量回调查询） */
+    @JsonIgnore
+    private ChangeoverMatrix changeoverMatrix;
+
+    /** 本次求解的过滤器后优先窗口（只读，供 MC1 查询） */
+    @JsonIgnore
+    private FilterPriorityWindows filterPriorityWindows;
+
     /**
      * 产线上的有序任务列表 — Solver 的核心决策变量
      */
@@ -58,6 +67,14 @@ public class ProductionLine {
         this.availableFrom = availableFrom;
     }
 
+    /**
+     * 产线可用开始时间（epoch 分钟），未设置时为 {@link MotherRollOrder#UNSCHEDULED}
+     */
+    @JsonIgnore
+    public long getAvailableFromMinute() {
+        return availableFrom == null ? MotherRollOrder.UNSCHEDULED : EpochMinutes.of(availableFrom);
+    }
+
     @Override
     public String toString() {
         return "ProductionLine{" + id + " '" + name + "'}";
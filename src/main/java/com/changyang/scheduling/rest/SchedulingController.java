@@ -1,16 +1,25 @@
 package com.changyang.scheduling.rest;
 
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
 import ai.timefold.solver.core.api.solver.SolverStatus;
 import com.changyang.scheduling.domain.MergedTask;
 import com.changyang.scheduling.domain.MotherRollSchedule;
 import com.changyang.scheduling.domain.ProductionLine;
 import com.changyang.scheduling.rest.dto.ExcelValidationSummaryDto;
+import com.changyang.scheduling.rest.dto.JobStoreStatsDto;
 import com.changyang.scheduling.rest.dto.SolveRequestConfigDto;
+import com.changyang.scheduling.rest.dto.SyntheticWorkloadDto;
+import com.changyang.scheduling.rest.dto.WarmStartSettingsDto;
+import com.changyang.scheduling.rest.dto.WorkbookCacheStatsDto;
+import com.changyang.scheduling.service.CachedWorkbook;
 import com.changyang.scheduling.service.DemoDataGenerator;
-import com.changyang.scheduling.service.ExcelDataLoader;
 import com.changyang.scheduling.service.ExcelValidationService;
+import com.changyang.scheduling.service.ParsedWorkbookCache;
 import com.changyang.scheduling.service.SchedulingService;
+import com.changyang.scheduling.service.SolutionEventBroadcaster;
+import com.changyang.scheduling.service.SyntheticWorkloadGenerator;
 import com.changyang.scheduling.service.TaskMerger;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,6 +28,7 @@ import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -29,9 +39,11 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.InputStream;
+import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -39,6 +51,7 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @RestController
@@ -46,11 +59,16 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class SchedulingController {
 
+    private static final TypeReference<Map<String, List<String>>> LINE_SEQUENCES_TYPE = new TypeReference<>() {
+    };
+
     private final SchedulingService schedulingService;
     private final TaskMerger taskMerger;
     private final DemoDataGenerator demoDataGenerator;
-    private final ExcelDataLoader excelDataLoader;
+    private final SyntheticWorkloadGenerator syntheticWorkloadGenerator;
     private final ExcelValidationService excelValidationService;
+    private final ParsedWorkbookCache parsedWorkbookCache;
+    private final SolutionEventBroadcaster solutionEventBroadcaster;
     private final ObjectMapper objectMapper;
 
     @PostMapping("/solve")
@@ -71,10 +89,9 @@ public class SchedulingController {
             @RequestParam(value = "startTime", required = false) String startTime) {
         try {
             LocalDateTime solveStart = parseStartTime(startTime);
-            byte[] workbookBytes = file.getBytes();
-            MotherRollSchedule problem = excelDataLoader.load(file.getInputStream(), solveStart);
-            ExcelValidationSummaryDto validation = excelValidationService.analyze(file.getOriginalFilename(),
-                    workbookBytes, problem);
+            CachedWorkbook workbook = parsedWorkbookCache.load(file, file.getSize(), solveStart,
+                    file.getOriginalFilename());
+            ExcelValidationSummaryDto validation = workbook.getValidation();
             return ResponseEntity.ok(validation);
         } catch (Exception e) {
             log.error("Excel数据验证失败", e);
@@ -90,10 +107,10 @@ public class SchedulingController {
         try {
             LocalDateTime solveStart = parseStartTime(startTime);
             SolveRequestConfigDto config = parseConfig(configJson);
-            byte[] workbookBytes = file.getBytes();
-            MotherRollSchedule problem = excelDataLoader.load(file.getInputStream(), solveStart);
-            ExcelValidationSummaryDto validation = excelValidationService.analyze(file.getOriginalFilename(),
-                    workbookBytes, problem);
+            CachedWorkbook workbook = parsedWorkbookCache.load(file, file.getSize(), solveStart,
+                    file.getOriginalFilename());
+            MotherRollSchedule problem = workbook.getSchedule();
+            ExcelValidationSummaryDto validation = workbook.getValidation();
 
             List<String> selectionErrors = excelValidationService.validateSelection(config.getConstraints(),
                     validation);
@@ -117,66 +134,162 @@ public class SchedulingController {
             @RequestParam(value = "startTime", required = false) String startTime,
             @RequestParam(value = "config", required = false) String configJson) {
         try {
-            LocalDateTime solveStart = parseStartTime(startTime);
-            SolveRequestConfigDto config = parseConfig(configJson);
-            byte[] workbookBytes = file.getBytes();
-            MotherRollSchedule problem = excelDataLoader.load(file.getInputStream(), solveStart);
-            ExcelValidationSummaryDto validation = excelValidationService.analyze(file.getOriginalFilename(),
-                    workbookBytes, problem);
+            return submitExcelAsync(file, startTime, parseConfig(configJson));
+        } catch (Exception e) {
+            log.error("Excel异步排程提交失败", e);
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
 
-            List<String> selectionErrors = excelValidationService.validateSelection(config.getConstraints(),
-                    validation);
-            if (!selectionErrors.isEmpty()) {
-                return ResponseEntity.badRequest().body(Map.of(
-                        "errors", selectionErrors,
-                        "validation", validation));
+    /**
+     * 热启动重排：以 baseJobId 的最佳解或上传的产线订单序列（sequence，产线 ID → 订单 ID 列表的 JSON）为起点，
+     * 异步求解新的工作簿；仍存在的订单保持原产线原顺序，只插入新增订单后进入局部搜索
+     */
+    @PostMapping("/replan-excel-async")
+    public ResponseEntity<?> replanExcelAsync(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "baseJobId", required = false) String baseJobId,
+            @RequestParam(value = "sequence", required = false) String sequenceJson,
+            @RequestParam(value = "startTime", required = false) String startTime,
+            @RequestParam(value = "config", required = false) String configJson) {
+        try {
+            SolveRequestConfigDto config = parseConfig(configJson);
+            WarmStartSettingsDto warmStart = config.getWarmStart() == null
+                    ? new WarmStartSettingsDto()
+                    : config.getWarmStart();
+            if (baseJobId != null && !baseJobId.isBlank()) {
+                warmStart.setBaseJobId(baseJobId);
             }
-
-            String jobId = schedulingService.solveAsync(problem, config);
-            return ResponseEntity.accepted().body(Map.of(
-                    "jobId", jobId,
-                    "message", "Excel排程任务已提交"));
+            if (sequenceJson != null && !sequenceJson.isBlank()) {
+                warmStart.setLineSequences(objectMapper.readValue(sequenceJson, LINE_SEQUENCES_TYPE));
+            }
+            config.setWarmStart(warmStart);
+            return submitExcelAsync(file, startTime, config);
         } catch (Exception e) {
-            log.error("Excel异步排程提交失败", e);
+            log.error("Excel热启动重排提交失败", e);
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
+    private ResponseEntity<?> submitExcelAsync(MultipartFile file, String startTime, SolveRequestConfigDto config)
+            throws Exception {
+        LocalDateTime solveStart = parseStartTime(startTime);
+        CachedWorkbook workbook = parsedWorkbookCache.load(file, file.getSize(), solveStart,
+                file.getOriginalFilename());
+        MotherRollSchedule problem = workbook.getSchedule();
+        ExcelValidationSummaryDto validation = workbook.getValidation();
+
+        List<String> selectionErrors = excelValidationService.validateSelection(config.getConstraints(),
+                validation);
+        if (!selectionErrors.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "errors", selectionErrors,
+                    "validation", validation));
+        }
+
+        String jobId = schedulingService.solveAsync(problem, config);
+        return ResponseEntity.accepted().body(Map.of(
+                "jobId", jobId,
+                "message", "Excel排程任务已提交"));
+    }
+
     @GetMapping("/demo-real")
     public ResponseEntity<Map<String, Object>> demoReal(
             @RequestParam(value = "startTime", required = false) String startTime) {
         try {
             LocalDateTime solveStart = parseStartTime(startTime);
             ClassPathResource resource = new ClassPathResource("data/生产订单_排程导入版.xlsx");
-            try (InputStream is = resource.getInputStream()) {
-                MotherRollSchedule problem = excelDataLoader.load(is, solveStart);
-                MotherRollSchedule solution = schedulingService.solve(problem);
-                return ResponseEntity.ok(buildResponse(solution, null, null));
-            }
+            MotherRollSchedule problem = parsedWorkbookCache.load(resource, resource.contentLength(), solveStart,
+                    resource.getFilename()).getSchedule();
+            MotherRollSchedule solution = schedulingService.solve(problem);
+            return ResponseEntity.ok(buildResponse(solution, null, null));
         } catch (Exception e) {
             log.error("真实数据演示排程失败", e);
             return ResponseEntity.internalServerError().body(Map.of("error", e.getMessage()));
         }
     }
 
+    @GetMapping("/workbook-cache")
+    public ResponseEntity<WorkbookCacheStatsDto> getWorkbookCacheStats() {
+        return ResponseEntity.ok(parsedWorkbookCache.getStats());
+    }
+
+    @DeleteMapping("/workbook-cache")
+    public ResponseEntity<WorkbookCacheStatsDto> clearWorkbookCache() {
+        parsedWorkbookCache.clear();
+        return ResponseEntity.ok(parsedWorkbookCache.getStats());
+    }
+
+    /**
+     * 异步任务状态；带 sinceVersion 时结果只包含该版本之后订单序列或时间有变化的产线。
+     * ETag 由状态、方案版本和 sinceVersion 组成，未变化的轮询返回 304
+     */
     @GetMapping("/status/{jobId}")
-    public ResponseEntity<Map<String, Object>> getStatus(@PathVariable String jobId) {
+    public ResponseEntity<Map<String, Object>> getStatus(@PathVariable String jobId,
+                                                         @RequestParam(required = false) Long sinceVersion,
+                                                         WebRequest webRequest) {
+        if (sinceVersion != null && sinceVersion < 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "sinceVersion 不能为负数: " + sinceVersion));
+        }
+        if (schedulingService.isExpired(jobId)) {
+            return ResponseEntity.status(HttpStatus.GONE).body(Map.of(
+                    "jobId", jobId,
+                    "status", "EXPIRED",
+                    "error", "任务 " + jobId + " 的结果已过期并被清理，请重新提交"));
+        }
         SolverStatus status = schedulingService.getStatus(jobId);
-        MotherRollSchedule partialOrFinalSolution = schedulingService.getResult(jobId);
+        long version = schedulingService.getSolutionVersion(jobId);
+        // 响应内容随 sinceVersion 变化，ETag 一并包含，避免不同 sinceVersion 的请求互相命中
+        String eTag = "\"" + status.name() + "-" + version
+                + (sinceVersion == null ? "" : "-since-" + sinceVersion) + "\"";
+        if (version > 0 && webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        HardMediumSoftScore bestScore = schedulingService.getBestScore(jobId);
 
         Map<String, Object> response = new HashMap<>();
         response.put("jobId", jobId);
         response.put("status", status.name());
+        response.put("version", version);
 
-        if (partialOrFinalSolution != null) {
-            response.put("score",
-                    partialOrFinalSolution.getScore() != null ? partialOrFinalSolution.getScore().toString() : "N/A");
-            if (status == SolverStatus.NOT_SOLVING) {
-                response.put("result", buildResponse(partialOrFinalSolution, null, null));
+        if (bestScore != null) {
+            response.put("score", bestScore.toString());
+        }
+        // 求解中只返回分数，结束后才由快照重建完整方案
+        if (status == SolverStatus.NOT_SOLVING) {
+            MotherRollSchedule finalSolution = schedulingService.getResult(jobId);
+            if (finalSolution != null) {
+                Set<String> changedLineIds = sinceVersion == null
+                        ? null
+                        : schedulingService.getLinesChangedSince(jobId, sinceVersion);
+                response.put("score",
+                        finalSolution.getScore() != null ? finalSolution.getScore().toString() : "N/A");
+                response.put("result", buildResponse(finalSolution, null, null, changedLineIds));
+                if (changedLineIds != null) {
+                    response.put("sinceVersion", sinceVersion);
+                    response.put("changedLineIds", changedLineIds);
+                }
             }
         }
 
-        return ResponseEntity.ok(response);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (version > 0) {
+            builder.eTag(eTag);
+        }
+        return builder.body(response);
+    }
+
+    /**
+     * 订阅异步任务的求解进度（Server-Sent Events），推送分数、分配进度和有变化的产线
+     */
+    @GetMapping(value = "/events/{jobId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSolutionEvents(@PathVariable String jobId) {
+        return solutionEventBroadcaster.subscribe(jobId);
+    }
+
+    @GetMapping("/job-store")
+    public ResponseEntity<JobStoreStatsDto> getJobStoreStats() {
+        return ResponseEntity.ok(schedulingService.getJobStoreStats());
     }
 
     @DeleteMapping("/stop/{jobId}")
@@ -190,6 +303,32 @@ public class SchedulingController {
         return ResponseEntity.ok(demoDataGenerator.generateDemoData());
     }
 
+    @PostMapping("/synthetic")
+    public ResponseEntity<MotherRollSchedule> getSyntheticData(
+            @RequestBody(required = false) SyntheticWorkloadDto spec) {
+        return ResponseEntity.ok(syntheticWorkloadGenerator.generate(spec));
+    }
+
+    @PostMapping("/synthetic-workbook")
+    public ResponseEntity<byte[]> getSyntheticWorkbook(
+            @RequestBody(required = false) SyntheticWorkloadDto spec) throws Exception {
+        SyntheticWorkloadDto config = spec == null ? new SyntheticWorkloadDto() : spec;
+        MotherRollSchedule schedule = syntheticWorkloadGenerator.generate(config);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        syntheticWorkloadGenerator.writeWorkbook(schedule, outputStream);
+
+        String filename = "synthetic-" + schedule.getOrders().size() + "-orders-"
+                + schedule.getProductionLines().size() + "-lines-seed-" + SyntheticWorkloadGenerator.effectiveSeed(config) + ".xlsx";
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(filename, StandardCharsets.UTF_8)
+                        .build()
+                        .toString())
+                .contentType(MediaType.parseMediaType(
+                        "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .body(outputStream.toByteArray());
+    }
+
     @GetMapping("/validation-workbook")
     public ResponseEntity<Resource> getValidationWorkbook() {
         try {
@@ -244,6 +383,17 @@ public class SchedulingController {
             MotherRollSchedule schedule,
             ExcelValidationSummaryDto validation,
             SolveRequestConfigDto config) {
+        return buildResponse(schedule, validation, config, null);
+    }
+
+    /**
+     * @param lineIds 只输出这些产线的任务和统计，null 表示全部产线；汇总字段（分数、未分配数）始终按整个方案计算
+     */
+    private Map<String, Object> buildResponse(
+            MotherRollSchedule schedule,
+            ExcelValidationSummaryDto validation,
+            SolveRequestConfigDto config,
+            Set<String> lineIds) {
         Map<String, Object> responseMap = new HashMap<>();
         if (schedule.getScore() != null) {
             responseMap.put("score", schedule.getScore().toString());
@@ -258,7 +408,9 @@ public class SchedulingController {
         Map<String, List<MergedTask>> lineTasks = new HashMap<>();
         if (schedule.getProductionLines() != null) {
             for (ProductionLine line : schedule.getProductionLines()) {
-                lineTasks.put(line.getId(), taskMerger.mergeTasks(line));
+                if (lineIds == null || lineIds.contains(line.getId())) {
+                    lineTasks.put(line.getId(), taskMerger.mergeTasks(line));
+                }
             }
         }
         responseMap.put("lineTasks", lineTasks);
@@ -266,6 +418,9 @@ public class SchedulingController {
         if (schedule.getProductionLines() != null) {
             Map<String, Object> stats = new HashMap<>();
             for (ProductionLine line : schedule.getProductionLines()) {
+                if (lineIds != null && !lineIds.contains(line.getId())) {
+                    continue;
+                }
                 Map<String, Object> lineStats = new HashMap<>();
                 lineStats.put("orderCount", line.getOrders().size());
                 if (!line.getOrders().isEmpty()) {
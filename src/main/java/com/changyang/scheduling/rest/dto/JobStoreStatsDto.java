@@ -0,0 +1,30 @@
+package com.changyang.scheduling.rest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 异步任务结果存储的占用与淘汰统计
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobStoreStatsDto {
+
+    /** 当前保留的任务数（含仍在求解的任务） */
+    private int retainedJobs;
+    private int runningJobs;
+    /** 保留结果的估算字节数 */
+    private long retainedBytes;
+    private int maxJobs;
+    private long maxBytes;
+    private long ttlSeconds;
+    private long evictedByTtl;
+    private long evictedByCount;
+    private long evictedByBytes;
+    /** 查询已淘汰任务的次数 */
+    private long expiredLookups;
+}
@@ -0,0 +1,19 @@
+package com.changyang.scheduling.rest.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 分区求解（solveMode=PARTITIONED）参数
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class PartitionSettingsDto {
+
+    /** 分区数上限，为空时取可用 CPU 核数；兼容簇数多于该值时以兼容簇数为准 */
+    private Integer partCount;
+    /** 求解时间中留给分区合并后全局搜索的比例 */
+    private Double mergeTimeFraction = 0.2;
+}
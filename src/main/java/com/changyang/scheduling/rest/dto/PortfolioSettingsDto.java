@@ -0,0 +1,28 @@
+package com.changyang.scheduling.rest.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 组合求解（solveMode=PORTFOLIO）参数
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class PortfolioSettingsDto {
+
+    /** 并行的求解任务数 */
+    private Integer size = 3;
+    /** 各任务使用的局部搜索算法，按顺序循环分配：LATE_ACCEPTANCE、TABU_SEARCH、SIMULATED_ANNEALING */
+    private List<String> algorithms = new ArrayList<>(List.of("LATE_ACCEPTANCE", "TABU_SEARCH", "SIMULATED_ANNEALING"));
+    /** 第 i 个任务的随机种子为 baseSeed + i */
+    private Long baseSeed = 0L;
+    /** 领先者明确后是否提前终止落后的任务 */
+    private Boolean terminateLosers = Boolean.FALSE;
+    /** 硬分落后于领先者且超过该秒数没有改进的任务视为落后者 */
+    private Integer loserPatienceSeconds = 10;
+}
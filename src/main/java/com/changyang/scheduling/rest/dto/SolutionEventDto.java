@@ -0,0 +1,40 @@
+package com.changyang.scheduling.rest.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 异步任务的求解进度事件（SSE）
+ * <p>
+ * status 为 SOLVING、FINISHED、FAILED、EXPIRED 或 NOT_FOUND（任务不存在）。
+ * changedLines 只包含与该订阅者上次收到的方案相比订单序列有变化的产线（产线 ID → 订单 ID 序列），
+ * 订阅后的第一个事件包含全部产线。
+ * 完整的排程结果（合并任务、时间）在 FINISHED 后通过 /status/{jobId} 获取，
+ * 已持有某个版本结果的客户端可以带 sinceVersion 只取之后有变化的产线。
+ * </p>
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class SolutionEventDto {
+
+    private String jobId;
+    private String status;
+    /** 方案版本，与 /status/{jobId} 的 version 一致 */
+    private long version;
+    private String score;
+    private Boolean feasible;
+    private int assignedCount;
+    private int totalOrders;
+    /** 该方案被找到的时间（epoch 毫秒） */
+    private long capturedAt;
+    /** 自任务提交起的毫秒数 */
+    private long elapsedMillis;
+    private Map<String, List<String>> changedLines = new LinkedHashMap<>();
+    private String error;
+}
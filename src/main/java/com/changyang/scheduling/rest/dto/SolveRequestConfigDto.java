@@ -11,4 +11,15 @@ public class SolveRequestConfigDto {
 
     private ConstraintSelectionDto constraints = new ConstraintSelectionDto();
     private TerminationSettingsDto termination = new TerminationSettingsDto();
+    /** 单次求解的 move 评估线程数：AUTO、NONE 或正整数，为空时沿用应用默认配置 */
+    private String moveThreadCount;
+    /**
+     * 求解模式：SINGLE（默认）、PORTFOLIO（多个算法/种子并行求解，取最优）
+     * 或 PARTITIONED（按产线兼容关系拆成子问题并行求解，再全局合并）
+     */
+    private String solveMode;
+    private PortfolioSettingsDto portfolio = new PortfolioSettingsDto();
+    private PartitionSettingsDto partition = new PartitionSettingsDto();
+    /** 热启动重排的起点，为空时从空排程开始求解 */
+    private WarmStartSettingsDto warmStart;
 }
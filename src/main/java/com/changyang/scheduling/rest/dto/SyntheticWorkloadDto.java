@@ -0,0 +1,46 @@
+package com.changyang.scheduling.rest.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 合成排程数据的生成参数，用于压测
+ * <p>
+ * 相同参数（含 seed）生成的数据完全一致。为空的字段使用默认值。
+ * </p>
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class SyntheticWorkloadDto {
+
+    /** 随机种子 */
+    private Long seed = 42L;
+    /** 订单数 */
+    private Integer orderCount = 1000;
+    /** 产线数，产线编号为 L1..Ln，编码为"双拉N线" */
+    private Integer lineCount = 2;
+    /** 兼容组大小：产线按编号每 N 条分为一组，订单只兼容本组产线；为空表示全部产线为一组 */
+    private Integer lineGroupSize;
+    /** 排程开始时间，为空时取 2026-03-13 08:00 */
+    private LocalDateTime startTime;
+    /** 期望开工日期分布的天数范围 */
+    private Integer horizonDays = 30;
+    /** 型号 → 权重，为空时全部型号等权 */
+    private Map<String, Double> productMix;
+    /** 可选厚度，为空时取换型矩阵中的全部厚度 */
+    private List<Integer> thicknesses;
+    /** 只兼容单条产线的订单比例（QDJY 始终为单线） */
+    private Double singleLineFraction = 0.1;
+    /** 生产时长超过 24 小时（会被按天拆分）的订单比例 */
+    private Double splitFraction = 0.3;
+    /** 每条产线每周的停机次数 */
+    private Double exceptionsPerLinePerWeek = 1.0;
+    /** 每条产线的过滤器更换次数 */
+    private Integer filterChangesPerLine = 1;
+}
@@ -0,0 +1,29 @@
+package com.changyang.scheduling.rest.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 热启动重排参数：以上一次的排程为起点求解新的工作簿
+ * <p>
+ * 起点为 baseJobId 对应异步任务的当前最佳解，或直接给出的各产线订单 ID 序列（lineSequences），二者选一，
+ * 同时给出时以 baseJobId 为准。新工作簿中仍存在的订单按订单 ID 放回原产线的原顺序，
+ * 已不存在的订单跳过，新增订单由初始化阶段追加，随后直接进入局部搜索。
+ * </p>
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class WarmStartSettingsDto {
+
+    /** 作为起点的异步任务 ID */
+    private String baseJobId;
+    /** 作为起点的排程：产线 ID → 订单 ID 序列 */
+    private Map<String, List<String>> lineSequences;
+    /** 请求未指定 unimprovedTimeLimitSeconds 时使用的无改进终止秒数；起点已接近最优，不必用满总时长 */
+    private Integer unimprovedTimeLimitSeconds = 5;
+}
@@ -0,0 +1,25 @@
+package com.changyang.scheduling.rest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 解析后工作簿缓存的命中统计
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkbookCacheStatsDto {
+
+    private int size;
+    private int maxEntries;
+    private long ttlSeconds;
+    private long hits;
+    private long misses;
+    /** 因容量（LRU）或过期被移出的条目数 */
+    private long evictions;
+    private double hitRate;
+}
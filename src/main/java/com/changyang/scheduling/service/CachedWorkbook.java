@@ -0,0 +1,17 @@
+package com.changyang.scheduling.service;
+
+import com.changyang.scheduling.domain.MotherRollSchedule;
+import com.changyang.scheduling.rest.dto.ExcelValidationSummaryDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * {@link ParsedWorkbookCache} 交给调用方的工作簿：排程问题和校验摘要都是独立副本，可以直接预处理和求解
+ */
+@Getter
+@AllArgsConstructor
+public class CachedWorkbook {
+
+    private final MotherRollSchedule schedule;
+    private final ExcelValidationSummaryDto validation;
+}
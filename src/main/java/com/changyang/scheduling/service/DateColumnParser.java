@@ -0,0 +1,194 @@
+package com.changyang.scheduling.service;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.util.List;
+
+/**
+ * 一个日期列的文本解析
+ * <p>
+ * 工作簿中的日期可能是日期单元格，也可能是 "yyyy-MM-dd HH:mm"、"yyyy.MM.dd HH:mm"、ISO 或 "yyyy.MM.dd" 文本。
+ * 按固定顺序逐个尝试时，每行都会抛出并捕获几个 DateTimeParseException。同一列的格式通常一致，
+ * 这里记住该列上一次成功的格式并优先使用，不匹配时再依次尝试其余格式并切换过去。
+ * </p>
+ * <p>
+ * 固定宽度的文本由手写解析直接取数字，不经过 DateTimeFormatter；其余文本先检查分隔符，
+ * 明显不属于该格式的不交给 DateTimeFormatter，正常数据不产生异常。各格式的分隔符互不相同，
+ * 解析结果与按原顺序依次尝试一致；需要 SMART 规则修正的日期（如 2 月 30 日）仍由 DateTimeFormatter 处理。
+ * </p>
+ * <p>
+ * 实例记录检测到的格式，每次读取的每一列各用一个，不在线程间共享。
+ * </p>
+ */
+final class DateColumnParser {
+
+    static final DateTimeFormatter DATE_FMT =
+            DateTimeFormatter.ofPattern("yyyy.MM.dd");
+
+    static final DateTimeFormatter DATE_TIME_FMT =
+            new DateTimeFormatterBuilder().appendPattern("yyyy-MM-dd HH:mm").toFormatter();
+
+    static final DateTimeFormatter DATE_TIME_DOT_FMT =
+            new DateTimeFormatterBuilder().appendPattern("yyyy.MM.dd HH:mm").toFormatter();
+
+    /**
+     * 支持的文本格式
+     */
+    enum Format {
+        /** yyyy-MM-dd HH:mm */
+        DATE_TIME,
+        /** yyyy.MM.dd HH:mm */
+        DATE_TIME_DOT,
+        /** ISO 日期时间，如 2026-03-13T08:00 */
+        ISO_DATE_TIME,
+        /** yyyy.MM.dd */
+        DATE_DOT,
+        /** ISO 日期 yyyy-MM-dd */
+        ISO_DATE
+    }
+
+    private static final List<Format> DATE_TIME_FORMATS =
+            List.of(Format.DATE_TIME, Format.DATE_TIME_DOT, Format.ISO_DATE_TIME, Format.DATE_DOT);
+
+    private static final List<Format> DATE_FORMATS = List.of(Format.ISO_DATE, Format.DATE_DOT);
+
+    private Format detected;
+
+    /**
+     * 解析日期时间文本；纯日期取当天零点，无法识别返回 null
+     */
+    LocalDateTime parseDateTime(String value) {
+        return parse(value, DATE_TIME_FORMATS);
+    }
+
+    /**
+     * 解析日期文本（ISO 或 yyyy.MM.dd），无法识别返回 null
+     */
+    LocalDate parseDate(String value) {
+        LocalDateTime parsed = parse(value, DATE_FORMATS);
+        return parsed == null ? null : parsed.toLocalDate();
+    }
+
+    /** 该列最近一次成功解析所用的格式 */
+    Format getDetected() {
+        return detected;
+    }
+
+    private LocalDateTime parse(String value, List<Format> formats) {
+        if (detected != null && formats.contains(detected)) {
+            LocalDateTime parsed = tryParse(detected, value);
+            if (parsed != null) {
+                return parsed;
+            }
+        }
+        for (Format format : formats) {
+            if (format == detected) {
+                continue;
+            }
+            LocalDateTime parsed = tryParse(format, value);
+            if (parsed != null) {
+                detected = format;
+                return parsed;
+            }
+        }
+        return null;
+    }
+
+    private static LocalDateTime tryParse(Format format, String value) {
+        return switch (format) {
+            case DATE_TIME -> value.length() == 16 && hasSeparators(value, '-', ' ')
+                    ? fixedDateTime(value, DATE_TIME_FMT)
+                    : value.indexOf('-') > 0 && value.indexOf(' ') > 0
+                    ? withFormatter(value, DATE_TIME_FMT, true)
+                    : null;
+            case DATE_TIME_DOT -> value.length() == 16 && hasSeparators(value, '.', ' ')
+                    ? fixedDateTime(value, DATE_TIME_DOT_FMT)
+                    : value.indexOf('.') > 0 && value.indexOf(' ') > 0
+                    ? withFormatter(value, DATE_TIME_DOT_FMT, true)
+                    : null;
+            case ISO_DATE_TIME -> value.length() == 16 && hasSeparators(value, '-', 'T')
+                    ? fixedDateTime(value, DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+                    : value.indexOf('T') > 0
+                    ? withFormatter(value, DateTimeFormatter.ISO_LOCAL_DATE_TIME, true)
+                    : null;
+            case DATE_DOT -> value.length() == 10 && hasSeparators(value, '.', '\0')
+                    ? fixedDate(value, DATE_FMT)
+                    : value.indexOf('.') > 0
+                    ? withFormatter(value, DATE_FMT, false)
+                    : null;
+            case ISO_DATE -> value.length() == 10 && hasSeparators(value, '-', '\0')
+                    ? fixedDate(value, DateTimeFormatter.ISO_LOCAL_DATE)
+                    : value.indexOf('-') > 0
+                    ? withFormatter(value, DateTimeFormatter.ISO_LOCAL_DATE, false)
+                    : null;
+        };
+    }
+
+    /**
+     * 固定宽度文本的分隔符位置：yyyy?MM?dd，dateTimeSeparator 不为 '\0' 时后接 ?HH:mm
+     */
+    private static boolean hasSeparators(String value, char dateSeparator, char dateTimeSeparator) {
+        if (value.charAt(4) != dateSeparator || value.charAt(7) != dateSeparator) {
+            return false;
+        }
+        return dateTimeSeparator == '\0' || (value.charAt(10) == dateTimeSeparator && value.charAt(13) == ':');
+    }
+
+    private static LocalDateTime fixedDateTime(String value, DateTimeFormatter fallback) {
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 2);
+        int day = digits(value, 8, 2);
+        int hour = digits(value, 11, 2);
+        int minute = digits(value, 14, 2);
+        if (year < 1 || month < 0 || day < 0 || hour < 0 || minute < 0) {
+            return withFormatter(value, fallback, true);
+        }
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute);
+        } catch (DateTimeException e) {
+            return withFormatter(value, fallback, true);
+        }
+    }
+
+    private static LocalDateTime fixedDate(String value, DateTimeFormatter fallback) {
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 2);
+        int day = digits(value, 8, 2);
+        if (year < 1 || month < 0 || day < 0) {
+            return withFormatter(value, fallback, false);
+        }
+        try {
+            return LocalDate.of(year, month, day).atStartOfDay();
+        } catch (DateTimeException e) {
+            return withFormatter(value, fallback, false);
+        }
+    }
+
+    /**
+     * 十进制数字串的值，含非数字字符时返回 -1
+     */
+    private static int digits(String value, int from, int length) {
+        int result = 0;
+        for (int i = from; i < from + length; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static LocalDateTime withFormatter(String value, DateTimeFormatter formatter, boolean dateTime) {
+        try {
+            return dateTime
+                    ? LocalDateTime.parse(value, formatter)
+                    : LocalDate.parse(value, formatter).atStartOfDay();
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+}
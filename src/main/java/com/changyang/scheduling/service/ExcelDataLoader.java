@@ -7,12 +7,10 @@ import com.changyang.scheduling.domain.FilterChangePlan;
 import com.changyang.scheduling.domain.MotherRollOrder;
 import com.changyang.scheduling.domain.MotherRollSchedule;
 import com.changyang.scheduling.domain.ProductionLine;
+import com.changyang.scheduling.solver.SchedulingConstraintIds;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.DataFormatter;
-import org.apache.poi.ss.usermodel.DateUtil;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
@@ -20,10 +18,11 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.stereotype.Service;
 
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeFormatterBuilder;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -43,9 +42,13 @@ public class ExcelDataLoader {
     private static final String LINE_2_CODE = "双拉2线";
     private static final String LINE_4_CODE = "双拉4线";
 
-    private static final String EXCEPTION_SHEET = "停机计划";
-    private static final String FILTER_CHANGE_SHEET = "过滤器更换计划";
-    private static final String FACTORY_CALENDAR_SHEET = "工厂日历";
+    static final String LINE_SHEET = "产线";
+    static final String EXCEPTION_SHEET = "停机计划";
+    static final String FILTER_CHANGE_SHEET = "过滤器更换计划";
+    static final String FACTORY_CALENDAR_SHEET = "工厂日历";
+
+    /** 不小于该大小（字节）的工作簿按流式读取，约 1.5 万行订单 */
+    static final long STREAMING_THRESHOLD_BYTES = 2L * 1024 * 1024;
 
     private static final DataFormatter DF = new DataFormatter();
 
@@ -54,15 +57,6 @@ public class ExcelDataLoader {
     private static final Pattern DESC_PATTERN =
             Pattern.compile(".+_T(\\d+)_([A-Z]+)_(\\d+)");
 
-    private static final DateTimeFormatter DATE_FMT =
-            DateTimeFormatter.ofPattern("yyyy.MM.dd");
-
-    private static final DateTimeFormatter DATE_TIME_FMT =
-            new DateTimeFormatterBuilder().appendPattern("yyyy-MM-dd HH:mm").toFormatter();
-
-    private static final DateTimeFormatter DATE_TIME_DOT_FMT =
-            new DateTimeFormatterBuilder().appendPattern("yyyy.MM.dd HH:mm").toFormatter();
-
     static final Map<String, String> FORMULA_MAP = Map.of(
             "EST", "Formula_EST",
             "ESY", "Formula_EST",
@@ -83,61 +77,177 @@ public class ExcelDataLoader {
             "QDJY", 6000.0
     );
 
+    /**
+     * 读取一次工作簿，同时得到排程问题和供数据校验使用的原始计数
+     * <p>
+     * 不小于 {@link #STREAMING_THRESHOLD_BYTES} 的工作簿流式读取，否则整本读入。
+     * </p>
+     */
+    public LoadedWorkbook ingest(InputStream stream, long sizeBytes, LocalDateTime solveStart) throws Exception {
+        if (sizeBytes >= STREAMING_THRESHOLD_BYTES) {
+            log.info("Workbook size {} bytes, using streaming loader.", sizeBytes);
+            return ingestStreaming(stream, solveStart);
+        }
+        return ingestWorkbook(stream, solveStart);
+    }
+
+    /**
+     * 按上传文件大小选择读取方式，见 {@link #ingest}
+     */
+    public MotherRollSchedule load(InputStream stream, long sizeBytes, LocalDateTime solveStart) throws Exception {
+        return ingest(stream, sizeBytes, solveStart).getSchedule();
+    }
+
     public MotherRollSchedule load(InputStream stream, LocalDateTime solveStart) throws Exception {
-        List<MotherRollOrder> orders = new ArrayList<>();
+        return ingestWorkbook(stream, solveStart).getSchedule();
+    }
 
-        try (Workbook workbook = new XSSFWorkbook(stream)) {
-            Sheet orderSheet = workbook.getSheetAt(0);
-            int loaded = 0;
-            int skipped = 0;
+    /**
+     * 流式读取：上传内容先落到临时文件，再用 SAX 逐行解析，内存占用与行数无关
+     */
+    public MotherRollSchedule loadStreaming(InputStream stream, LocalDateTime solveStart) throws Exception {
+        return ingestStreaming(stream, solveStart).getSchedule();
+    }
 
-            for (Row row : orderSheet) {
-                if (row.getRowNum() == 0) {
+    private LoadedWorkbook ingestWorkbook(InputStream stream, LocalDateTime solveStart) throws Exception {
+        try (Workbook workbook = new XSSFWorkbook(stream)) {
+            ScheduleRows rows = new ScheduleRows(solveStart);
+            for (int sheetIndex = 0; sheetIndex < workbook.getNumberOfSheets(); sheetIndex++) {
+                Sheet sheet = workbook.getSheetAt(sheetIndex);
+                if (!rows.accepts(sheetIndex, sheet.getSheetName())) {
                     continue;
                 }
-                try {
-                    MotherRollOrder order = parseRow(row, solveStart);
-                    if (order != null) {
-                        orders.add(order);
-                        loaded++;
-                    } else {
-                        skipped++;
-                    }
-                } catch (Exception e) {
-                    log.warn("Failed to parse row {}: {}", row.getRowNum() + 1, e.getMessage());
-                    skipped++;
+                for (Row row : sheet) {
+                    rows.row(sheetIndex, sheet.getSheetName(), SheetRow.of(row, DF));
                 }
             }
+            return new LoadedWorkbook(buildSchedule(rows), rows.stats);
+        }
+    }
 
-            log.info("Excel loaded: valid={}, skipped={}", loaded, skipped);
-            logDistribution(orders);
-
-            List<ProductionLine> lines = List.of(
-                    new ProductionLine("L2", LINE_2_CODE, LINE_2_CODE, solveStart),
-                    new ProductionLine("L4", LINE_4_CODE, LINE_4_CODE, solveStart)
-            );
+    private LoadedWorkbook ingestStreaming(InputStream stream, LocalDateTime solveStart) throws Exception {
+        Path workbookPath = Files.createTempFile("scheduling-upload-", ".xlsx");
+        try {
+            Files.copy(stream, workbookPath, StandardCopyOption.REPLACE_EXISTING);
+            ScheduleRows rows = new ScheduleRows(solveStart);
+            StreamingWorkbookReader.read(workbookPath, rows);
+            return new LoadedWorkbook(buildSchedule(rows), rows.stats);
+        } finally {
+            Files.deleteIfExists(workbookPath);
+        }
+    }
 
-            MotherRollSchedule schedule = new MotherRollSchedule(lines, orders);
-            schedule.setChangeoverEntries(buildChangeoverMatrix());
-            schedule.setExceptionTimes(parseExceptionTimes(workbook));
-            schedule.setFilterChangePlans(parseFilterChangePlans(workbook));
-            schedule.setFactoryCalendar(parseFactoryCalendar(workbook));
+    private MotherRollSchedule buildSchedule(ScheduleRows rows) {
+        List<MotherRollOrder> orders = rows.orders;
+        log.info("Excel loaded: valid={}, skipped={}", orders.size(), rows.skippedOrderRows);
+        logDistribution(orders);
+
+        List<ProductionLine> lines = rows.lines;
+        if (lines.isEmpty()) {
+            lines.add(new ProductionLine("L2", LINE_2_CODE, LINE_2_CODE, rows.solveStart));
+            lines.add(new ProductionLine("L4", LINE_4_CODE, LINE_4_CODE, rows.solveStart));
+        }
+
+        MotherRollSchedule schedule = new MotherRollSchedule(lines, orders);
+        schedule.setChangeoverEntries(buildChangeoverMatrix());
+        schedule.setExceptionTimes(ExceptionTime.coalesce(rows.exceptionTimes));
+        schedule.setFilterChangePlans(rows.filterChangePlans);
+        schedule.setFactoryCalendar(new FactoryCalendar(rows.holidays));
+
+        changeoverService.attach(schedule);
+
+        log.info(
+                "Schedule built: lines={}, orders={}, exceptions={}, filterPlans={}, holidays={}",
+                lines.size(),
+                orders.size(),
+                schedule.getExceptionTimes().size(),
+                schedule.getFilterChangePlans().size(),
+                schedule.getFactoryCalendar() == null ? 0 : schedule.getFactoryCalendar().getHolidays().size()
+        );
+        return schedule;
+    }
 
-            changeoverService.initCache(schedule.getChangeoverEntries());
+    /**
+     * 逐行收集各工作表的内容：第一张表为订单，其余按表名识别；每张表的第一行为表头。
+     * 同一遍读取中累计原始数据质量计数
+     */
+    private final class ScheduleRows implements StreamingWorkbookReader.RowHandler {
+
+        private final LocalDateTime solveStart;
+        private final List<MotherRollOrder> orders = new ArrayList<>();
+        private final List<ProductionLine> lines = new ArrayList<>();
+        private final List<ExceptionTime> exceptionTimes = new ArrayList<>();
+        private final List<FilterChangePlan> filterChangePlans = new ArrayList<>();
+        private final Set<LocalDate> holidays = new HashSet<>();
+        private final RawWorkbookStats stats = new RawWorkbookStats();
+        // 每个日期列各自记住检测到的文本格式
+        private final DateColumnParser expectedStartDates = new DateColumnParser();
+        private final DateColumnParser exceptionStarts = new DateColumnParser();
+        private final DateColumnParser exceptionEnds = new DateColumnParser();
+        private final DateColumnParser filterChangeTimes = new DateColumnParser();
+        private final DateColumnParser calendarDates = new DateColumnParser();
+        private int skippedOrderRows;
+
+        private ScheduleRows(LocalDateTime solveStart) {
+            this.solveStart = solveStart;
+        }
+
+        @Override
+        public boolean accepts(int sheetIndex, String sheetName) {
+            return sheetIndex == 0
+                    || LINE_SHEET.equals(sheetName)
+                    || EXCEPTION_SHEET.equals(sheetName)
+                    || FILTER_CHANGE_SHEET.equals(sheetName)
+                    || FACTORY_CALENDAR_SHEET.equals(sheetName);
+        }
+
+        @Override
+        public void row(int sheetIndex, String sheetName, SheetRow row) {
+            if (row.getRowNum() == 0) {
+                return;
+            }
+            stats.row(sheetIndex, sheetName, row);
+            if (sheetIndex == 0) {
+                orderRow(row);
+            } else if (LINE_SHEET.equals(sheetName)) {
+                ProductionLine line = parseProductionLine(row, solveStart);
+                if (line != null) {
+                    lines.add(line);
+                }
+            } else if (EXCEPTION_SHEET.equals(sheetName)) {
+                ExceptionTime exceptionTime = parseExceptionTime(row, exceptionStarts, exceptionEnds);
+                if (exceptionTime != null) {
+                    exceptionTimes.add(exceptionTime);
+                }
+            } else if (FILTER_CHANGE_SHEET.equals(sheetName)) {
+                FilterChangePlan plan = parseFilterChangePlan(row, filterChangeTimes);
+                if (plan != null) {
+                    filterChangePlans.add(plan);
+                }
+            } else if (FACTORY_CALENDAR_SHEET.equals(sheetName)) {
+                LocalDate holiday = parseHoliday(row, calendarDates);
+                if (holiday != null) {
+                    holidays.add(holiday);
+                }
+            }
+        }
 
-            log.info(
-                    "Schedule built: lines={}, orders={}, exceptions={}, filterPlans={}, holidays={}",
-                    lines.size(),
-                    orders.size(),
-                    schedule.getExceptionTimes().size(),
-                    schedule.getFilterChangePlans().size(),
-                    schedule.getFactoryCalendar() == null ? 0 : schedule.getFactoryCalendar().getHolidays().size()
-            );
-            return schedule;
+        private void orderRow(SheetRow row) {
+            try {
+                MotherRollOrder order = parseRow(row, solveStart, expectedStartDates);
+                if (order != null) {
+                    orders.add(order);
+                } else {
+                    skippedOrderRows++;
+                }
+            } catch (Exception e) {
+                log.warn("Failed to parse row {}: {}", row.getRowNum() + 1, e.getMessage());
+                skippedOrderRows++;
+            }
         }
     }
 
-    private MotherRollOrder parseRow(Row row, LocalDateTime solveStart) {
+    private MotherRollOrder parseRow(SheetRow row, LocalDateTime solveStart, DateColumnParser expectedStartDates) {
         String orderId = getCellString(row, 0);
         if (orderId == null || orderId.isBlank()) {
             return null;
@@ -181,7 +291,7 @@ public class ExcelDataLoader {
             monthlyShipment = quantity / 3.0;
         }
 
-        LocalDateTime expectedStart = parseDate(row, 6, solveStart);
+        LocalDateTime expectedStart = parseDate(row, 6, expectedStartDates, solveStart);
         Set<String> compatibleLines = parseCompatibleLines(getCellString(row, 15), productCode);
         String preferredLineCode = normalizeLineCode(getCellString(row, 8));
 
@@ -198,6 +308,7 @@ public class ExcelDataLoader {
         order.setExpectedStartTime(expectedStart);
         order.setCompatibleLines(compatibleLines);
         order.setPreferredLineCode(preferredLineCode);
+        order.setFilterPriorityRank(SchedulingConstraintIds.mc1PriorityRank(productCode, thickness));
         return order;
     }
 
@@ -296,164 +407,105 @@ public class ExcelDataLoader {
                 .forEach(entry -> log.info("  {}um : {}", entry.getKey(), entry.getValue()));
     }
 
-    private String getCellString(Row row, int col) {
-        Cell cell = row.getCell(col, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
+    private String getCellString(SheetRow row, int col) {
+        SheetRow.CellValue cell = row.getCell(col);
         if (cell == null) {
             return null;
         }
-        String value = DF.formatCellValue(cell).trim();
+        String value = cell.text().trim();
         return value.isEmpty() ? null : value;
     }
 
-    private double getCellDouble(Row row, int col) {
-        Cell cell = row.getCell(col, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
+    private double getCellDouble(SheetRow row, int col) {
+        SheetRow.CellValue cell = row.getCell(col);
         if (cell == null) {
             return 0.0;
         }
+        if (cell.number() != null) {
+            return cell.number();
+        }
         try {
-            return switch (cell.getCellType()) {
-                case NUMERIC -> cell.getNumericCellValue();
-                case STRING -> Double.parseDouble(cell.getStringCellValue().replace(",", "").trim());
-                default -> 0.0;
-            };
+            return Double.parseDouble(cell.text().replace(",", "").trim());
         } catch (Exception e) {
             return 0.0;
         }
     }
 
-    private LocalDateTime parseDate(Row row, int col, LocalDateTime fallback) {
-        LocalDateTime parsed = parseDateTimeCell(row, col);
+    private LocalDateTime parseDate(SheetRow row, int col, DateColumnParser dates, LocalDateTime fallback) {
+        LocalDateTime parsed = parseDateTimeCell(row, col, dates);
         return parsed == null ? fallback : parsed;
     }
 
-    private List<ExceptionTime> parseExceptionTimes(Workbook workbook) {
-        Sheet sheet = workbook.getSheet(EXCEPTION_SHEET);
-        if (sheet == null) {
-            return new ArrayList<>();
-        }
-
-        List<ExceptionTime> result = new ArrayList<>();
-        for (Row row : sheet) {
-            if (row.getRowNum() == 0) {
-                continue;
-            }
-            String lineId = getCellString(row, 0);
-            LocalDateTime startTime = parseDateTimeCell(row, 2);
-            LocalDateTime endTime = parseDateTimeCell(row, 3);
-            if (lineId == null || startTime == null || endTime == null) {
-                continue;
-            }
-            result.add(new ExceptionTime(lineId.trim(), startTime, endTime));
+    /**
+     * "产线"工作表（lineId, lineCode, name）的一行；没有该表或表中无有效行时使用双拉2线、双拉4线
+     */
+    private ProductionLine parseProductionLine(SheetRow row, LocalDateTime solveStart) {
+        String lineId = getCellString(row, 0);
+        String lineCode = normalizeLineCode(getCellString(row, 1));
+        if (lineId == null || lineCode == null) {
+            return null;
         }
-        return result;
+        String name = getCellString(row, 2);
+        return new ProductionLine(lineId, name == null ? lineCode : name, lineCode, solveStart);
     }
 
-    private List<FilterChangePlan> parseFilterChangePlans(Workbook workbook) {
-        Sheet sheet = workbook.getSheet(FILTER_CHANGE_SHEET);
-        if (sheet == null) {
-            return new ArrayList<>();
-        }
-
-        List<FilterChangePlan> result = new ArrayList<>();
-        for (Row row : sheet) {
-            if (row.getRowNum() == 0) {
-                continue;
-            }
-            String lineId = getCellString(row, 0);
-            LocalDateTime changeTime = parseDateTimeCell(row, 2);
-            int downtimeMinutes = (int) Math.round(getCellDouble(row, 3));
-            if (lineId == null || changeTime == null || downtimeMinutes <= 0) {
-                continue;
-            }
-            result.add(new FilterChangePlan(lineId.trim(), changeTime, downtimeMinutes));
+    private ExceptionTime parseExceptionTime(SheetRow row, DateColumnParser startDates, DateColumnParser endDates) {
+        String lineId = getCellString(row, 0);
+        LocalDateTime startTime = parseDateTimeCell(row, 2, startDates);
+        LocalDateTime endTime = parseDateTimeCell(row, 3, endDates);
+        if (lineId == null || startTime == null || endTime == null) {
+            return null;
         }
-        return result;
+        return new ExceptionTime(lineId.trim(), startTime, endTime);
     }
 
-    private FactoryCalendar parseFactoryCalendar(Workbook workbook) {
-        Sheet sheet = workbook.getSheet(FACTORY_CALENDAR_SHEET);
-        if (sheet == null) {
-            return new FactoryCalendar(new HashSet<>());
+    private FilterChangePlan parseFilterChangePlan(SheetRow row, DateColumnParser changeDates) {
+        String lineId = getCellString(row, 0);
+        LocalDateTime changeTime = parseDateTimeCell(row, 2, changeDates);
+        int downtimeMinutes = (int) Math.round(getCellDouble(row, 3));
+        if (lineId == null || changeTime == null || downtimeMinutes <= 0) {
+            return null;
         }
+        return new FilterChangePlan(lineId.trim(), changeTime, downtimeMinutes);
+    }
 
-        Set<LocalDate> holidays = new HashSet<>();
-        for (Row row : sheet) {
-            if (row.getRowNum() == 0) {
-                continue;
-            }
-            LocalDate date = parseLocalDateCell(row, 0);
-            String isWorkingDay = getCellString(row, 1);
-            if (date == null || isWorkingDay == null) {
-                continue;
-            }
-            if (!"Y".equalsIgnoreCase(isWorkingDay.trim())) {
-                holidays.add(date);
-            }
+    /**
+     * 工厂日历的一行，非工作日返回日期，工作日或无效行返回 null
+     */
+    private LocalDate parseHoliday(SheetRow row, DateColumnParser dates) {
+        LocalDate date = parseLocalDateCell(row, 0, dates);
+        String isWorkingDay = getCellString(row, 1);
+        if (date == null || isWorkingDay == null || "Y".equalsIgnoreCase(isWorkingDay.trim())) {
+            return null;
         }
-        return new FactoryCalendar(holidays);
+        return date;
     }
 
-    private LocalDateTime parseDateTimeCell(Row row, int col) {
-        Cell cell = row.getCell(col, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
+    /**
+     * 日期单元格直接取值，文本按该列检测到的格式解析
+     */
+    private LocalDateTime parseDateTimeCell(SheetRow row, int col, DateColumnParser dates) {
+        SheetRow.CellValue cell = row.getCell(col);
         if (cell == null) {
             return null;
         }
-
-        try {
-            if (cell.getCellType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(cell)) {
-                return cell.getLocalDateTimeCellValue();
-            }
-
-            String value = DF.formatCellValue(cell).trim();
-            if (value.isEmpty()) {
-                return null;
-            }
-
-            try {
-                return LocalDateTime.parse(value, DATE_TIME_FMT);
-            } catch (Exception ignored) {
-            }
-
-            try {
-                return LocalDateTime.parse(value, DATE_TIME_DOT_FMT);
-            } catch (Exception ignored) {
-            }
-
-            try {
-                return LocalDateTime.parse(value);
-            } catch (Exception ignored) {
-            }
-
-            return LocalDate.parse(value, DATE_FMT).atStartOfDay();
-        } catch (Exception e) {
-            return null;
+        if (cell.dateTime() != null) {
+            return cell.dateTime();
         }
+        String value = cell.text().trim();
+        return value.isEmpty() ? null : dates.parseDateTime(value);
     }
 
-    private LocalDate parseLocalDateCell(Row row, int col) {
-        Cell cell = row.getCell(col, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
+    private LocalDate parseLocalDateCell(SheetRow row, int col, DateColumnParser dates) {
+        SheetRow.CellValue cell = row.getCell(col);
         if (cell == null) {
             return null;
         }
-
-        try {
-            if (cell.getCellType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(cell)) {
-                return cell.getLocalDateTimeCellValue().toLocalDate();
-            }
-
-            String value = DF.formatCellValue(cell).trim();
-            if (value.isEmpty()) {
-                return null;
-            }
-
-            try {
-                return LocalDate.parse(value);
-            } catch (Exception ignored) {
-                return LocalDate.parse(value, DATE_FMT);
-            }
-        } catch (Exception e) {
-            return null;
+        if (cell.dateTime() != null) {
+            return cell.dateTime().toLocalDate();
         }
+        String value = cell.text().trim();
+        return value.isEmpty() ? null : dates.parseDate(value);
     }
 
     private Set<String> parseCompatibleLines(String compatCellValue, String productCode) {
@@ -6,38 +6,22 @@ import com.changyang.scheduling.rest.dto.ConstraintSelectionDto;
 import com.changyang.scheduling.rest.dto.ConstraintStatusDto;
 import com.changyang.scheduling.rest.dto.ExcelValidationSummaryDto;
 import com.changyang.scheduling.solver.SchedulingConstraintIds;
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.CellType;
-import org.apache.poi.ss.usermodel.DataFormatter;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 @Service
 public class ExcelValidationService {
 
-    private static final String EXCEPTION_SHEET = "停机计划";
-    private static final String FILTER_CHANGE_SHEET = "过滤器更换计划";
-    private static final String FACTORY_CALENDAR_SHEET = "工厂日历";
-
-    private static final DataFormatter DF = new DataFormatter();
-
-    public ExcelValidationSummaryDto analyze(String sourceName, byte[] workbookBytes, MotherRollSchedule schedule) throws IOException {
-        RawWorkbookStats rawStats;
-        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(workbookBytes))) {
-            rawStats = inspectWorkbook(workbook);
-        }
+    /**
+     * 根据读取工作簿时累计的原始计数和解析出的排程问题生成校验摘要，不再重新解析工作簿
+     */
+    public ExcelValidationSummaryDto analyze(String sourceName, LoadedWorkbook workbook) {
+        RawWorkbookStats rawStats = workbook.getStats();
+        MotherRollSchedule schedule = workbook.getSchedule();
 
         ExcelValidationSummaryDto summary = new ExcelValidationSummaryDto();
         summary.setSourceName(sourceName);
@@ -173,146 +157,4 @@ public class ExcelValidationService {
         }
         return warnings;
     }
-
-    private RawWorkbookStats inspectWorkbook(Workbook workbook) {
-        RawWorkbookStats stats = new RawWorkbookStats();
-        Sheet orderSheet = workbook.getSheetAt(0);
-
-        for (Row row : orderSheet) {
-            if (row.getRowNum() == 0) {
-                continue;
-            }
-            String orderId = getCellString(row, 0);
-            if (orderId == null || orderId.isBlank()) {
-                continue;
-            }
-            stats.totalOrderRows++;
-
-            if (isBlank(row, 13)) {
-                stats.inventoryBlankRows++;
-            }
-            if (isBlank(row, 14)) {
-                stats.monthlyShipmentBlankRows++;
-            }
-            if (isBlank(row, 15)) {
-                stats.compatibilityBlankRows++;
-            }
-            if (isBlank(row, 8)) {
-                stats.preferredLineBlankRows++;
-            }
-            if (isBlank(row, 6)) {
-                stats.expectedStartBlankRows++;
-            }
-
-            String compatibleLines = getCellString(row, 15);
-            if (compatibleLines != null && compatibleLines.contains(";")) {
-                stats.multiLineCompatibleRows++;
-            }
-
-            String productCode = getCellString(row, 11);
-            Double thickness = getCellDouble(row, 10);
-            if (productCode != null && thickness != null) {
-                String key = productCode + "_" + thickness.intValue();
-                if (SchedulingConstraintIds.MC1_PRIORITY_KEYS.contains(key)) {
-                    stats.mc1PriorityComboHits.add(key);
-                }
-            }
-        }
-
-        stats.exceptionSheetRows = countSheetRows(workbook.getSheet(EXCEPTION_SHEET));
-        stats.filterChangeSheetRows = countSheetRows(workbook.getSheet(FILTER_CHANGE_SHEET));
-        stats.calendarSheetRows = countSheetRows(workbook.getSheet(FACTORY_CALENDAR_SHEET));
-        Sheet calendarSheet = workbook.getSheet(FACTORY_CALENDAR_SHEET);
-        if (calendarSheet != null) {
-            for (Row row : calendarSheet) {
-                if (row.getRowNum() == 0) {
-                    continue;
-                }
-                String workFlag = getCellString(row, 1);
-                if (workFlag != null && !"Y".equalsIgnoreCase(workFlag)) {
-                    stats.holidayRows++;
-                }
-            }
-        }
-        return stats;
-    }
-
-    private int countSheetRows(Sheet sheet) {
-        if (sheet == null) {
-            return 0;
-        }
-        int count = 0;
-        for (Row row : sheet) {
-            if (row.getRowNum() == 0) {
-                continue;
-            }
-            if (!rowIsEmpty(row)) {
-                count++;
-            }
-        }
-        return count;
-    }
-
-    private boolean rowIsEmpty(Row row) {
-        for (int i = row.getFirstCellNum(); i < row.getLastCellNum(); i++) {
-            if (i < 0) {
-                continue;
-            }
-            if (!isBlank(row, i)) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    private boolean isBlank(Row row, int index) {
-        Cell cell = row.getCell(index, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-        if (cell == null) {
-            return true;
-        }
-        if (cell.getCellType() == CellType.BLANK) {
-            return true;
-        }
-        return DF.formatCellValue(cell).trim().isEmpty();
-    }
-
-    private String getCellString(Row row, int index) {
-        Cell cell = row.getCell(index, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-        if (cell == null) {
-            return null;
-        }
-        String value = DF.formatCellValue(cell).trim();
-        return value.isEmpty() ? null : value;
-    }
-
-    private Double getCellDouble(Row row, int index) {
-        Cell cell = row.getCell(index, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-        if (cell == null) {
-            return null;
-        }
-        try {
-            return switch (cell.getCellType()) {
-                case NUMERIC -> cell.getNumericCellValue();
-                case STRING -> Double.parseDouble(cell.getStringCellValue().trim());
-                default -> null;
-            };
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
-    private static final class RawWorkbookStats {
-        private int totalOrderRows;
-        private int inventoryBlankRows;
-        private int monthlyShipmentBlankRows;
-        private int compatibilityBlankRows;
-        private int preferredLineBlankRows;
-        private int expectedStartBlankRows;
-        private int multiLineCompatibleRows;
-        private int exceptionSheetRows;
-        private int filterChangeSheetRows;
-        private int calendarSheetRows;
-        private int holidayRows;
-        private final Set<String> mc1PriorityComboHits = new HashSet<>();
-    }
 }
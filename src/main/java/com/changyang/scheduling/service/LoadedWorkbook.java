@@ -0,0 +1,16 @@
+package com.changyang.scheduling.service;
+
+import com.changyang.scheduling.domain.MotherRollSchedule;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 一次读取工作簿的结果：排程问题与供 {@link ExcelValidationService#analyze} 使用的原始数据质量计数
+ */
+@Getter
+@AllArgsConstructor
+public class LoadedWorkbook {
+
+    private final MotherRollSchedule schedule;
+    private final RawWorkbookStats stats;
+}
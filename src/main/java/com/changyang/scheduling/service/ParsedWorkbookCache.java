@@ -0,0 +1,176 @@
+package com.changyang.scheduling.service;
+
+import com.changyang.scheduling.domain.MotherRollSchedule;
+import com.changyang.scheduling.rest.dto.ConstraintStatusDto;
+import com.changyang.scheduling.rest.dto.ExcelValidationSummaryDto;
+import com.changyang.scheduling.rest.dto.WorkbookCacheStatsDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * 解析后工作簿缓存
+ * <p>
+ * 以工作簿内容的 SHA-256 加排程起始时间为键，保存解析出的排程问题模板和校验摘要。
+ * 同一份工作簿反复上传（前端切换约束后重新校验、求解）时只计算摘要，不再重新解析。
+ * </p>
+ * <p>
+ * 条目数超过上限时淘汰最久未使用的条目，超过存活时间的条目在下次访问或写入时移除。
+ * 模板本身从不交给调用方：每次返回 {@link MotherRollSchedule#copyProblem()} 的副本，预处理和求解只修改副本。
+ * </p>
+ */
+@Slf4j
+@Service
+public class ParsedWorkbookCache {
+
+    private final ExcelDataLoader excelDataLoader;
+    private final ExcelValidationService excelValidationService;
+    private final int maxEntries;
+    private final Duration ttl;
+    private final LongSupplier nanoClock;
+
+    /** 按访问顺序排列，队首为最久未使用 */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    @Autowired
+    public ParsedWorkbookCache(ExcelDataLoader excelDataLoader,
+                               ExcelValidationService excelValidationService,
+                               @Value("${scheduling.workbook-cache.max-entries:16}") int maxEntries,
+                               @Value("${scheduling.workbook-cache.ttl:30m}") Duration ttl) {
+        this(excelDataLoader, excelValidationService, maxEntries, ttl, System::nanoTime);
+    }
+
+    ParsedWorkbookCache(ExcelDataLoader excelDataLoader, ExcelValidationService excelValidationService,
+                        int maxEntries, Duration ttl, LongSupplier nanoClock) {
+        this.excelDataLoader = excelDataLoader;
+        this.excelValidationService = excelValidationService;
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * 读取工作簿；命中缓存时不再解析
+     *
+     * @param source     工作簿内容，未命中时会再次打开用于解析（MultipartFile、Resource 均可）
+     * @param sizeBytes  工作簿大小，用于选择整本读取或流式读取
+     * @param solveStart 排程起始时间，参与缓存键
+     * @param sourceName 校验摘要中显示的文件名，不参与缓存键
+     */
+    public CachedWorkbook load(InputStreamSource source, long sizeBytes, LocalDateTime solveStart,
+                               String sourceName) throws Exception {
+        String key = sha256(source) + "@" + solveStart;
+        Entry entry = lookup(key);
+        if (entry == null) {
+            try (InputStream inputStream = source.getInputStream()) {
+                LoadedWorkbook workbook = excelDataLoader.ingest(inputStream, sizeBytes, solveStart);
+                ExcelValidationSummaryDto validation = excelValidationService.analyze(sourceName, workbook);
+                entry = new Entry(workbook.getSchedule(), validation, nanoClock.getAsLong());
+            }
+            store(key, entry);
+        }
+        return new CachedWorkbook(entry.schedule.copyProblem(), copyOf(entry.validation, sourceName));
+    }
+
+    public synchronized WorkbookCacheStatsDto getStats() {
+        long lookups = hits + misses;
+        return new WorkbookCacheStatsDto(entries.size(), maxEntries, ttl.toSeconds(), hits, misses, evictions,
+                lookups == 0 ? 0.0 : (double) hits / lookups);
+    }
+
+    public synchronized void clear() {
+        evictions += entries.size();
+        entries.clear();
+    }
+
+    private synchronized Entry lookup(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && isExpired(entry, nanoClock.getAsLong())) {
+            entries.remove(key);
+            evictions++;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return entry;
+    }
+
+    private synchronized void store(String key, Entry entry) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        entries.put(key, entry);
+        long now = nanoClock.getAsLong();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry candidate = iterator.next();
+            if (entries.size() > maxEntries || isExpired(candidate, now)) {
+                iterator.remove();
+                evictions++;
+            }
+        }
+        log.debug("Cached parsed workbook {} ({} orders), {} entries.",
+                key, entry.schedule.getOrders().size(), entries.size());
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.createdNanos > ttl.toNanos();
+    }
+
+    private static String sha256(InputStreamSource source) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream inputStream = source.getInputStream()) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static ExcelValidationSummaryDto copyOf(ExcelValidationSummaryDto validation, String sourceName) {
+        ExcelValidationSummaryDto copy = new ExcelValidationSummaryDto();
+        copy.setSourceName(sourceName);
+        // 指标值都是不可变的数值，复制映射即可
+        copy.setMetrics(new LinkedHashMap<>(validation.getMetrics()));
+        copy.setConstraintStatus(new ArrayList<>(validation.getConstraintStatus().stream()
+                .map(status -> new ConstraintStatusDto(status.getId(), status.getLabel(), status.getScoreLevel(),
+                        status.isAvailable(), status.isDataReady(), status.isEnabledByDefault(),
+                        status.isRecommended(), status.getNote()))
+                .toList()));
+        copy.setWarnings(new ArrayList<>(validation.getWarnings()));
+        return copy;
+    }
+
+    private static final class Entry {
+
+        private final MotherRollSchedule schedule;
+        private final ExcelValidationSummaryDto validation;
+        private final long createdNanos;
+
+        private Entry(MotherRollSchedule schedule, ExcelValidationSummaryDto validation, long createdNanos) {
+            this.schedule = schedule;
+            this.validation = validation;
+            this.createdNanos = createdNanos;
+        }
+    }
+}
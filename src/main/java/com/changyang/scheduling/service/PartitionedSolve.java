@@ -0,0 +1,255 @@
+package com.changyang.scheduling.service;
+
+import ai.timefold.solver.core.api.solver.SolverConfigOverride;
+import ai.timefold.solver.core.api.solver.SolverManager;
+import ai.timefold.solver.core.api.solver.SolverStatus;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import ai.timefold.solver.core.config.solver.SolverManagerConfig;
+import ai.timefold.solver.core.config.solver.termination.TerminationConfig;
+import com.changyang.scheduling.domain.MotherRollSchedule;
+import com.changyang.scheduling.domain.ProductionLine;
+import com.changyang.scheduling.rest.dto.PartitionSettingsDto;
+import com.changyang.scheduling.rest.dto.TerminationSettingsDto;
+import com.changyang.scheduling.solver.LineCompatibilityPartitioner;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * 分区求解：按产线兼容关系把问题拆成子问题并行求解，再把各分区的解合并后做一段全局搜索
+ * <p>
+ * Timefold 的 partitionedSearch 阶段需要 Enterprise，这里用社区版 API 实现同样的流程：
+ * {@link LineCompatibilityPartitioner} 拆分，专用 SolverManager 以分区数为并行度同时求解各分区，
+ * 全部结束后按 @PlanningId 合并成完整的初始解，用剩余时间对全局做一次完整求解
+ * （初始化阶段跳过已分配的订单，局部搜索负责跨产线的调整）。
+ * </p>
+ * <p>
+ * 总时间取请求的 timeLimitSeconds，未指定时取应用默认配置；其中 mergeTimeFraction 留给全局阶段。
+ * 只有全局阶段的最佳解是完整方案，分区阶段不回调 bestSolutionConsumer。
+ * </p>
+ */
+@Slf4j
+final class PartitionedSolve {
+
+    static final int MAX_PART_COUNT = 64;
+
+    private static final long DEFAULT_SPENT_LIMIT_MILLIS = 60_000L;
+    private static final String MERGE_SUFFIX = "#merge";
+
+    private final String jobId;
+    private final SolverConfig baseConfig;
+    private final int maxParts;
+    private final long partMillis;
+    private final long mergeMillis;
+    private final TerminationSettingsDto termination;
+    private final Consumer<MotherRollSchedule> bestSolutionConsumer;
+    private final CompletableFuture<MotherRollSchedule> finalBestSolution = new CompletableFuture<>();
+
+    private SolverManager<MotherRollSchedule, String> solverManager;
+    private MotherRollSchedule problem;
+    private MotherRollSchedule[] partSolutions;
+    private Throwable firstError;
+    private int runningCount;
+    private volatile boolean terminated;
+
+    PartitionedSolve(String jobId, SolverConfig baseConfig, PartitionSettingsDto settings,
+                     TerminationSettingsDto termination, Consumer<MotherRollSchedule> bestSolutionConsumer) {
+        PartitionSettingsDto effective = settings == null ? new PartitionSettingsDto() : settings;
+        int partCount = effective.getPartCount() == null
+                ? Runtime.getRuntime().availableProcessors()
+                : effective.getPartCount();
+        if (partCount < 1 || partCount > MAX_PART_COUNT) {
+            throw new IllegalArgumentException(
+                    "partition.partCount must be between 1 and " + MAX_PART_COUNT + ": " + partCount);
+        }
+        double mergeTimeFraction = effective.getMergeTimeFraction() == null ? 0.2 : effective.getMergeTimeFraction();
+        if (mergeTimeFraction < 0 || mergeTimeFraction >= 1) {
+            throw new IllegalArgumentException(
+                    "partition.mergeTimeFraction must be in [0, 1): " + mergeTimeFraction);
+        }
+
+        long totalMillis = totalSpentLimitMillis(baseConfig, termination);
+        this.jobId = jobId;
+        this.baseConfig = baseConfig;
+        this.maxParts = partCount;
+        this.mergeMillis = Math.round(totalMillis * mergeTimeFraction);
+        this.partMillis = totalMillis - mergeMillis;
+        this.termination = termination;
+        this.bestSolutionConsumer = bestSolutionConsumer;
+    }
+
+    /**
+     * 拆分并启动各分区；只有一个分区时直接对整个问题做全局求解
+     */
+    void start(MotherRollSchedule problem) {
+        List<MotherRollSchedule> parts = LineCompatibilityPartitioner.split(problem, maxParts);
+        int parallelSolverCount = Math.max(1, Math.min(parts.size(), Runtime.getRuntime().availableProcessors()));
+        synchronized (this) {
+            this.problem = problem;
+            this.solverManager = SolverManager.create(baseConfig,
+                    new SolverManagerConfig().withParallelSolverCount(String.valueOf(parallelSolverCount)));
+            this.partSolutions = new MotherRollSchedule[parts.size()];
+            this.runningCount = parts.size();
+        }
+        if (parts.size() <= 1) {
+            log.info("Partitioned job {} has a single partition, solving globally.", jobId);
+            startMerge(problem, partMillis + mergeMillis);
+            return;
+        }
+
+        log.info("Partitioned job {} solves {} partitions ({} in parallel) for {} ms, then merges for {} ms: {}",
+                jobId, parts.size(), parallelSolverCount, partMillis, mergeMillis,
+                parts.stream().map(PartitionedSolve::describe).toList());
+        for (int i = 0; i < parts.size(); i++) {
+            int partIndex = i;
+            MotherRollSchedule part = parts.get(i);
+            solverManager.solveBuilder()
+                    .withProblemId(jobId + "#" + i)
+                    .withProblemFinder(id -> part)
+                    .withConfigOverride(configOverride(partMillis))
+                    .withFinalBestSolutionConsumer(solution -> onPartFinished(partIndex, solution, null))
+                    .withExceptionHandler((id, throwable) -> onPartFinished(partIndex, null, throwable))
+                    .run();
+        }
+        if (terminated) {
+            terminateEarly();
+        }
+    }
+
+    SolverStatus getSolverStatus() {
+        if (finalBestSolution.isDone()) {
+            return SolverStatus.NOT_SOLVING;
+        }
+        return solverManager == null ? SolverStatus.SOLVING_SCHEDULED : SolverStatus.SOLVING_ACTIVE;
+    }
+
+    /**
+     * 提前终止：正在求解的分区立即结束，合并后的全局阶段启动后也立即结束
+     */
+    void terminateEarly() {
+        terminated = true;
+        SolverManager<MotherRollSchedule, String> manager;
+        int partCount;
+        synchronized (this) {
+            manager = solverManager;
+            partCount = partSolutions == null ? 0 : partSolutions.length;
+        }
+        if (manager == null) {
+            return;
+        }
+        for (int i = 0; i < partCount; i++) {
+            manager.terminateEarly(jobId + "#" + i);
+        }
+        manager.terminateEarly(jobId + MERGE_SUFFIX);
+    }
+
+    MotherRollSchedule getFinalBestSolution() throws InterruptedException, ExecutionException {
+        return finalBestSolution.get();
+    }
+
+    CompletableFuture<MotherRollSchedule> finalBestSolution() {
+        return finalBestSolution;
+    }
+
+    private void onPartFinished(int partIndex, MotherRollSchedule solution, Throwable throwable) {
+        MotherRollSchedule merged;
+        synchronized (this) {
+            if (throwable != null) {
+                log.error("Partitioned job {} partition {} failed.", jobId, partIndex, throwable);
+                if (firstError == null) {
+                    firstError = throwable;
+                }
+            } else {
+                partSolutions[partIndex] = solution;
+                log.info("Partitioned job {} partition {} finished: {}", jobId, partIndex, solution.getScore());
+            }
+            if (--runningCount > 0) {
+                return;
+            }
+            if (firstError != null) {
+                fail(firstError);
+                return;
+            }
+            merged = LineCompatibilityPartitioner.merge(problem, Arrays.asList(partSolutions));
+        }
+        startMerge(merged, mergeMillis);
+    }
+
+    private void startMerge(MotherRollSchedule merged, long spentLimitMillis) {
+        String mergeId = jobId + MERGE_SUFFIX;
+        solverManager.solveBuilder()
+                .withProblemId(mergeId)
+                .withProblemFinder(id -> merged)
+                .withConfigOverride(configOverride(spentLimitMillis))
+                .withBestSolutionConsumer(solution -> {
+                    if (bestSolutionConsumer != null) {
+                        bestSolutionConsumer.accept(solution);
+                    }
+                })
+                .withFinalBestSolutionConsumer(solution -> {
+                    log.info("Partitioned job {} merge phase finished: {}", jobId, solution.getScore());
+                    closeSolverManager();
+                    finalBestSolution.complete(solution);
+                })
+                .withExceptionHandler((id, throwable) -> {
+                    log.error("Partitioned job {} merge phase failed.", jobId, throwable);
+                    fail(throwable);
+                })
+                .run();
+        if (terminated) {
+            solverManager.terminateEarly(mergeId);
+        }
+    }
+
+    private void fail(Throwable throwable) {
+        closeSolverManager();
+        finalBestSolution.completeExceptionally(throwable);
+    }
+
+    /**
+     * 在求解线程之外关闭专用 SolverManager
+     */
+    private void closeSolverManager() {
+        SolverManager<MotherRollSchedule, String> manager = solverManager;
+        CompletableFuture.runAsync(manager::close);
+    }
+
+    /**
+     * 各阶段的终止条件：时间上限按阶段分配，其余条件沿用请求
+     */
+    private SolverConfigOverride<MotherRollSchedule> configOverride(long spentLimitMillis) {
+        TerminationConfig terminationConfig = new TerminationConfig().withSpentLimit(Duration.ofMillis(spentLimitMillis));
+        if (termination != null) {
+            if (termination.getUnimprovedTimeLimitSeconds() != null && termination.getUnimprovedTimeLimitSeconds() > 0) {
+                terminationConfig.setUnimprovedSpentLimit(
+                        Duration.ofSeconds(termination.getUnimprovedTimeLimitSeconds()));
+            }
+            if (termination.getStepCountLimit() != null && termination.getStepCountLimit() > 0) {
+                terminationConfig.setStepCountLimit(termination.getStepCountLimit());
+            }
+            if (Boolean.TRUE.equals(termination.getStopOnFeasible())) {
+                terminationConfig.setBestScoreFeasible(Boolean.TRUE);
+            }
+        }
+        return new SolverConfigOverride<MotherRollSchedule>().withTerminationConfig(terminationConfig);
+    }
+
+    static long totalSpentLimitMillis(SolverConfig baseConfig, TerminationSettingsDto termination) {
+        if (termination != null && termination.getTimeLimitSeconds() != null && termination.getTimeLimitSeconds() > 0) {
+            return termination.getTimeLimitSeconds() * 1000L;
+        }
+        TerminationConfig baseTermination = baseConfig.getTerminationConfig();
+        Long baseMillis = baseTermination == null ? null : baseTermination.calculateTimeMillisSpentLimit();
+        return baseMillis == null || baseMillis <= 0 ? DEFAULT_SPENT_LIMIT_MILLIS : baseMillis;
+    }
+
+    private static String describe(MotherRollSchedule part) {
+        return part.getProductionLines().stream().map(ProductionLine::getId).toList()
+                + "=" + part.getOrders().size() + " orders";
+    }
+}
@@ -0,0 +1,276 @@
+package com.changyang.scheduling.service;
+
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import ai.timefold.solver.core.api.solver.SolverConfigOverride;
+import ai.timefold.solver.core.api.solver.SolverJobBuilder;
+import ai.timefold.solver.core.api.solver.SolverManager;
+import ai.timefold.solver.core.api.solver.SolverStatus;
+import ai.timefold.solver.core.config.localsearch.LocalSearchPhaseConfig;
+import ai.timefold.solver.core.config.localsearch.decider.acceptor.LocalSearchAcceptorConfig;
+import ai.timefold.solver.core.config.localsearch.decider.forager.LocalSearchForagerConfig;
+import ai.timefold.solver.core.config.phase.PhaseConfig;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import com.changyang.scheduling.domain.MotherRollSchedule;
+import com.changyang.scheduling.rest.dto.PortfolioSettingsDto;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * 组合求解（portfolio）：同一问题以不同算法/随机种子并行启动多个求解任务，取全局最优解
+ * <p>
+ * 每个成员使用自己的 SolverManager（算法与种子不能通过 SolverConfigOverride 覆盖），
+ * 求解时各自对问题做规划克隆，换型矩阵等只读的求解上下文共享。
+ * 任一成员产生更优的最佳解时回调 bestSolutionConsumer；全部成员结束后得到最终最优解并关闭各 SolverManager。
+ * </p>
+ * <p>
+ * 开启 terminateLosers 时，硬分落后于当前领先者、且超过 loserPatienceSeconds 没有改进的成员会被提前终止，
+ * 领先者本身永不终止。检查在任一成员产生新最佳解时进行。
+ * </p>
+ */
+@Slf4j
+final class PortfolioSolve {
+
+    static final int MAX_SIZE = 16;
+
+    private static final String LATE_ACCEPTANCE = "LATE_ACCEPTANCE";
+    private static final String TABU_SEARCH = "TABU_SEARCH";
+    private static final String SIMULATED_ANNEALING = "SIMULATED_ANNEALING";
+    private static final int TABU_VALUE_TABU_SIZE = 7;
+    private static final int TABU_ACCEPTED_COUNT_LIMIT = 1000;
+    private static final String SA_STARTING_TEMPERATURE = "0hard/0medium/1000soft";
+
+    private final String jobId;
+    private final List<Member> members = new ArrayList<>();
+    private final boolean terminateLosers;
+    private final long loserPatienceMillis;
+    private final Consumer<MotherRollSchedule> bestSolutionConsumer;
+    private final CompletableFuture<MotherRollSchedule> finalBestSolution = new CompletableFuture<>();
+
+    private MotherRollSchedule bestSolution;
+    private Throwable firstError;
+    private int runningCount;
+
+    PortfolioSolve(String jobId, SolverConfig baseConfig, PortfolioSettingsDto settings,
+                   Consumer<MotherRollSchedule> bestSolutionConsumer) {
+        PortfolioSettingsDto effective = settings == null ? new PortfolioSettingsDto() : settings;
+        int size = effective.getSize() == null ? 3 : effective.getSize();
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("portfolio.size must be between 1 and " + MAX_SIZE + ": " + size);
+        }
+        List<String> algorithms = effective.getAlgorithms() == null || effective.getAlgorithms().isEmpty()
+                ? List.of(LATE_ACCEPTANCE)
+                : effective.getAlgorithms();
+        long baseSeed = effective.getBaseSeed() == null ? 0L : effective.getBaseSeed();
+
+        this.jobId = jobId;
+        this.terminateLosers = Boolean.TRUE.equals(effective.getTerminateLosers());
+        this.loserPatienceMillis = 1000L * (effective.getLoserPatienceSeconds() == null
+                ? 10 : Math.max(0, effective.getLoserPatienceSeconds()));
+        this.bestSolutionConsumer = bestSolutionConsumer;
+
+        // 先校验全部算法，再创建 SolverManager，避免半途失败时泄漏
+        List<SolverConfig> memberConfigs = new ArrayList<>(size);
+        List<String> memberNames = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String algorithm = normalizeAlgorithm(algorithms.get(i % algorithms.size()));
+            long seed = baseSeed + i;
+            memberConfigs.add(memberConfig(baseConfig, algorithm, seed));
+            memberNames.add(algorithm + "#" + seed);
+        }
+        for (int i = 0; i < size; i++) {
+            members.add(new Member(jobId + "#" + i, memberNames.get(i), SolverManager.create(memberConfigs.get(i))));
+        }
+    }
+
+    /**
+     * 以给定的终止条件覆盖启动所有成员
+     */
+    void start(MotherRollSchedule problem, SolverConfigOverride<MotherRollSchedule> configOverride) {
+        synchronized (this) {
+            runningCount = members.size();
+        }
+        log.info("Portfolio job {} starts {} members: {}", jobId, members.size(),
+                members.stream().map(member -> member.name).toList());
+        for (Member member : members) {
+            SolverJobBuilder<MotherRollSchedule, String> builder = member.solverManager.solveBuilder()
+                    .withProblemId(member.id)
+                    .withProblemFinder(id -> problem)
+                    .withBestSolutionConsumer(solution -> onBestSolution(member, solution))
+                    .withFinalBestSolutionConsumer(solution -> onFinished(member, solution, null))
+                    .withExceptionHandler((id, throwable) -> onFinished(member, null, throwable));
+            if (configOverride != null) {
+                builder.withConfigOverride(configOverride);
+            }
+            builder.run();
+        }
+    }
+
+    SolverStatus getSolverStatus() {
+        SolverStatus status = SolverStatus.NOT_SOLVING;
+        for (Member member : members) {
+            SolverStatus memberStatus = member.solverManager.getSolverStatus(member.id);
+            if (memberStatus == SolverStatus.SOLVING_ACTIVE) {
+                return SolverStatus.SOLVING_ACTIVE;
+            }
+            if (memberStatus == SolverStatus.SOLVING_SCHEDULED) {
+                status = SolverStatus.SOLVING_SCHEDULED;
+            }
+        }
+        return status;
+    }
+
+    void terminateEarly() {
+        for (Member member : members) {
+            member.solverManager.terminateEarly(member.id);
+        }
+    }
+
+    MotherRollSchedule getFinalBestSolution() throws InterruptedException, ExecutionException {
+        return finalBestSolution.get();
+    }
+
+    CompletableFuture<MotherRollSchedule> finalBestSolution() {
+        return finalBestSolution;
+    }
+
+    private synchronized void onBestSolution(Member member, MotherRollSchedule solution) {
+        member.bestScore = solution.getScore();
+        member.lastImprovedMillis = System.currentTimeMillis();
+        if (isBetter(solution)) {
+            bestSolution = solution;
+            log.info("Portfolio job {} new leader {}: {}", jobId, member.name, solution.getScore());
+            if (bestSolutionConsumer != null) {
+                bestSolutionConsumer.accept(solution);
+            }
+        }
+        if (terminateLosers) {
+            terminateLosers(member.lastImprovedMillis);
+        }
+    }
+
+    private void terminateLosers(long now) {
+        Member leader = null;
+        for (Member member : members) {
+            if (member.bestScore != null && (leader == null || member.bestScore.compareTo(leader.bestScore) > 0)) {
+                leader = member;
+            }
+        }
+        if (leader == null) {
+            return;
+        }
+        for (Member member : members) {
+            if (member != leader && !member.terminated && member.bestScore != null
+                    && member.bestScore.hardScore() < leader.bestScore.hardScore()
+                    && now - member.lastImprovedMillis > loserPatienceMillis) {
+                member.terminated = true;
+                log.info("Portfolio job {} terminates {} ({}), leader {} ({})",
+                        jobId, member.name, member.bestScore, leader.name, leader.bestScore);
+                member.solverManager.terminateEarly(member.id);
+            }
+        }
+    }
+
+    private void onFinished(Member member, MotherRollSchedule solution, Throwable throwable) {
+        MotherRollSchedule result;
+        Throwable error;
+        synchronized (this) {
+            if (throwable != null) {
+                log.error("Portfolio job {} member {} failed.", jobId, member.name, throwable);
+                if (firstError == null) {
+                    firstError = throwable;
+                }
+            } else {
+                member.bestScore = solution.getScore();
+                if (isBetter(solution)) {
+                    bestSolution = solution;
+                }
+                log.info("Portfolio job {} member {} finished: {}", jobId, member.name, solution.getScore());
+            }
+            if (--runningCount > 0) {
+                return;
+            }
+            result = bestSolution;
+            error = firstError;
+        }
+
+        // 在求解线程之外关闭各成员的 SolverManager
+        CompletableFuture.runAsync(() -> members.forEach(m -> m.solverManager.close()));
+        if (result != null) {
+            finalBestSolution.complete(result);
+        } else {
+            finalBestSolution.completeExceptionally(error);
+        }
+    }
+
+    private boolean isBetter(MotherRollSchedule solution) {
+        return solution.getScore() != null
+                && (bestSolution == null || bestSolution.getScore() == null
+                || solution.getScore().compareTo(bestSolution.getScore()) > 0);
+    }
+
+    static String normalizeAlgorithm(String algorithm) {
+        String value = algorithm == null ? "" : algorithm.trim().toUpperCase(Locale.ROOT);
+        return switch (value) {
+            case LATE_ACCEPTANCE, TABU_SEARCH, SIMULATED_ANNEALING -> value;
+            default -> throw new IllegalArgumentException("portfolio algorithm must be one of "
+                    + LATE_ACCEPTANCE + ", " + TABU_SEARCH + ", " + SIMULATED_ANNEALING + ", got: " + algorithm);
+        };
+    }
+
+    /**
+     * 在基础配置上替换局部搜索的接受器/采集器并设置随机种子，移动选择器保持不变
+     */
+    static SolverConfig memberConfig(SolverConfig baseConfig, String algorithm, long seed) {
+        SolverConfig config = baseConfig.copyConfig().withRandomSeed(seed);
+        List<PhaseConfig> phases = new ArrayList<>();
+        for (PhaseConfig<?> phase : baseConfig.getPhaseConfigList()) {
+            if (phase instanceof LocalSearchPhaseConfig localSearch) {
+                phases.add(withAlgorithm(localSearch.copyConfig(), algorithm));
+            } else {
+                phases.add(phase.copyConfig());
+            }
+        }
+        config.setPhaseConfigList(phases);
+        return config;
+    }
+
+    private static LocalSearchPhaseConfig withAlgorithm(LocalSearchPhaseConfig localSearch, String algorithm) {
+        if (LATE_ACCEPTANCE.equals(algorithm)) {
+            return localSearch;
+        }
+        localSearch.setLocalSearchType(null);
+        if (TABU_SEARCH.equals(algorithm)) {
+            // 列表变量只有少数产线实体，按订单（值）禁忌，而不是按实体
+            localSearch.setAcceptorConfig(new LocalSearchAcceptorConfig().withValueTabuSize(TABU_VALUE_TABU_SIZE));
+            localSearch.setForagerConfig(new LocalSearchForagerConfig()
+                    .withAcceptedCountLimit(TABU_ACCEPTED_COUNT_LIMIT));
+        } else {
+            localSearch.setAcceptorConfig(new LocalSearchAcceptorConfig()
+                    .withSimulatedAnnealingStartingTemperature(SA_STARTING_TEMPERATURE));
+            localSearch.setForagerConfig(new LocalSearchForagerConfig().withAcceptedCountLimit(1));
+        }
+        return localSearch;
+    }
+
+    private static final class Member {
+
+        private final String id;
+        private final String name;
+        private final SolverManager<MotherRollSchedule, String> solverManager;
+        private HardMediumSoftScore bestScore;
+        private long lastImprovedMillis = System.currentTimeMillis();
+        private boolean terminated;
+
+        private Member(String id, String name, SolverManager<MotherRollSchedule, String> solverManager) {
+            this.id = id;
+            this.name = name;
+            this.solverManager = solverManager;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.changyang.scheduling.service;
+
+import com.changyang.scheduling.solver.SchedulingConstraintIds;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 原始工作簿的数据质量计数（空列、兼容产线样本、各辅助表行数等）
+ * <p>
+ * 与订单解析在同一次读取中逐行累计，供 {@link ExcelValidationService} 生成校验摘要，
+ * 不再为校验单独解析一遍工作簿。
+ * </p>
+ */
+public final class RawWorkbookStats {
+
+    int totalOrderRows;
+    int inventoryBlankRows;
+    int monthlyShipmentBlankRows;
+    int compatibilityBlankRows;
+    int preferredLineBlankRows;
+    int expectedStartBlankRows;
+    int multiLineCompatibleRows;
+    int exceptionSheetRows;
+    int filterChangeSheetRows;
+    int calendarSheetRows;
+    int holidayRows;
+    final Set<String> mc1PriorityComboHits = new HashSet<>();
+
+    /**
+     * 累计一行（表头行已由调用方跳过）
+     */
+    void row(int sheetIndex, String sheetName, SheetRow row) {
+        if (sheetIndex == 0) {
+            orderRow(row);
+        } else if (ExcelDataLoader.EXCEPTION_SHEET.equals(sheetName)) {
+            exceptionSheetRows += row.isEmpty() ? 0 : 1;
+        } else if (ExcelDataLoader.FILTER_CHANGE_SHEET.equals(sheetName)) {
+            filterChangeSheetRows += row.isEmpty() ? 0 : 1;
+        } else if (ExcelDataLoader.FACTORY_CALENDAR_SHEET.equals(sheetName)) {
+            calendarSheetRows += row.isEmpty() ? 0 : 1;
+            String workFlag = getCellString(row, 1);
+            if (workFlag != null && !"Y".equalsIgnoreCase(workFlag)) {
+                holidayRows++;
+            }
+        }
+    }
+
+    private void orderRow(SheetRow row) {
+        String orderId = getCellString(row, 0);
+        if (orderId == null || orderId.isBlank()) {
+            return;
+        }
+        totalOrderRows++;
+
+        if (isBlank(row, 13)) {
+            inventoryBlankRows++;
+        }
+        if (isBlank(row, 14)) {
+            monthlyShipmentBlankRows++;
+        }
+        if (isBlank(row, 15)) {
+            compatibilityBlankRows++;
+        }
+        if (isBlank(row, 8)) {
+            preferredLineBlankRows++;
+        }
+        if (isBlank(row, 6)) {
+            expectedStartBlankRows++;
+        }
+
+        String compatibleLines = getCellString(row, 15);
+        if (compatibleLines != null && compatibleLines.contains(";")) {
+            multiLineCompatibleRows++;
+        }
+
+        String productCode = getCellString(row, 11);
+        Double thickness = getCellDouble(row, 10);
+        if (productCode != null && thickness != null) {
+            String key = productCode + "_" + thickness.intValue();
+            if (SchedulingConstraintIds.MC1_PRIORITY_KEYS.contains(key)) {
+                mc1PriorityComboHits.add(key);
+            }
+        }
+    }
+
+    private static boolean isBlank(SheetRow row, int index) {
+        return getCellString(row, index) == null;
+    }
+
+    private static String getCellString(SheetRow row, int index) {
+        SheetRow.CellValue cell = row.getCell(index);
+        if (cell == null) {
+            return null;
+        }
+        String value = cell.text().trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Double getCellDouble(SheetRow row, int index) {
+        SheetRow.CellValue cell = row.getCell(index);
+        if (cell == null) {
+            return null;
+        }
+        if (cell.number() != null) {
+            return cell.number();
+        }
+        try {
+            return Double.parseDouble(cell.text().trim());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -1,21 +1,39 @@
 package com.changyang.scheduling.service;
 
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import ai.timefold.solver.core.api.solver.SolutionManager;
 import ai.timefold.solver.core.api.solver.SolverConfigOverride;
+import ai.timefold.solver.core.api.solver.SolverFactory;
 import ai.timefold.solver.core.api.solver.SolverJob;
 import ai.timefold.solver.core.api.solver.SolverJobBuilder;
 import ai.timefold.solver.core.api.solver.SolverManager;
 import ai.timefold.solver.core.api.solver.SolverStatus;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import ai.timefold.solver.core.config.solver.SolverManagerConfig;
 import ai.timefold.solver.core.config.solver.termination.TerminationConfig;
+import ai.timefold.solver.core.enterprise.TimefoldSolverEnterpriseService;
+import com.changyang.scheduling.domain.ExceptionTime;
+import com.changyang.scheduling.domain.FilterPriorityWindows;
+import com.changyang.scheduling.domain.MotherRollOrder;
 import com.changyang.scheduling.domain.MotherRollSchedule;
 import com.changyang.scheduling.domain.ProductionLine;
+import com.changyang.scheduling.rest.dto.JobStoreStatsDto;
 import com.changyang.scheduling.rest.dto.SolveRequestConfigDto;
 import com.changyang.scheduling.rest.dto.TerminationSettingsDto;
+import com.changyang.scheduling.rest.dto.WarmStartSettingsDto;
 import com.changyang.scheduling.solver.SchedulingConstraintConfiguration;
-import lombok.RequiredArgsConstructor;
+import com.changyang.scheduling.solver.SchedulingConstraintIds;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -23,44 +41,180 @@ import java.util.concurrent.ExecutionException;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class SchedulingService {
 
     private static final long PROGRESS_LOG_INTERVAL_MILLIS = 2_000L;
+    private static final String MOVE_THREAD_COUNT_NONE = SolverConfig.MOVE_THREAD_COUNT_NONE;
+    static final String SOLVE_MODE_SINGLE = "SINGLE";
+    static final String SOLVE_MODE_PORTFOLIO = "PORTFOLIO";
+    static final String SOLVE_MODE_PARTITIONED = "PARTITIONED";
 
     private final SolverManager<MotherRollSchedule, String> solverManager;
     private final ChangeoverService changeoverService;
+    private final SolverConfig solverConfig;
+    /** 异步任务的中间解、最终解与错误，按存活时间和容量淘汰 */
+    private final SolverJobStore jobStore;
+    /** 共享 SolverManager 的并发求解数，多线程任务的 SolverManager 沿用同一设置 */
+    private final String parallelSolverCount;
+    private volatile SolutionManager<MotherRollSchedule, HardMediumSoftScore> solutionManager;
+
+    /** 指定了 moveThreadCount 的任务按取值共用的 SolverManager，应用关闭时关闭 */
+    private final ConcurrentMap<String, SolverManager<MotherRollSchedule, String>> threadedSolverManagers =
+            new ConcurrentHashMap<>();
+    /** 正在多线程 SolverManager 上求解的任务，jobId → SolverManager，用于状态查询与提前终止 */
+    private final ConcurrentMap<String, SolverManager<MotherRollSchedule, String>> threadedJobs =
+            new ConcurrentHashMap<>();
+    /** 组合求解任务，jobId → 各成员 */
+    private final ConcurrentMap<String, PortfolioSolve> portfolioJobs = new ConcurrentHashMap<>();
+    /** 分区求解任务，jobId → 分区与合并阶段 */
+    private final ConcurrentMap<String, PartitionedSolve> partitionedJobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SchedulingService(SolverManager<MotherRollSchedule, String> solverManager,
+                             ChangeoverService changeoverService,
+                             SolverConfig solverConfig,
+                             SolverJobStore jobStore,
+                             @Value("${timefold.solver-manager.parallel-solver-count:AUTO}") String parallelSolverCount) {
+        this.solverManager = solverManager;
+        this.changeoverService = changeoverService;
+        this.solverConfig = solverConfig;
+        this.jobStore = jobStore;
+        this.parallelSolverCount = parallelSolverCount;
+    }
 
-    private final ConcurrentMap<String, MotherRollSchedule> jobResults = new ConcurrentHashMap<>();
-    private final ConcurrentMap<String, Throwable> jobErrors = new ConcurrentHashMap<>();
+    @PreDestroy
+    void shutdown() {
+        threadedSolverManagers.values().forEach(SolverManager::close);
+        threadedSolverManagers.clear();
+    }
 
     /**
      * Current Excel mode keeps original order granularity.
      * Daily splitting stays disabled until the split-specific workflow is re-enabled.
      */
     private MotherRollSchedule preprocess(MotherRollSchedule problem, SolveRequestConfigDto config) {
-        if (problem.getChangeoverEntries() != null && !problem.getChangeoverEntries().isEmpty()) {
-            changeoverService.initCache(problem.getChangeoverEntries());
-        }
+        // 每次求解构建自己的换型矩阵，并发任务之间互不覆盖
+        changeoverService.attach(problem);
+        indexFilterPriority(problem);
+        // 停机窗口按产线合并排序，HC3 区间连接不再重复计算重叠部分
+        problem.setExceptionTimes(ExceptionTime.coalesce(problem.getExceptionTimes()));
         problem.setConstraintConfiguration(SchedulingConstraintConfiguration.fromSelection(
                 config == null ? null : config.getConstraints()
         ));
         return problem;
     }
 
+    /**
+     * 热启动重排：把起点排程中仍存在的订单放回原产线原位置，新订单留给初始化阶段；
+     * 请求没有指定无改进终止条件时补上 warmStart 中的默认值
+     */
+    private void applyWarmStart(MotherRollSchedule problem, SolveRequestConfigDto config) {
+        WarmStartSettingsDto warmStart = config == null ? null : config.getWarmStart();
+        if (warmStart == null) {
+            return;
+        }
+        Map<String, List<String>> lineSequences;
+        String baseJobId = warmStart.getBaseJobId();
+        if (baseJobId != null && !baseJobId.isBlank()) {
+            baseJobId = baseJobId.trim();
+            if (jobStore.isExpired(baseJobId)) {
+                throw new IllegalArgumentException("Base job " + baseJobId
+                        + " has expired, submit its schedule as warmStart.lineSequences instead.");
+            }
+            SolutionSnapshot snapshot = getSnapshot(baseJobId);
+            if (snapshot == null) {
+                throw new IllegalArgumentException("Base job " + baseJobId + " has no solution.");
+            }
+            lineSequences = snapshot.lineSequences();
+        } else if (warmStart.getLineSequences() != null) {
+            lineSequences = warmStart.getLineSequences();
+        } else {
+            throw new IllegalArgumentException("warmStart requires baseJobId or lineSequences.");
+        }
+
+        WarmStartSeeder.Result result = WarmStartSeeder.seed(problem, lineSequences);
+        log.info("Warm start{}: kept {} orders in place, {} to insert, {} no longer present, {} no longer compatible.",
+                baseJobId == null || baseJobId.isBlank() ? "" : " from job " + baseJobId,
+                result.keptOrders(), result.newOrders(), result.droppedOrders(), result.incompatibleOrders());
+
+        Integer unimprovedLimit = warmStart.getUnimprovedTimeLimitSeconds();
+        if (unimprovedLimit != null && unimprovedLimit > 0) {
+            TerminationSettingsDto termination = config.getTermination();
+            if (termination == null) {
+                // 总时长仍沿用应用默认配置
+                termination = new TerminationSettingsDto();
+                termination.setTimeLimitSeconds(null);
+                config.setTermination(termination);
+            }
+            if (termination.getUnimprovedTimeLimitSeconds() == null) {
+                termination.setUnimprovedTimeLimitSeconds(unimprovedLimit);
+            }
+        }
+    }
+
+    /**
+     * MC1 预处理：订单优先级解析为整型字段，各产线的过滤器窗口按 epoch 分钟排序保存
+     */
+    private void indexFilterPriority(MotherRollSchedule problem) {
+        if (problem.getOrders() != null) {
+            for (MotherRollOrder order : problem.getOrders()) {
+                if (order.getProductCode() != null) {
+                    order.setFilterPriorityRank(
+                            SchedulingConstraintIds.mc1PriorityRank(order.getProductCode(), order.getThickness()));
+                }
+            }
+        }
+        if (problem.getProductionLines() != null) {
+            for (ProductionLine line : problem.getProductionLines()) {
+                line.setFilterPriorityWindows(
+                        FilterPriorityWindows.build(problem.getFilterChangePlans(), line.getId()));
+            }
+        }
+    }
+
     public MotherRollSchedule solve(MotherRollSchedule problem) {
         return solve(problem, null);
     }
 
     public MotherRollSchedule solve(MotherRollSchedule problem, SolveRequestConfigDto config) {
         log.info("Start synchronous solving.");
+        String moveThreadCount = resolveMoveThreadCount(config);
         MotherRollSchedule processedProblem = preprocess(problem, config);
+        applyWarmStart(processedProblem, config);
         logEffectiveConfiguration("sync", processedProblem.getConstraintConfiguration(), config == null ? null : config.getTermination());
 
         String jobId = UUID.randomUUID().toString();
         SolverProgressTracker progressTracker = new SolverProgressTracker(jobId);
 
-        SolverJobBuilder<MotherRollSchedule, String> builder = solverManager.solveBuilder()
+        if (isPortfolio(config)) {
+            PortfolioSolve portfolio = new PortfolioSolve(jobId, baseSolverConfig(moveThreadCount),
+                    config.getPortfolio(), progressTracker::logProgress);
+            portfolio.start(processedProblem, buildConfigOverride(config.getTermination()));
+            try {
+                MotherRollSchedule solution = portfolio.getFinalBestSolution();
+                validateSolution(solution);
+                return solution;
+            } catch (InterruptedException | ExecutionException e) {
+                log.error("Synchronous portfolio solving failed.", e);
+                throw new RuntimeException("Scheduling solve failed.", e);
+            }
+        }
+
+        if (isPartitioned(config)) {
+            PartitionedSolve partitioned = new PartitionedSolve(jobId, baseSolverConfig(moveThreadCount),
+                    config.getPartition(), config.getTermination(), progressTracker::logProgress);
+            partitioned.start(processedProblem);
+            try {
+                MotherRollSchedule solution = partitioned.getFinalBestSolution();
+                validateSolution(solution);
+                return solution;
+            } catch (InterruptedException | ExecutionException e) {
+                log.error("Synchronous partitioned solving failed.", e);
+                throw new RuntimeException("Scheduling solve failed.", e);
+            }
+        }
+
+        SolverJobBuilder<MotherRollSchedule, String> builder = solverManagerFor(jobId, moveThreadCount).solveBuilder()
                 .withProblemId(jobId)
                 .withProblemFinder(id -> processedProblem)
                 .withBestSolutionConsumer(progressTracker::logProgress);
@@ -80,6 +234,8 @@ public class SchedulingService {
         } catch (InterruptedException | ExecutionException e) {
             log.error("Synchronous solving failed.", e);
             throw new RuntimeException("Scheduling solve failed.", e);
+        } finally {
+            threadedJobs.remove(jobId);
         }
     }
 
@@ -88,29 +244,96 @@ public class SchedulingService {
     }
 
     public String solveAsync(MotherRollSchedule problem, SolveRequestConfigDto config) {
+        String moveThreadCount = resolveMoveThreadCount(config);
         String jobId = UUID.randomUUID().toString();
         log.info("Submitted async solving job, jobId={}", jobId);
 
         MotherRollSchedule processedProblem = preprocess(problem, config);
+        applyWarmStart(processedProblem, config);
         logEffectiveConfiguration("async", processedProblem.getConstraintConfiguration(), config == null ? null : config.getTermination());
+        // 提交后即登记，订阅推送等查询在第一个解之前也能识别该任务
+        jobStore.submit(jobId);
+        try {
+            startAsync(jobId, processedProblem, config, moveThreadCount);
+        } catch (RuntimeException e) {
+            jobStore.fail(jobId, e);
+            threadedJobs.remove(jobId);
+            portfolioJobs.remove(jobId);
+            partitionedJobs.remove(jobId);
+            throw e;
+        }
+        return jobId;
+    }
+
+    private void startAsync(String jobId, MotherRollSchedule processedProblem, SolveRequestConfigDto config,
+                            String moveThreadCount) {
         SolverProgressTracker progressTracker = new SolverProgressTracker(jobId);
+        // 只保留紧凑快照，完整方案在查询结果时重建
+        SolutionSnapshot.Template snapshots = new SolutionSnapshot.Template(processedProblem);
+
+        if (isPortfolio(config)) {
+            PortfolioSolve portfolio = new PortfolioSolve(jobId, baseSolverConfig(moveThreadCount),
+                    config.getPortfolio(), bestSolution -> {
+                        progressTracker.logProgress(bestSolution);
+                        jobStore.putBestSolution(jobId, snapshots.capture(bestSolution));
+                    });
+            portfolioJobs.put(jobId, portfolio);
+            portfolio.finalBestSolution().whenComplete((finalBestSolution, throwable) -> {
+                // 成员的 SolverManager 随后关闭，状态查询回落到共享实例（NOT_SOLVING）
+                portfolioJobs.remove(jobId);
+                if (throwable != null) {
+                    log.error("Async portfolio job {} failed.", jobId, throwable);
+                    jobStore.fail(jobId, throwable);
+                    return;
+                }
+                log.info("Async portfolio job {} finished, final score={}", jobId, finalBestSolution.getScore());
+                validateSolution(finalBestSolution);
+                jobStore.complete(jobId, snapshots.capture(finalBestSolution));
+            });
+            portfolio.start(processedProblem, buildConfigOverride(config.getTermination()));
+            return;
+        }
+
+        if (isPartitioned(config)) {
+            PartitionedSolve partitioned = new PartitionedSolve(jobId, baseSolverConfig(moveThreadCount),
+                    config.getPartition(), config.getTermination(), bestSolution -> {
+                        progressTracker.logProgress(bestSolution);
+                        jobStore.putBestSolution(jobId, snapshots.capture(bestSolution));
+                    });
+            partitionedJobs.put(jobId, partitioned);
+            partitioned.finalBestSolution().whenComplete((finalBestSolution, throwable) -> {
+                if (throwable != null) {
+                    log.error("Async partitioned job {} failed.", jobId, throwable);
+                    jobStore.fail(jobId, throwable);
+                } else {
+                    log.info("Async partitioned job {} finished, final score={}", jobId, finalBestSolution.getScore());
+                    validateSolution(finalBestSolution);
+                    jobStore.complete(jobId, snapshots.capture(finalBestSolution));
+                }
+                partitionedJobs.remove(jobId);
+            });
+            partitioned.start(processedProblem);
+            return;
+        }
 
-        SolverJobBuilder<MotherRollSchedule, String> builder = solverManager.solveBuilder()
+        SolverJobBuilder<MotherRollSchedule, String> builder = solverManagerFor(jobId, moveThreadCount).solveBuilder()
                 .withProblemId(jobId)
                 .withProblemFinder(id -> processedProblem)
                 .withBestSolutionConsumer(bestSolution -> {
                     progressTracker.logProgress(bestSolution);
                     log.info("Job {} found a better solution: {}", jobId, bestSolution.getScore());
-                    jobResults.put(jobId, bestSolution);
+                    jobStore.putBestSolution(jobId, snapshots.capture(bestSolution));
                 })
                 .withFinalBestSolutionConsumer(finalBestSolution -> {
                     log.info("Async solving job {} finished, final score={}", jobId, finalBestSolution.getScore());
                     validateSolution(finalBestSolution);
-                    jobResults.put(jobId, finalBestSolution);
+                    jobStore.complete(jobId, snapshots.capture(finalBestSolution));
+                    threadedJobs.remove(jobId);
                 })
                 .withExceptionHandler((id, throwable) -> {
                     log.error("Async solving job {} failed.", id, throwable);
-                    jobErrors.put(id, throwable);
+                    jobStore.fail(id, throwable);
+                    threadedJobs.remove(id);
                 });
 
         SolverConfigOverride<MotherRollSchedule> configOverride =
@@ -120,7 +343,102 @@ public class SchedulingService {
         }
 
         builder.run();
-        return jobId;
+    }
+
+    /**
+     * 请求实际使用的 moveThreadCount：未指定或为 NONE 时返回 null（单线程）。
+     * 多线程增量求解需要 Timefold Enterprise，社区版下指定其他值时直接拒绝，而不是静默按单线程求解。
+     */
+    static String resolveMoveThreadCount(SolveRequestConfigDto config) {
+        String moveThreadCount = normalizeMoveThreadCount(config == null ? null : config.getMoveThreadCount());
+        if (moveThreadCount == null || MOVE_THREAD_COUNT_NONE.equals(moveThreadCount)) {
+            return null;
+        }
+        if (!MultithreadedSolving.AVAILABLE) {
+            throw new IllegalArgumentException("moveThreadCount=" + moveThreadCount
+                    + " requires Timefold Solver Enterprise; this server runs the community edition,"
+                    + " omit moveThreadCount or use NONE.");
+        }
+        return moveThreadCount;
+    }
+
+    /**
+     * 按 moveThreadCount 选择 SolverManager。
+     * <p>
+     * 单线程任务使用共享实例；多线程任务按 moveThreadCount 取值共用一个 SolverManager
+     * （SolverConfigOverride 只能覆盖终止条件），并发求解数同样受 parallel-solver-count 限制，超出的任务排队。
+     * 换型矩阵、过滤器窗口等求解上下文构建后只读，可被多个 move 线程共享。
+     * </p>
+     */
+    private SolverManager<MotherRollSchedule, String> solverManagerFor(String jobId, String moveThreadCount) {
+        if (moveThreadCount == null) {
+            return solverManager;
+        }
+        SolverManager<MotherRollSchedule, String> threaded = threadedSolverManagers.computeIfAbsent(moveThreadCount,
+                value -> {
+                    log.info("Creating solver manager with moveThreadCount={}, parallelSolverCount={}.",
+                            value, parallelSolverCount);
+                    return SolverManager.create(solverConfig.copyConfig().withMoveThreadCount(value),
+                            new SolverManagerConfig().withParallelSolverCount(parallelSolverCount));
+                });
+        log.info("Job {} uses the solver manager with moveThreadCount={}.", jobId, moveThreadCount);
+        threadedJobs.put(jobId, threaded);
+        return threaded;
+    }
+
+    /**
+     * 组合求解成员与分区求解的基础配置：应用默认配置，按请求附加 moveThreadCount（需 Enterprise）
+     */
+    private SolverConfig baseSolverConfig(String moveThreadCount) {
+        if (moveThreadCount == null) {
+            return solverConfig;
+        }
+        return solverConfig.copyConfig().withMoveThreadCount(moveThreadCount);
+    }
+
+    static boolean isPortfolio(SolveRequestConfigDto config) {
+        return SOLVE_MODE_PORTFOLIO.equals(normalizeSolveMode(config));
+    }
+
+    static boolean isPartitioned(SolveRequestConfigDto config) {
+        return SOLVE_MODE_PARTITIONED.equals(normalizeSolveMode(config));
+    }
+
+    /**
+     * 校验 solveMode：SINGLE（默认）、PORTFOLIO 或 PARTITIONED
+     */
+    static String normalizeSolveMode(SolveRequestConfigDto config) {
+        if (config == null || config.getSolveMode() == null || config.getSolveMode().isBlank()) {
+            return SOLVE_MODE_SINGLE;
+        }
+        String mode = config.getSolveMode().trim().toUpperCase(Locale.ROOT);
+        return switch (mode) {
+            case SOLVE_MODE_SINGLE, SOLVE_MODE_PORTFOLIO, SOLVE_MODE_PARTITIONED -> mode;
+            default -> throw new IllegalArgumentException("solveMode must be SINGLE, PORTFOLIO or PARTITIONED, got: "
+                    + config.getSolveMode());
+        };
+    }
+
+    /**
+     * 校验 moveThreadCount：AUTO、NONE 或正整数，空值表示沿用应用默认配置
+     */
+    static String normalizeMoveThreadCount(String moveThreadCount) {
+        if (moveThreadCount == null || moveThreadCount.isBlank()) {
+            return null;
+        }
+        String value = moveThreadCount.trim().toUpperCase(Locale.ROOT);
+        if (SolverConfig.MOVE_THREAD_COUNT_AUTO.equals(value) || MOVE_THREAD_COUNT_NONE.equals(value)) {
+            return value;
+        }
+        try {
+            if (Integer.parseInt(value) > 0) {
+                return value;
+            }
+        } catch (NumberFormatException ignored) {
+            // 落到下方统一报错
+        }
+        throw new IllegalArgumentException(
+                "moveThreadCount must be AUTO, NONE or a positive integer, got: " + moveThreadCount);
     }
 
     private SolverConfigOverride<MotherRollSchedule> buildConfigOverride(TerminationSettingsDto termination) {
@@ -231,20 +549,131 @@ public class SchedulingService {
     }
 
     public SolverStatus getStatus(String jobId) {
+        PortfolioSolve portfolio = portfolioJobs.get(jobId);
+        if (portfolio != null) {
+            return portfolio.getSolverStatus();
+        }
+        PartitionedSolve partitioned = partitionedJobs.get(jobId);
+        if (partitioned != null) {
+            return partitioned.getSolverStatus();
+        }
+        SolverManager<MotherRollSchedule, String> threaded = threadedJobs.get(jobId);
+        if (threaded != null) {
+            return threaded.getSolverStatus(jobId);
+        }
         return solverManager.getSolverStatus(jobId);
     }
 
+    /**
+     * 异步任务当前的最佳解或最终解；由快照重建，每次调用都会重新计算影子变量和分数
+     */
     public MotherRollSchedule getResult(String jobId) {
-        if (jobErrors.containsKey(jobId)) {
-            throw new RuntimeException("Job execution failed.", jobErrors.get(jobId));
+        SolutionSnapshot snapshot = getSnapshot(jobId);
+        return snapshot == null ? null : snapshot.materialize(solutionManager());
+    }
+
+    /**
+     * 异步任务当前最佳解的分数，不重建方案；还没有解时返回 null
+     */
+    public HardMediumSoftScore getBestScore(String jobId) {
+        SolutionSnapshot snapshot = getSnapshot(jobId);
+        return snapshot == null ? null : snapshot.getScore();
+    }
+
+    /**
+     * 异步任务当前最佳解的版本号，同一任务内单调递增；还没有解时返回 0
+     */
+    public long getSolutionVersion(String jobId) {
+        SolutionSnapshot snapshot = getSnapshot(jobId);
+        return snapshot == null ? 0L : snapshot.getVersion();
+    }
+
+    /**
+     * 当前最佳解中，在 sinceVersion 之后订单序列（以及随之变化的时间）有变化的产线 ID；
+     * 还没有解或 sinceVersion 比当前版本新（不是该任务发出的版本）时返回 null，调用方应返回完整结果
+     */
+    public Set<String> getLinesChangedSince(String jobId, long sinceVersion) {
+        SolutionSnapshot snapshot = getSnapshot(jobId);
+        if (snapshot == null || sinceVersion > snapshot.getVersion()) {
+            return null;
+        }
+        return snapshot.linesChangedSince(sinceVersion);
+    }
+
+    private SolutionSnapshot getSnapshot(String jobId) {
+        Throwable error = jobStore.getError(jobId);
+        if (error != null) {
+            throw new RuntimeException("Job execution failed.", error);
+        }
+        return jobStore.getSnapshot(jobId);
+    }
+
+    /**
+     * 重建快照用的 SolutionManager，第一次使用时按应用求解配置创建
+     */
+    private SolutionManager<MotherRollSchedule, HardMediumSoftScore> solutionManager() {
+        SolutionManager<MotherRollSchedule, HardMediumSoftScore> manager = solutionManager;
+        if (manager == null) {
+            synchronized (this) {
+                manager = solutionManager;
+                if (manager == null) {
+                    manager = SolutionManager.create(SolverFactory.create(solverConfig));
+                    solutionManager = manager;
+                }
+            }
         }
-        return jobResults.get(jobId);
+        return manager;
+    }
+
+    /**
+     * 任务的结果是否已从任务存储中淘汰
+     */
+    public boolean isExpired(String jobId) {
+        return jobStore.isExpired(jobId);
+    }
+
+    public JobStoreStatsDto getJobStoreStats() {
+        return jobStore.getStats();
     }
 
     public void stopSolver(String jobId) {
+        PortfolioSolve portfolio = portfolioJobs.get(jobId);
+        if (portfolio != null) {
+            portfolio.terminateEarly();
+            return;
+        }
+        PartitionedSolve partitioned = partitionedJobs.get(jobId);
+        if (partitioned != null) {
+            partitioned.terminateEarly();
+            return;
+        }
+        SolverManager<MotherRollSchedule, String> threaded = threadedJobs.get(jobId);
+        if (threaded != null) {
+            threaded.terminateEarly(jobId);
+            return;
+        }
         solverManager.terminateEarly(jobId);
     }
 
+    static boolean isMultithreadedSolvingAvailable() {
+        return MultithreadedSolving.AVAILABLE;
+    }
+
+    /** 运行时是否可用多线程增量求解（Timefold Enterprise），只检测一次 */
+    private static final class MultithreadedSolving {
+
+        private static final boolean AVAILABLE = detect();
+
+        private static boolean detect() {
+            try {
+                TimefoldSolverEnterpriseService.load();
+                return true;
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return false;
+            }
+        }
+    }
+
     private static final class SolverProgressTracker {
 
         private final String jobId;
@@ -0,0 +1,90 @@
+package com.changyang.scheduling.service;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+
+import java.time.LocalDateTime;
+
+/**
+ * 工作表中的一行
+ * <p>
+ * DOM 读取（XSSFWorkbook）与流式读取（{@link StreamingWorkbookReader}）共用的单元格访问接口，
+ * 行解析逻辑只写一份，两条读取路径得到相同的结果。
+ * </p>
+ */
+interface SheetRow {
+
+    /** 0-based 行号 */
+    int getRowNum();
+
+    /** 指定列的单元格，空单元格返回 null */
+    CellValue getCell(int col);
+
+    /** 是否所有单元格都为空（或只有空白） */
+    boolean isEmpty();
+
+    /**
+     * 单元格内容
+     *
+     * @param text     按单元格格式显示的文本（未 trim）
+     * @param number   数值单元格（含公式的数值缓存结果）的原始数值，其余为 null
+     * @param dateTime 日期格式的数值单元格对应的时间，其余为 null
+     */
+    record CellValue(String text, Double number, LocalDateTime dateTime) {
+    }
+
+    /**
+     * XSSFWorkbook 中的一行；公式单元格取缓存结果，与流式读取一致
+     */
+    static SheetRow of(Row row, DataFormatter formatter) {
+        return new SheetRow() {
+            @Override
+            public int getRowNum() {
+                return row.getRowNum();
+            }
+
+            @Override
+            public boolean isEmpty() {
+                for (int col = Math.max(0, row.getFirstCellNum()); col < row.getLastCellNum(); col++) {
+                    CellValue cell = getCell(col);
+                    if (cell != null && !cell.text().trim().isEmpty()) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public CellValue getCell(int col) {
+                Cell cell = row.getCell(col, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
+                if (cell == null) {
+                    return null;
+                }
+                boolean formula = cell.getCellType() == CellType.FORMULA;
+                CellType type = formula ? cell.getCachedFormulaResultType() : cell.getCellType();
+                return switch (type) {
+                    case NUMERIC -> {
+                        double value = cell.getNumericCellValue();
+                        CellStyle style = cell.getCellStyle();
+                        String text = formula
+                                ? formatter.formatRawCellContents(value, style.getDataFormat(),
+                                style.getDataFormatString())
+                                : formatter.formatCellValue(cell);
+                        LocalDateTime dateTime = DateUtil.isCellDateFormatted(cell)
+                                ? cell.getLocalDateTimeCellValue()
+                                : null;
+                        yield new CellValue(text, value, dateTime);
+                    }
+                    case STRING -> new CellValue(cell.getStringCellValue(), null, null);
+                    case BOOLEAN -> new CellValue(cell.getBooleanCellValue() ? "TRUE" : "FALSE", null, null);
+                    case BLANK -> null;
+                    default -> new CellValue(formula ? "" : formatter.formatCellValue(cell), null, null);
+                };
+            }
+        };
+    }
+}
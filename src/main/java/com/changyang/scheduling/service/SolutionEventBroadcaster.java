@@ -0,0 +1,319 @@
+package com.changyang.scheduling.service;
+
+import com.changyang.scheduling.rest.dto.SolutionEventDto;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按任务推送求解进度（Server-Sent Events）
+ * <p>
+ * 订阅后先推送任务当前的最佳解，之后每当 {@link SolverJobStore} 写入更好的解时推送分数、分配进度和
+ * 有变化的产线。同一任务两次推送至少间隔 minInterval，间隔内到达的解只推送最新的一个；
+ * 任务结束的事件不受间隔限制，推送后关闭该任务的全部连接。
+ * </p>
+ * <p>
+ * 事件只由快照生成，不重建方案、不合并任务；没有订阅者的任务不产生任何开销。
+ * 推送在单独的调度线程上进行，不占用求解线程。
+ * </p>
+ */
+@Slf4j
+@Component
+public class SolutionEventBroadcaster implements SolverJobStore.Listener {
+
+    static final String EVENT_BEST_SOLUTION = "best-solution";
+    static final String EVENT_FINISHED = "finished";
+    static final String EVENT_FAILED = "failed";
+    static final String EVENT_EXPIRED = "expired";
+    static final String EVENT_NOT_FOUND = "not-found";
+
+    private final SolverJobStore jobStore;
+    private final long minIntervalNanos;
+    private final long timeoutMillis;
+    private final ScheduledExecutorService scheduler;
+    private final ConcurrentMap<String, Channel> channels = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SolutionEventBroadcaster(SolverJobStore jobStore,
+                                    @Value("${scheduling.solution-events.min-interval:1s}") Duration minInterval,
+                                    @Value("${scheduling.solution-events.timeout:30m}") Duration timeout) {
+        this.jobStore = jobStore;
+        this.minIntervalNanos = minInterval.toNanos();
+        this.timeoutMillis = timeout.toMillis();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "solution-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        jobStore.addListener(this);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 订阅任务的求解进度；已结束或已过期的任务推送一次当前状态后关闭连接，
+     * 不存在的任务推送 not-found 后关闭，不保留连接
+     */
+    public SseEmitter subscribe(String jobId) {
+        SseEmitter emitter = createEmitter(timeoutMillis);
+        if (jobStore.isExpired(jobId)) {
+            send(emitter, EVENT_EXPIRED, statusEvent(jobId, "EXPIRED"));
+            emitter.complete();
+            return emitter;
+        }
+        if (!jobStore.contains(jobId)) {
+            send(emitter, EVENT_NOT_FOUND, statusEvent(jobId, "NOT_FOUND"));
+            emitter.complete();
+            return emitter;
+        }
+        Subscriber subscriber = new Subscriber(emitter);
+        Channel channel;
+        while (true) {
+            channel = channels.computeIfAbsent(jobId, Channel::new);
+            synchronized (channel) {
+                // 最后一个订阅者刚离开时该实例已被移除，重新取一个
+                if (channels.get(jobId) == channel) {
+                    channel.subscribers.add(subscriber);
+                    break;
+                }
+            }
+        }
+        Channel subscribed = channel;
+        Runnable unsubscribe = () -> unsubscribe(subscribed, subscriber);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+        scheduler.execute(() -> sendCurrent(subscribed, subscriber));
+        return emitter;
+    }
+
+    SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    @Override
+    public void onSnapshot(String jobId, SolutionSnapshot snapshot, boolean finished) {
+        Channel channel = channels.get(jobId);
+        if (channel == null) {
+            return;
+        }
+        synchronized (channel) {
+            channel.pending = snapshot;
+            if (finished) {
+                channel.finished = true;
+                if (channel.flush != null) {
+                    channel.flush.cancel(false);
+                }
+                channel.flush = scheduler.schedule(() -> flush(channel), 0, TimeUnit.NANOSECONDS);
+            } else if (channel.flush == null) {
+                long delay = channel.flushed
+                        ? Math.max(0L, channel.lastFlushNanos + minIntervalNanos - System.nanoTime())
+                        : 0L;
+                channel.flush = scheduler.schedule(() -> flush(channel), delay, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    @Override
+    public void onFailure(String jobId, Throwable error) {
+        Channel channel = channels.get(jobId);
+        if (channel != null) {
+            scheduler.execute(() -> closeAll(channel, EVENT_FAILED, failedEvent(jobId, error)));
+        }
+    }
+
+    /**
+     * 新订阅者的第一个事件：当前最佳解（全部产线），已结束、失败或过期时随后关闭
+     */
+    private void sendCurrent(Channel channel, Subscriber subscriber) {
+        String jobId = channel.jobId;
+        if (jobStore.isExpired(jobId)) {
+            // 订阅与注册之间被淘汰
+            sendAndComplete(channel, subscriber, EVENT_EXPIRED, statusEvent(jobId, "EXPIRED"));
+            return;
+        }
+        Throwable error = jobStore.getError(jobId);
+        if (error != null) {
+            sendAndComplete(channel, subscriber, EVENT_FAILED, failedEvent(jobId, error));
+            return;
+        }
+        SolutionSnapshot snapshot = jobStore.getSnapshot(jobId);
+        boolean finished = jobStore.isFinished(jobId);
+        if (snapshot == null) {
+            return;
+        }
+        SolutionEventDto event = toEvent(jobId, snapshot, subscriber.lastSent, finished);
+        if (finished) {
+            sendAndComplete(channel, subscriber, EVENT_FINISHED, event);
+        } else if (send(subscriber, EVENT_BEST_SOLUTION, event)) {
+            subscriber.lastSent = snapshot;
+        } else {
+            unsubscribe(channel, subscriber);
+        }
+    }
+
+    private void flush(Channel channel) {
+        try {
+            doFlush(channel);
+        } catch (RuntimeException e) {
+            log.warn("Failed to push solution event of job {}", channel.jobId, e);
+        }
+    }
+
+    private void doFlush(Channel channel) {
+        SolutionSnapshot snapshot;
+        boolean finished;
+        List<Subscriber> subscribers;
+        synchronized (channel) {
+            snapshot = channel.pending;
+            finished = channel.finished;
+            channel.pending = null;
+            channel.flush = null;
+            channel.lastFlushNanos = System.nanoTime();
+            channel.flushed = true;
+            subscribers = new ArrayList<>(channel.subscribers);
+        }
+        if (snapshot == null) {
+            return;
+        }
+        String eventName = finished ? EVENT_FINISHED : EVENT_BEST_SOLUTION;
+        for (Subscriber subscriber : subscribers) {
+            if (!finished && subscriber.lastSent == snapshot) {
+                // 刚订阅时已作为当前状态收到
+                continue;
+            }
+            SolutionEventDto event = toEvent(channel.jobId, snapshot, subscriber.lastSent, finished);
+            if (finished) {
+                sendAndComplete(channel, subscriber, eventName, event);
+            } else if (send(subscriber, eventName, event)) {
+                subscriber.lastSent = snapshot;
+            } else {
+                unsubscribe(channel, subscriber);
+            }
+        }
+    }
+
+    private void closeAll(Channel channel, String eventName, SolutionEventDto event) {
+        List<Subscriber> subscribers;
+        synchronized (channel) {
+            subscribers = new ArrayList<>(channel.subscribers);
+        }
+        for (Subscriber subscriber : subscribers) {
+            sendAndComplete(channel, subscriber, eventName, event);
+        }
+    }
+
+    private void sendAndComplete(Channel channel, Subscriber subscriber, String eventName, SolutionEventDto event) {
+        send(subscriber, eventName, event);
+        subscriber.emitter.complete();
+        unsubscribe(channel, subscriber);
+    }
+
+    private boolean send(Subscriber subscriber, String eventName, SolutionEventDto event) {
+        return send(subscriber.emitter, eventName, event);
+    }
+
+    private boolean send(SseEmitter emitter, String eventName, SolutionEventDto event) {
+        try {
+            emitter.send(SseEmitter.event().name(eventName).data(event, MediaType.APPLICATION_JSON));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping solution event subscriber of job {}: {}", event.getJobId(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 移除订阅者；任务的最后一个订阅者离开后移除该任务的推送状态
+     */
+    private void unsubscribe(Channel channel, Subscriber subscriber) {
+        synchronized (channel) {
+            channel.subscribers.remove(subscriber);
+            if (channel.subscribers.isEmpty()) {
+                if (channel.flush != null) {
+                    channel.flush.cancel(false);
+                    channel.flush = null;
+                }
+                channels.remove(channel.jobId, channel);
+            }
+        }
+    }
+
+    static SolutionEventDto toEvent(String jobId, SolutionSnapshot snapshot, SolutionSnapshot previous,
+                                    boolean finished) {
+        SolutionEventDto event = new SolutionEventDto();
+        event.setJobId(jobId);
+        event.setStatus(finished ? "FINISHED" : "SOLVING");
+        event.setVersion(snapshot.getVersion());
+        if (snapshot.getScore() != null) {
+            event.setScore(snapshot.getScore().toString());
+            event.setFeasible(snapshot.getScore().isFeasible());
+        }
+        event.setAssignedCount(snapshot.getAssignedCount());
+        event.setTotalOrders(snapshot.getOrderCount());
+        event.setCapturedAt(snapshot.getCapturedAtMillis());
+        event.setElapsedMillis(snapshot.getCapturedAtMillis() - snapshot.getSubmittedAtMillis());
+        event.setChangedLines(snapshot.changedLines(previous));
+        return event;
+    }
+
+    private static SolutionEventDto failedEvent(String jobId, Throwable error) {
+        SolutionEventDto event = statusEvent(jobId, "FAILED");
+        event.setError(error.getMessage());
+        return event;
+    }
+
+    private static SolutionEventDto statusEvent(String jobId, String status) {
+        SolutionEventDto event = new SolutionEventDto();
+        event.setJobId(jobId);
+        event.setStatus(status);
+        return event;
+    }
+
+    /**
+     * 一个任务的订阅者与待推送的最新解
+     */
+    private static final class Channel {
+
+        private final String jobId;
+        private final List<Subscriber> subscribers = new ArrayList<>();
+        private SolutionSnapshot pending;
+        private boolean finished;
+        private ScheduledFuture<?> flush;
+        private boolean flushed;
+        private long lastFlushNanos;
+
+        private Channel(String jobId) {
+            this.jobId = jobId;
+        }
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        /** 该订阅者最近收到的方案，用于计算有变化的产线；只在调度线程上读写 */
+        private SolutionSnapshot lastSent;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
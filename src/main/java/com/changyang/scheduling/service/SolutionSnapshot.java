@@ -0,0 +1,255 @@
+package com.changyang.scheduling.service;
+
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import ai.timefold.solver.core.api.solver.SolutionManager;
+import ai.timefold.solver.core.api.solver.SolutionUpdatePolicy;
+import com.changyang.scheduling.domain.MotherRollOrder;
+import com.changyang.scheduling.domain.MotherRollSchedule;
+import com.changyang.scheduling.domain.ProductionLine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 求解结果的紧凑快照
+ * <p>
+ * 异步任务每次找到更好的解都会得到一份完整克隆；只保留分数和各产线上订单在问题订单列表中的下标（int[]），
+ * 克隆随即可以回收。需要完整方案时（状态查询的最终结果）由 {@link #materialize} 按下标重建：
+ * 复制问题订单、按顺序放入各产线，再由 SolutionManager 重新计算影子变量和分数。
+ * </p>
+ * <p>
+ * 同一任务的快照共享一个 {@link Template}，其中只引用预处理后的问题并按订单 ID 建立下标，
+ * 组合求解、分区合并得到的解虽然是另外的对象，也按 ID 对应回同一组下标。
+ * </p>
+ * <p>
+ * 同一任务的快照按记录顺序编号（从 1 递增），并记下每条产线最后一次变化时的版本号，
+ * 客户端据此只取某个版本之后有变化的产线。产线上订单的时间只由该产线的订单序列决定，
+ * 序列不变的产线时间也不变。
+ * </p>
+ */
+final class SolutionSnapshot {
+
+    private final Template template;
+    private final int[][] lineOrderIndices;
+    private final long version;
+    /** 各产线订单序列最后一次变化时的快照版本 */
+    private final long[] lineVersions;
+    private final HardMediumSoftScore score;
+    private final long capturedAtMillis;
+
+    private SolutionSnapshot(Template template, int[][] lineOrderIndices, long version, long[] lineVersions,
+                             HardMediumSoftScore score, long capturedAtMillis) {
+        this.template = template;
+        this.lineOrderIndices = lineOrderIndices;
+        this.version = version;
+        this.lineVersions = lineVersions;
+        this.score = score;
+        this.capturedAtMillis = capturedAtMillis;
+    }
+
+    Template getTemplate() {
+        return template;
+    }
+
+    /** 快照版本，同一任务内单调递增 */
+    long getVersion() {
+        return version;
+    }
+
+    HardMediumSoftScore getScore() {
+        return score;
+    }
+
+    /** 快照时间（epoch 毫秒） */
+    long getCapturedAtMillis() {
+        return capturedAtMillis;
+    }
+
+    /** 任务提交时间（epoch 毫秒） */
+    long getSubmittedAtMillis() {
+        return template.submittedAtMillis;
+    }
+
+    /** 已分配到产线的订单数 */
+    int getAssignedCount() {
+        int assigned = 0;
+        for (int[] indices : lineOrderIndices) {
+            assigned += indices.length;
+        }
+        return assigned;
+    }
+
+    int getOrderCount() {
+        return template.problem.getOrders().size();
+    }
+
+    /**
+     * 各产线的订单 ID 序列
+     */
+    Map<String, List<String>> lineSequences() {
+        return changedLines(null);
+    }
+
+    /**
+     * 与 previous 相比订单序列有变化的产线：产线 ID → 订单 ID 序列；previous 为 null 时返回全部产线
+     */
+    Map<String, List<String>> changedLines(SolutionSnapshot previous) {
+        Map<String, List<String>> changed = new LinkedHashMap<>();
+        List<ProductionLine> lines = template.problem.getProductionLines();
+        List<MotherRollOrder> orders = template.problem.getOrders();
+        for (int lineIndex = 0; lineIndex < lineOrderIndices.length; lineIndex++) {
+            int[] indices = lineOrderIndices[lineIndex];
+            if (previous != null && previous.template == template
+                    && Arrays.equals(previous.lineOrderIndices[lineIndex], indices)) {
+                continue;
+            }
+            List<String> orderIds = new ArrayList<>(indices.length);
+            for (int orderIndex : indices) {
+                orderIds.add(orders.get(orderIndex).getId());
+            }
+            changed.put(lines.get(lineIndex).getId(), orderIds);
+        }
+        return changed;
+    }
+
+    /**
+     * 在 sinceVersion 之后订单序列有变化的产线 ID；sinceVersion 不早于本快照时为空
+     */
+    Set<String> linesChangedSince(long sinceVersion) {
+        Set<String> changed = new LinkedHashSet<>();
+        List<ProductionLine> lines = template.problem.getProductionLines();
+        for (int lineIndex = 0; lineIndex < lineVersions.length; lineIndex++) {
+            if (lineVersions[lineIndex] > sinceVersion) {
+                changed.add(lines.get(lineIndex).getId());
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * 快照自身占用的估算字节数（不含共享的问题模板）
+     */
+    long estimatedBytes() {
+        long bytes = 64L;
+        for (int[] indices : lineOrderIndices) {
+            bytes += 24L + 4L * indices.length;
+        }
+        return bytes;
+    }
+
+    /**
+     * 重建完整方案：订单与产线为新对象，影子变量和分数由 SolutionManager 按当前约束配置重新计算
+     */
+    MotherRollSchedule materialize(SolutionManager<MotherRollSchedule, HardMediumSoftScore> solutionManager) {
+        MotherRollSchedule problem = template.problem;
+        List<MotherRollOrder> orders = new ArrayList<>(problem.getOrders().size());
+        for (MotherRollOrder order : problem.getOrders()) {
+            orders.add(order.copyProblem());
+        }
+        List<ProductionLine> lines = new ArrayList<>(problem.getProductionLines().size());
+        for (int lineIndex = 0; lineIndex < problem.getProductionLines().size(); lineIndex++) {
+            ProductionLine line = problem.getProductionLines().get(lineIndex);
+            ProductionLine lineCopy = new ProductionLine(line.getId(), line.getName(), line.getLineCode(),
+                    line.getAvailableFrom());
+            lineCopy.setDailyCapacity(line.getDailyCapacity());
+            lineCopy.setChangeoverMatrix(line.getChangeoverMatrix());
+            lineCopy.setFilterPriorityWindows(line.getFilterPriorityWindows());
+            for (int orderIndex : lineOrderIndices[lineIndex]) {
+                lineCopy.getOrders().add(orders.get(orderIndex));
+            }
+            lines.add(lineCopy);
+        }
+
+        MotherRollSchedule solution = new MotherRollSchedule();
+        solution.setProductionLines(lines);
+        solution.setOrders(orders);
+        solution.setConstraintConfiguration(problem.getConstraintConfiguration());
+        solution.setExceptionTimes(problem.getExceptionTimes());
+        solution.setFilterChangePlans(problem.getFilterChangePlans());
+        solution.setChangeoverEntries(problem.getChangeoverEntries());
+        solution.setFactoryCalendar(problem.getFactoryCalendar());
+        solution.setChangeoverMatrix(problem.getChangeoverMatrix());
+        solutionManager.update(solution, SolutionUpdatePolicy.UPDATE_ALL);
+        return solution;
+    }
+
+    /**
+     * 一个任务的问题模板：订单、产线的下标映射
+     * <p>
+     * 只读取问题属性（订单的产品、时长等，产线的 ID 和可用时间），求解器并发修改影子变量不影响快照和重建。
+     * </p>
+     */
+    static final class Template {
+
+        private final MotherRollSchedule problem;
+        private final Map<String, Integer> orderIndexById;
+        private final Map<String, Integer> lineIndexById;
+        private final long submittedAtMillis;
+        /** 最近记录的快照，下一个快照的版本号和产线版本以它为基准 */
+        private SolutionSnapshot latest;
+
+        Template(MotherRollSchedule problem) {
+            this.problem = problem;
+            this.orderIndexById = new HashMap<>(problem.getOrders().size() * 2);
+            for (int i = 0; i < problem.getOrders().size(); i++) {
+                orderIndexById.put(problem.getOrders().get(i).getId(), i);
+            }
+            this.lineIndexById = new HashMap<>();
+            for (int i = 0; i < problem.getProductionLines().size(); i++) {
+                lineIndexById.put(problem.getProductionLines().get(i).getId(), i);
+            }
+            this.submittedAtMillis = System.currentTimeMillis();
+        }
+
+        /**
+         * 记录解中各产线的订单顺序与分数；组合求解的多个求解线程可能同时回调，按调用顺序编号
+         */
+        synchronized SolutionSnapshot capture(MotherRollSchedule solution) {
+            int[][] lineOrderIndices = new int[problem.getProductionLines().size()][];
+            for (ProductionLine line : solution.getProductionLines()) {
+                Integer lineIndex = lineIndexById.get(line.getId());
+                if (lineIndex == null) {
+                    throw new IllegalStateException("Line " + line.getId() + " is not part of the problem");
+                }
+                int[] indices = new int[line.getOrders().size()];
+                for (int i = 0; i < indices.length; i++) {
+                    String orderId = line.getOrders().get(i).getId();
+                    Integer orderIndex = orderIndexById.get(orderId);
+                    if (orderIndex == null) {
+                        throw new IllegalStateException("Order " + orderId + " is not part of the problem");
+                    }
+                    indices[i] = orderIndex;
+                }
+                lineOrderIndices[lineIndex] = indices;
+            }
+            for (int i = 0; i < lineOrderIndices.length; i++) {
+                if (lineOrderIndices[i] == null) {
+                    lineOrderIndices[i] = new int[0];
+                }
+            }
+            long version = latest == null ? 1L : latest.version + 1L;
+            long[] lineVersions = new long[lineOrderIndices.length];
+            for (int i = 0; i < lineOrderIndices.length; i++) {
+                lineVersions[i] = latest != null && Arrays.equals(latest.lineOrderIndices[i], lineOrderIndices[i])
+                        ? latest.lineVersions[i]
+                        : version;
+            }
+            latest = new SolutionSnapshot(this, lineOrderIndices, version, lineVersions, solution.getScore(),
+                    System.currentTimeMillis());
+            return latest;
+        }
+
+        /**
+         * 问题本身的估算字节数，任务存储中每个任务计一次
+         */
+        long estimatedBytes() {
+            return SolverJobStore.estimateBytes(problem);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.changyang.scheduling.service;
+
+import com.changyang.scheduling.domain.MotherRollSchedule;
+import com.changyang.scheduling.rest.dto.JobStoreStatsDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongSupplier;
+
+/**
+ * 异步任务的结果与错误存储
+ * <p>
+ * 结果以 {@link SolutionSnapshot} 保存，每个任务另外引用一份问题模板；无上限保留仍会持续占用内存。
+ * 这里按三种条件淘汰已结束的任务：结束后超过存活时间、任务数超过上限、估算字节数超过预算；
+ * 超出上限时先淘汰最早结束的任务。仍在求解的任务不会被淘汰，但计入任务数和字节数。
+ * </p>
+ * <p>
+ * 被淘汰的任务 ID 记在有限长度的列表中，查询时可以区分"已过期"和"不存在"。
+ * 字节数为问题模板（按订单、产线个数估算，每个订单约 160 字节，为订单副本的实测值）加快照中的下标数组，
+ * 只用于控制总量。
+ * </p>
+ */
+@Slf4j
+@Component
+public class SolverJobStore {
+
+    /** 估算时每个订单、每条产线及每个方案的固定开销 */
+    static final long ORDER_BYTES = 160L;
+    static final long LINE_BYTES = 128L;
+    static final long SOLUTION_BYTES = 1_024L;
+
+    /** 最多记住的已淘汰任务 ID 数 */
+    private static final int MAX_EXPIRED_IDS = 10_000;
+
+    private final int maxJobs;
+    private final long maxBytes;
+    private final Duration ttl;
+    private final LongSupplier nanoClock;
+
+    /** 按写入顺序排列；任务结束时移到队尾，队首为最早结束的任务 */
+    private final LinkedHashMap<String, JobRecord> jobs = new LinkedHashMap<>();
+    private final LinkedHashMap<String, Boolean> expiredIds = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_EXPIRED_IDS;
+        }
+    };
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private long retainedBytes;
+    private long evictedByTtl;
+    private long evictedByCount;
+    private long evictedByBytes;
+    private long expiredLookups;
+
+    @Autowired
+    public SolverJobStore(@Value("${scheduling.job-store.max-jobs:100}") int maxJobs,
+                          @Value("${scheduling.job-store.max-bytes:256MB}") DataSize maxBytes,
+                          @Value("${scheduling.job-store.ttl:2h}") Duration ttl) {
+        this(maxJobs, maxBytes.toBytes(), ttl, System::nanoTime);
+    }
+
+    SolverJobStore(int maxJobs, long maxBytes, Duration ttl, LongSupplier nanoClock) {
+        if (maxJobs < 1 || maxBytes < 1 || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Job store limits must be positive: maxJobs=" + maxJobs
+                    + ", maxBytes=" + maxBytes + ", ttl=" + ttl);
+        }
+        this.maxJobs = maxJobs;
+        this.maxBytes = maxBytes;
+        this.ttl = ttl;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * 结果写入后的回调，在写入线程上、存储的锁之外调用
+     */
+    interface Listener {
+
+        void onSnapshot(String jobId, SolutionSnapshot snapshot, boolean finished);
+
+        void onFailure(String jobId, Throwable error);
+    }
+
+    void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 登记刚提交、还没有解的任务，使推送订阅等查询能区分"求解中"和"不存在"
+     */
+    synchronized void submit(String jobId) {
+        if (!jobs.containsKey(jobId)) {
+            put(jobId, null, null, false);
+        }
+    }
+
+    /**
+     * 求解中的最佳解
+     */
+    void putBestSolution(String jobId, SolutionSnapshot snapshot) {
+        synchronized (this) {
+            JobRecord record = jobs.get(jobId);
+            if (record != null && record.finished) {
+                // 结束后迟到的中间解不覆盖最终结果
+                return;
+            }
+            if (record != null && record.snapshot != null
+                    && record.snapshot.getTemplate() == snapshot.getTemplate()
+                    && record.snapshot.getVersion() > snapshot.getVersion()) {
+                // 组合求解的多个线程回调可能乱序到达，保持对外的版本号单调递增
+                return;
+            }
+            put(jobId, snapshot, null, false);
+        }
+        listeners.forEach(listener -> listener.onSnapshot(jobId, snapshot, false));
+    }
+
+    /**
+     * 任务正常结束，保存最终解
+     */
+    void complete(String jobId, SolutionSnapshot snapshot) {
+        synchronized (this) {
+            put(jobId, snapshot, null, true);
+        }
+        listeners.forEach(listener -> listener.onSnapshot(jobId, snapshot, true));
+    }
+
+    /**
+     * 任务失败；已有的中间解一并释放
+     */
+    void fail(String jobId, Throwable error) {
+        synchronized (this) {
+            put(jobId, null, error, true);
+        }
+        listeners.forEach(listener -> listener.onFailure(jobId, error));
+    }
+
+    /**
+     * 当前最佳解或最终解的快照，没有或已淘汰时返回 null
+     */
+    synchronized SolutionSnapshot getSnapshot(String jobId) {
+        JobRecord record = lookup(jobId);
+        return record == null ? null : record.snapshot;
+    }
+
+    public synchronized Throwable getError(String jobId) {
+        JobRecord record = lookup(jobId);
+        return record == null ? null : record.error;
+    }
+
+    /**
+     * 任务是否已结束（成功或失败）且结果仍在存储中
+     */
+    synchronized boolean isFinished(String jobId) {
+        JobRecord record = lookup(jobId);
+        return record != null && record.finished;
+    }
+
+    /**
+     * 任务是否仍在存储中：已提交且在求解，或已结束且结果未被淘汰
+     */
+    synchronized boolean contains(String jobId) {
+        return lookup(jobId) != null;
+    }
+
+    /**
+     * 任务的结果是否已因存活时间或容量被淘汰
+     */
+    public synchronized boolean isExpired(String jobId) {
+        evictExpired();
+        if (expiredIds.containsKey(jobId)) {
+            expiredLookups++;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized JobStoreStatsDto getStats() {
+        evictExpired();
+        int running = (int) jobs.values().stream().filter(record -> !record.finished).count();
+        return new JobStoreStatsDto(jobs.size(), running, retainedBytes, maxJobs, maxBytes, ttl.toSeconds(),
+                evictedByTtl, evictedByCount, evictedByBytes, expiredLookups);
+    }
+
+    private JobRecord lookup(String jobId) {
+        evictExpired();
+        return jobs.get(jobId);
+    }
+
+    private void put(String jobId, SolutionSnapshot snapshot, Throwable error, boolean finished) {
+        JobRecord previous = jobs.remove(jobId);
+        if (previous != null) {
+            retainedBytes -= previous.bytes;
+        }
+        JobRecord record = new JobRecord(snapshot, error, finished, estimateBytes(snapshot), nanoClock.getAsLong());
+        jobs.put(jobId, record);
+        retainedBytes += record.bytes;
+        expiredIds.remove(jobId);
+        evictExpired();
+        evictOverCapacity();
+    }
+
+    private void evictExpired() {
+        long now = nanoClock.getAsLong();
+        Iterator<Map.Entry<String, JobRecord>> iterator = jobs.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, JobRecord> entry = iterator.next();
+            JobRecord record = entry.getValue();
+            if (record.finished && now - record.updatedNanos > ttl.toNanos()) {
+                evict(iterator, entry);
+                evictedByTtl++;
+            }
+        }
+    }
+
+    /**
+     * 任务数或字节数超限时从最早结束的任务开始淘汰；剩下的都是求解中的任务时停止
+     */
+    private void evictOverCapacity() {
+        Iterator<Map.Entry<String, JobRecord>> iterator = jobs.entrySet().iterator();
+        while ((jobs.size() > maxJobs || retainedBytes > maxBytes) && iterator.hasNext()) {
+            Map.Entry<String, JobRecord> entry = iterator.next();
+            if (!entry.getValue().finished) {
+                continue;
+            }
+            if (jobs.size() > maxJobs) {
+                evictedByCount++;
+            } else {
+                evictedByBytes++;
+            }
+            evict(iterator, entry);
+        }
+    }
+
+    private void evict(Iterator<Map.Entry<String, JobRecord>> iterator, Map.Entry<String, JobRecord> entry) {
+        iterator.remove();
+        retainedBytes -= entry.getValue().bytes;
+        expiredIds.put(entry.getKey(), Boolean.TRUE);
+        log.debug("Evicted job {} from the job store ({} bytes).", entry.getKey(), entry.getValue().bytes);
+    }
+
+    static long estimateBytes(SolutionSnapshot snapshot) {
+        return snapshot == null ? SOLUTION_BYTES : snapshot.estimatedBytes() + snapshot.getTemplate().estimatedBytes();
+    }
+
+    /**
+     * 一份完整方案（或问题）的估算字节数
+     */
+    static long estimateBytes(MotherRollSchedule solution) {
+        if (solution == null) {
+            return SOLUTION_BYTES;
+        }
+        int orders = solution.getOrders() == null ? 0 : solution.getOrders().size();
+        int lines = solution.getProductionLines() == null ? 0 : solution.getProductionLines().size();
+        return SOLUTION_BYTES + orders * ORDER_BYTES + lines * LINE_BYTES;
+    }
+
+    private static final class JobRecord {
+
+        private final SolutionSnapshot snapshot;
+        private final Throwable error;
+        private final boolean finished;
+        private final long bytes;
+        private final long updatedNanos;
+
+        private JobRecord(SolutionSnapshot snapshot, Throwable error, boolean finished, long bytes,
+                          long updatedNanos) {
+            this.snapshot = snapshot;
+            this.error = error;
+            this.finished = finished;
+            this.bytes = bytes;
+            this.updatedNanos = updatedNanos;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.changyang.scheduling.service;
+
+import org.apache.poi.ooxml.POIXMLTypeLoader;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTWorkbookPr;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.WorkbookDocument;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于 POI 事件模型（XSSFReader + XSSFSheetXMLHandler）的流式工作簿读取
+ * <p>
+ * 逐个工作表做 SAX 解析，每读完一行回调一次 {@link RowHandler}，内存中只保留当前行、共享字符串表和样式表，
+ * 不构建整张表的 DOM。包以只读方式从文件打开，zip 条目按需解压。
+ * </p>
+ * <p>
+ * XSSFSheetXMLHandler 只给出格式化后的文本，这里通过 {@link CapturingFormatter} 在格式化数值时顺带记下原始数值
+ * 和日期，使 {@link SheetRow.CellValue} 与 DOM 读取得到的内容一致。
+ * </p>
+ */
+final class StreamingWorkbookReader {
+
+    /**
+     * 行回调
+     */
+    interface RowHandler {
+
+        /** 是否需要读取该工作表，不需要的工作表整张跳过 */
+        default boolean accepts(int sheetIndex, String sheetName) {
+            return true;
+        }
+
+        void row(int sheetIndex, String sheetName, SheetRow row);
+    }
+
+    private StreamingWorkbookReader() {
+    }
+
+    static void read(Path workbookPath, RowHandler handler) throws Exception {
+        OPCPackage pkg = OPCPackage.open(workbookPath.toFile(), PackageAccess.READ);
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(pkg, false);
+            StylesTable styles = reader.getStylesTable();
+            CapturingFormatter formatter = new CapturingFormatter(isDate1904(reader));
+
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            int sheetIndex = 0;
+            while (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    String sheetName = sheets.getSheetName();
+                    if (handler.accepts(sheetIndex, sheetName)) {
+                        XMLReader xmlReader = XMLHelper.newXMLReader();
+                        xmlReader.setContentHandler(new XSSFSheetXMLHandler(styles, null, sharedStrings,
+                                new RowCollector(sheetIndex, sheetName, formatter, handler), formatter, false));
+                        xmlReader.parse(new InputSource(sheet));
+                    }
+                }
+                sheetIndex++;
+            }
+        } finally {
+            // 只读打开的包用 revert 释放，close 会尝试保存
+            pkg.revert();
+        }
+    }
+
+    private static boolean isDate1904(XSSFReader reader) throws Exception {
+        try (InputStream workbookData = reader.getWorkbookData()) {
+            CTWorkbookPr workbookPr = WorkbookDocument.Factory
+                    .parse(workbookData, POIXMLTypeLoader.DEFAULT_XML_OPTIONS)
+                    .getWorkbook()
+                    .getWorkbookPr();
+            return workbookPr != null && workbookPr.getDate1904();
+        }
+    }
+
+    /**
+     * 把 SAX 回调的单元格拼成行
+     */
+    private static final class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final int sheetIndex;
+        private final String sheetName;
+        private final CapturingFormatter formatter;
+        private final RowHandler handler;
+        private StreamedRow current;
+
+        private RowCollector(int sheetIndex, String sheetName, CapturingFormatter formatter, RowHandler handler) {
+            this.sheetIndex = sheetIndex;
+            this.sheetName = sheetName;
+            this.formatter = formatter;
+            this.handler = handler;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            current = new StreamedRow(rowNum);
+            formatter.reset();
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int col = cellReference == null ? current.cells.size() : new CellReference(cellReference).getCol();
+            current.set(col, new SheetRow.CellValue(formattedValue, formatter.number, formatter.dateTime));
+            formatter.reset();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            handler.row(sheetIndex, sheetName, current);
+            current = null;
+        }
+    }
+
+    private static final class StreamedRow implements SheetRow {
+
+        private final int rowNum;
+        private final List<CellValue> cells = new ArrayList<>();
+
+        private StreamedRow(int rowNum) {
+            this.rowNum = rowNum;
+        }
+
+        private void set(int col, CellValue value) {
+            while (cells.size() <= col) {
+                cells.add(null);
+            }
+            cells.set(col, value == null || value.text() == null || value.text().isEmpty() ? null : value);
+        }
+
+        @Override
+        public int getRowNum() {
+            return rowNum;
+        }
+
+        @Override
+        public CellValue getCell(int col) {
+            return col < cells.size() ? cells.get(col) : null;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            for (CellValue cell : cells) {
+                if (cell != null && !cell.text().trim().isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 格式化数值时记下原始数值与日期；XSSFSheetXMLHandler 对数值与公式数值结果都会调用这里
+     */
+    private static final class CapturingFormatter extends DataFormatter {
+
+        private final boolean date1904;
+        private Double number;
+        private LocalDateTime dateTime;
+
+        private CapturingFormatter(boolean date1904) {
+            this.date1904 = date1904;
+        }
+
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            number = value;
+            dateTime = DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)
+                    ? DateUtil.getLocalDateTime(value, date1904)
+                    : null;
+            return super.formatRawCellContents(value, formatIndex, formatString, date1904);
+        }
+
+        private void reset() {
+            number = null;
+            dateTime = null;
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.changyang.scheduling.service;
+
+import com.changyang.scheduling.domain.ExceptionTime;
+import com.changyang.scheduling.domain.FactoryCalendar;
+import com.changyang.scheduling.domain.FilterChangePlan;
+import com.changyang.scheduling.domain.MotherRollOrder;
+import com.changyang.scheduling.domain.MotherRollSchedule;
+import com.changyang.scheduling.domain.ProductionLine;
+import com.changyang.scheduling.rest.dto.SyntheticWorkloadDto;
+import com.changyang.scheduling.solver.SchedulingConstraintIds;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 合成排程数据生成器（压测用）
+ * <p>
+ * 与 {@link DemoDataGenerator} 不同，订单数、产线数、型号/厚度分布、单线订单比例、
+ * 停机密度、过滤器计划、超长（会被拆分）订单比例均可配置，用于 5k~50k 订单、10 条以上产线的求解压测。
+ * 全部随机量来自同一个以 seed 初始化的 {@link Random}，相同参数生成的数据完全一致。
+ * </p>
+ * <p>
+ * {@link #writeWorkbook} 把生成的数据写成 {@link ExcelDataLoader} 可直接读取的工作簿
+ * （含"产线"工作表），便于走完整的 Excel 导入链路。
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SyntheticWorkloadGenerator {
+
+    static final int MAX_ORDER_COUNT = 200_000;
+    static final int MAX_LINE_COUNT = 100;
+    /** 每次停机 4~12 小时，每周 21 次（每天 3 次）已接近整周停机 */
+    static final double MAX_EXCEPTIONS_PER_LINE_PER_WEEK = 21;
+    static final long DEFAULT_SEED = 42L;
+
+    private static final LocalDateTime DEFAULT_START = LocalDateTime.of(2026, 3, 13, 8, 0);
+    private static final int[] DEFAULT_THICKNESSES = {4, 5, 7, 9, 10, 14, 24, 29, 42, 61};
+    private static final String SINGLE_LINE_PRODUCT = "QDJY";
+
+    private static final String ORDER_SHEET = "订单_合成";
+    private static final String[] ORDER_HEADER = {
+            "订单", "物料", "物料描述", "订单数量(M2)", "确认产量", "已交货", "排产开始", "计划完工", "线别",
+            "配方编码", "厚度(μm)", "型号", "生产时长(小时)", "当前库存(M2)", "月发货量(M2)", "兼容产线"
+    };
+
+    private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("yyyy.MM.dd");
+    private static final DateTimeFormatter DATE_TIME_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final ExcelDataLoader excelDataLoader;
+    private final ChangeoverService changeoverService;
+
+    public MotherRollSchedule generate(SyntheticWorkloadDto spec) {
+        SyntheticWorkloadDto config = spec == null ? new SyntheticWorkloadDto() : spec;
+        long seed = effectiveSeed(config);
+        int orderCount = valueOrDefault(config.getOrderCount(), 1000);
+        int lineCount = valueOrDefault(config.getLineCount(), 2);
+        int lineGroupSize = valueOrDefault(config.getLineGroupSize(), lineCount);
+        int horizonDays = valueOrDefault(config.getHorizonDays(), 30);
+        double singleLineFraction = valueOrDefault(config.getSingleLineFraction(), 0.1);
+        double splitFraction = valueOrDefault(config.getSplitFraction(), 0.3);
+        double exceptionsPerLinePerWeek = valueOrDefault(config.getExceptionsPerLinePerWeek(), 1.0);
+        int filterChangesPerLine = valueOrDefault(config.getFilterChangesPerLine(), 1);
+        LocalDateTime start = config.getStartTime() == null ? DEFAULT_START : config.getStartTime();
+
+        requireRange("orderCount", orderCount, 1, MAX_ORDER_COUNT);
+        requireRange("lineCount", lineCount, 1, MAX_LINE_COUNT);
+        requireRange("lineGroupSize", lineGroupSize, 1, lineCount);
+        requireRange("horizonDays", horizonDays, 1, 3650);
+        requireRange("filterChangesPerLine", filterChangesPerLine, 0, 1000);
+        requireFraction("singleLineFraction", singleLineFraction);
+        requireFraction("splitFraction", splitFraction);
+        requireRange("exceptionsPerLinePerWeek", exceptionsPerLinePerWeek, 0, MAX_EXCEPTIONS_PER_LINE_PER_WEEK);
+        String[] products = productCodes(config.getProductMix());
+        double[] cumulativeWeights = cumulativeWeights(config.getProductMix(), products);
+        int[] thicknesses = thicknesses(config.getThicknesses());
+
+        Random random = new Random(seed);
+
+        List<ProductionLine> lines = new ArrayList<>(lineCount);
+        for (int i = 1; i <= lineCount; i++) {
+            String lineCode = lineCode(i);
+            lines.add(new ProductionLine("L" + i, lineCode, lineCode, start));
+        }
+
+        int groupCount = (lineCount + lineGroupSize - 1) / lineGroupSize;
+        List<MotherRollOrder> orders = new ArrayList<>(orderCount);
+        for (int i = 1; i <= orderCount; i++) {
+            String productCode = products[pick(cumulativeWeights, random)];
+            int thickness = thicknesses[random.nextInt(thicknesses.length)];
+            double hourlyOutput = ExcelDataLoader.HOURLY_OUTPUT.getOrDefault(productCode, 5000.0);
+            // 拆分订单 25~96 小时，其余 2~24 小时
+            double durationHours = random.nextDouble() < splitFraction
+                    ? 25 + random.nextInt(72)
+                    : 2 + random.nextInt(23);
+            double quantity = Math.round(durationHours * hourlyOutput);
+            double monthlyShipment = Math.round(quantity / 3.0 * (0.5 + random.nextDouble()));
+            double currentInventory = Math.round(monthlyShipment * 2.0 * random.nextDouble());
+
+            int group = random.nextInt(groupCount);
+            List<ProductionLine> groupLines = lines.subList(group * lineGroupSize,
+                    Math.min(lineCount, (group + 1) * lineGroupSize));
+            Set<String> compatibleLines;
+            if (SINGLE_LINE_PRODUCT.equals(productCode) || random.nextDouble() < singleLineFraction) {
+                compatibleLines = new HashSet<>(Set.of(
+                        groupLines.get(random.nextInt(groupLines.size())).getLineCode()));
+            } else {
+                compatibleLines = new HashSet<>();
+                for (ProductionLine line : groupLines) {
+                    compatibleLines.add(line.getLineCode());
+                }
+            }
+
+            MotherRollOrder order = new MotherRollOrder();
+            order.setId(String.format("SYN-%06d", i));
+            order.setMaterialCode("SYN-MAT-" + productCode + "-" + thickness);
+            order.setProductCode(productCode);
+            order.setFormulaCode(ExcelDataLoader.FORMULA_MAP.getOrDefault(productCode, "Formula_Unknown"));
+            order.setThickness(thickness);
+            order.setQuantity(quantity);
+            order.setProductionDurationHours(durationHours);
+            order.setCurrentInventory(currentInventory);
+            order.setMonthlyShipment(monthlyShipment);
+            order.setExpectedStartTime(start.toLocalDate().plusDays(random.nextInt(horizonDays)).atStartOfDay());
+            order.setCompatibleLines(compatibleLines);
+            // 四分之一的多线订单带偏好产线
+            if (compatibleLines.size() > 1 && random.nextInt(4) == 0) {
+                order.setPreferredLineCode(groupLines.get(random.nextInt(groupLines.size())).getLineCode());
+            }
+            order.setFilterPriorityRank(SchedulingConstraintIds.mc1PriorityRank(productCode, thickness));
+            orders.add(order);
+        }
+
+        int exceptionsPerLine = (int) Math.round(exceptionsPerLinePerWeek * horizonDays / 7.0);
+        List<ExceptionTime> exceptionTimes = new ArrayList<>();
+        List<FilterChangePlan> filterChangePlans = new ArrayList<>();
+        for (ProductionLine line : lines) {
+            for (int i = 0; i < exceptionsPerLine; i++) {
+                LocalDateTime exceptionStart = start.plusHours(random.nextInt(horizonDays * 24));
+                exceptionTimes.add(new ExceptionTime(line.getId(), exceptionStart,
+                        exceptionStart.plusHours(4 + random.nextInt(9))));
+            }
+            for (int i = 0; i < filterChangesPerLine; i++) {
+                filterChangePlans.add(new FilterChangePlan(line.getId(),
+                        start.plusHours(random.nextInt(horizonDays * 24)), 60 + 30 * random.nextInt(5)));
+            }
+        }
+
+        // 周日停工
+        Set<LocalDate> holidays = new HashSet<>();
+        for (int day = 0; day < horizonDays; day++) {
+            LocalDate date = start.toLocalDate().plusDays(day);
+            if (date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                holidays.add(date);
+            }
+        }
+
+        MotherRollSchedule schedule = new MotherRollSchedule(lines, orders);
+        schedule.setChangeoverEntries(excelDataLoader.buildChangeoverMatrix());
+        schedule.setExceptionTimes(ExceptionTime.coalesce(exceptionTimes));
+        schedule.setFilterChangePlans(filterChangePlans);
+        schedule.setFactoryCalendar(new FactoryCalendar(holidays));
+        changeoverService.attach(schedule);
+
+        log.info("Synthetic workload generated: seed={}, lines={}, orders={}, exceptions={}, filterPlans={}",
+                seed, lines.size(), orders.size(), schedule.getExceptionTimes().size(), filterChangePlans.size());
+        return schedule;
+    }
+
+    /**
+     * 按 {@link ExcelDataLoader} 的导入格式写出工作簿（流式写出，5 万行也不会占用大量内存）
+     */
+    public void writeWorkbook(MotherRollSchedule schedule, OutputStream outputStream) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(200);
+        try {
+            writeOrderSheet(workbook.createSheet(ORDER_SHEET), schedule.getOrders());
+
+            Sheet lineSheet = workbook.createSheet(ExcelDataLoader.LINE_SHEET);
+            writeRow(lineSheet, 0, "lineId", "lineCode", "name");
+            int rowIndex = 1;
+            for (ProductionLine line : schedule.getProductionLines()) {
+                writeRow(lineSheet, rowIndex++, line.getId(), line.getLineCode(), line.getName());
+            }
+
+            Map<String, String> lineCodes = new LinkedHashMap<>();
+            for (ProductionLine line : schedule.getProductionLines()) {
+                lineCodes.put(line.getId(), line.getLineCode());
+            }
+
+            Sheet exceptionSheet = workbook.createSheet(ExcelDataLoader.EXCEPTION_SHEET);
+            writeRow(exceptionSheet, 0, "lineId", "lineCode", "startTime", "endTime");
+            rowIndex = 1;
+            for (ExceptionTime exceptionTime : schedule.getExceptionTimes()) {
+                writeRow(exceptionSheet, rowIndex++, exceptionTime.getLineId(),
+                        lineCodes.get(exceptionTime.getLineId()),
+                        exceptionTime.getStartTime().format(DATE_TIME_FMT),
+                        exceptionTime.getEndTime().format(DATE_TIME_FMT));
+            }
+
+            Sheet filterSheet = workbook.createSheet(ExcelDataLoader.FILTER_CHANGE_SHEET);
+            writeRow(filterSheet, 0, "lineId", "lineCode", "changeTime", "downtimeMinutes");
+            rowIndex = 1;
+            for (FilterChangePlan plan : schedule.getFilterChangePlans()) {
+                Row row = writeRow(filterSheet, rowIndex++, plan.getLineId(), lineCodes.get(plan.getLineId()),
+                        plan.getChangeTime().format(DATE_TIME_FMT));
+                row.createCell(3).setCellValue(plan.getDowntimeMinutes());
+            }
+
+            Sheet calendarSheet = workbook.createSheet(ExcelDataLoader.FACTORY_CALENDAR_SHEET);
+            writeRow(calendarSheet, 0, "date", "isWorkingDay");
+            rowIndex = 1;
+            for (LocalDate holiday : new TreeSet<>(schedule.getFactoryCalendar().getHolidays())) {
+                writeRow(calendarSheet, rowIndex++, holiday.toString(), "N");
+            }
+
+            workbook.write(outputStream);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private void writeOrderSheet(Sheet sheet, List<MotherRollOrder> orders) {
+        writeRow(sheet, 0, ORDER_HEADER);
+        int rowIndex = 1;
+        for (MotherRollOrder order : orders) {
+            Row row = writeRow(sheet, rowIndex,
+                    order.getId(),
+                    order.getMaterialCode(),
+                    "合成膜_T" + order.getThickness() + "_" + order.getProductCode() + "_" + rowIndex);
+            rowIndex++;
+            row.createCell(3).setCellValue(order.getQuantity());
+            row.createCell(6).setCellValue(order.getExpectedStartTime().format(DATE_FMT));
+            if (order.getPreferredLineCode() != null) {
+                row.createCell(8).setCellValue(order.getPreferredLineCode());
+            }
+            row.createCell(9).setCellValue(order.getFormulaCode());
+            row.createCell(10).setCellValue(order.getThickness());
+            row.createCell(11).setCellValue(order.getProductCode());
+            row.createCell(12).setCellValue(order.getProductionDurationHours());
+            row.createCell(13).setCellValue(order.getCurrentInventory());
+            row.createCell(14).setCellValue(order.getMonthlyShipment());
+            row.createCell(15).setCellValue(String.join(";", new TreeSet<>(order.getCompatibleLines())));
+        }
+    }
+
+    private static Row writeRow(Sheet sheet, int rowIndex, String... values) {
+        Row row = sheet.createRow(rowIndex);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                row.createCell(i).setCellValue(values[i]);
+            }
+        }
+        return row;
+    }
+
+    static String lineCode(int lineNumber) {
+        return "双拉" + lineNumber + "线";
+    }
+
+    private static String[] productCodes(Map<String, Double> productMix) {
+        if (productMix == null || productMix.isEmpty()) {
+            return new TreeSet<>(ExcelDataLoader.FORMULA_MAP.keySet()).toArray(new String[0]);
+        }
+        for (String productCode : productMix.keySet()) {
+            if (!ExcelDataLoader.FORMULA_MAP.containsKey(productCode)) {
+                throw new IllegalArgumentException("Unknown product code in productMix: " + productCode);
+            }
+        }
+        return new TreeSet<>(productMix.keySet()).toArray(new String[0]);
+    }
+
+    private static double[] cumulativeWeights(Map<String, Double> productMix, String[] products) {
+        double[] cumulative = new double[products.length];
+        double total = 0;
+        for (int i = 0; i < products.length; i++) {
+            double weight = productMix == null || productMix.isEmpty() ? 1.0 : productMix.get(products[i]);
+            if (!(weight >= 0)) {
+                throw new IllegalArgumentException("productMix weight must not be negative: " + products[i]);
+            }
+            total += weight;
+            cumulative[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("productMix weights must not all be zero");
+        }
+        for (int i = 0; i < cumulative.length; i++) {
+            cumulative[i] /= total;
+        }
+        return cumulative;
+    }
+
+    private static int pick(double[] cumulativeWeights, Random random) {
+        double value = random.nextDouble();
+        for (int i = 0; i < cumulativeWeights.length - 1; i++) {
+            if (value < cumulativeWeights[i]) {
+                return i;
+            }
+        }
+        return cumulativeWeights.length - 1;
+    }
+
+    private static int[] thicknesses(List<Integer> thicknesses) {
+        if (thicknesses == null || thicknesses.isEmpty()) {
+            return DEFAULT_THICKNESSES;
+        }
+        int[] result = new int[thicknesses.size()];
+        for (int i = 0; i < result.length; i++) {
+            Integer thickness = thicknesses.get(i);
+            if (thickness == null || thickness <= 0) {
+                throw new IllegalArgumentException("thicknesses must be positive: " + thickness);
+            }
+            result[i] = thickness;
+        }
+        return result;
+    }
+
+    private static void requireRange(String name, int value, int min, int max) {
+        if (value < min || value > max) {
+            throw new IllegalArgumentException(name + " must be between " + min + " and " + max + ": " + value);
+        }
+    }
+
+    private static void requireRange(String name, double value, double min, double max) {
+        if (!(value >= min && value <= max)) {
+            throw new IllegalArgumentException(name + " must be between " + min + " and " + max + ": " + value);
+        }
+    }
+
+    private static void requireFraction(String name, double value) {
+        if (!(value >= 0 && value <= 1)) {
+            throw new IllegalArgumentException(name + " must be between 0 and 1: " + value);
+        }
+    }
+
+    /**
+     * 实际使用的随机种子：未指定时为默认种子
+     */
+    public static long effectiveSeed(SyntheticWorkloadDto spec) {
+        return spec == null ? DEFAULT_SEED : valueOrDefault(spec.getSeed(), DEFAULT_SEED);
+    }
+
+    private static <T> T valueOrDefault(T value, T defaultValue) {
+        return value == null ? defaultValue : value;
+    }
+}
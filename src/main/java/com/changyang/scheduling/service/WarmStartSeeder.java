@@ -0,0 +1,75 @@
+package com.changyang.scheduling.service;
+
+import com.changyang.scheduling.domain.MotherRollOrder;
+import com.changyang.scheduling.domain.MotherRollSchedule;
+import com.changyang.scheduling.domain.ProductionLine;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 热启动重排：把上一次排程的订单序列放到新问题的产线上
+ * <p>
+ * 订单按 {@code @PlanningId}（订单 ID）对应，产线按产线 ID 对应。新问题中仍存在、且仍兼容原产线的订单
+ * 按原顺序放回，已不存在的订单和未知产线跳过；同一订单出现在多条产线上时只保留第一次。
+ * 其余订单保持未分配，由初始化阶段（{@code ThicknessWaveInitPhase}）均衡追加，已分配的订单不受影响。
+ * </p>
+ * <p>
+ * 只修改规划列表，不设置影子变量；求解器启动时按列表重新计算。
+ * </p>
+ */
+final class WarmStartSeeder {
+
+    private WarmStartSeeder() {
+    }
+
+    /**
+     * 放回的结果统计
+     *
+     * @param keptOrders         按原位置放回的订单数
+     * @param droppedOrders      序列中已不在新问题里的订单数
+     * @param incompatibleOrders 仍存在但不再兼容原产线、改为重新分配的订单数
+     * @param newOrders          留给初始化阶段分配的订单数（新增订单加上不兼容的订单）
+     */
+    record Result(int keptOrders, int droppedOrders, int incompatibleOrders, int newOrders) {
+    }
+
+    static Result seed(MotherRollSchedule problem, Map<String, List<String>> lineSequences) {
+        if (problem.getOrders() == null || problem.getProductionLines() == null) {
+            return new Result(0, 0, 0, 0);
+        }
+        for (ProductionLine line : problem.getProductionLines()) {
+            if (!line.getOrders().isEmpty()) {
+                throw new IllegalStateException("Line " + line.getId() + " already has orders, cannot warm start");
+            }
+        }
+        Map<String, MotherRollOrder> orderById = new HashMap<>(problem.getOrders().size() * 2);
+        for (MotherRollOrder order : problem.getOrders()) {
+            orderById.put(order.getId(), order);
+        }
+
+        Set<String> placed = new HashSet<>();
+        int dropped = 0;
+        int incompatible = 0;
+        for (ProductionLine line : problem.getProductionLines()) {
+            List<String> sequence = lineSequences.get(line.getId());
+            if (sequence == null) {
+                continue;
+            }
+            for (String orderId : sequence) {
+                MotherRollOrder order = orderById.get(orderId);
+                if (order == null) {
+                    dropped++;
+                } else if (!order.isCompatibleWith(line)) {
+                    incompatible++;
+                } else if (placed.add(orderId)) {
+                    line.getOrders().add(order);
+                }
+            }
+        }
+        return new Result(placed.size(), dropped, incompatible, problem.getOrders().size() - placed.size());
+    }
+}
@@ -0,0 +1,35 @@
+package com.changyang.scheduling.solver;
+
+import ai.timefold.solver.core.impl.heuristic.selector.common.nearby.NearbyDistanceMeter;
+import com.changyang.scheduling.domain.ChangeoverMatrix;
+import com.changyang.scheduling.domain.MotherRollOrder;
+
+/**
+ * 基于换型矩阵的订单"邻近"距离
+ * <p>
+ * 距离 = 两单相邻时双向的换型分钟数之和（矩阵已对配方_型号、厚度两个维度取最大值），
+ * 再加上厚度差的一个小比例作为同分时的次序：换型相同的候选里，厚度越接近越优先。
+ * 同产品距离为 0，EST↔DJ 这类 180 分钟的换型距离最远。
+ * </p>
+ */
+public class ChangeoverNearbyDistanceMeter implements NearbyDistanceMeter<MotherRollOrder, MotherRollOrder> {
+
+    /** 厚度差的权重，远小于 1 分钟换型，只用于打破平局 */
+    private static final double THICKNESS_TIE_BREAK = 1e-3;
+
+    private final ChangeoverMatrix changeoverMatrix;
+
+    public ChangeoverNearbyDistanceMeter(ChangeoverMatrix changeoverMatrix) {
+        this.changeoverMatrix = changeoverMatrix;
+    }
+
+    @Override
+    public double getNearbyDistance(MotherRollOrder origin, MotherRollOrder destination) {
+        int changeover = 0;
+        if (changeoverMatrix != null) {
+            changeover = changeoverMatrix.calcChangeover(destination, origin)
+                    + changeoverMatrix.calcChangeover(origin, destination);
+        }
+        return changeover + THICKNESS_TIE_BREAK * Math.abs(origin.getThickness() - destination.getThickness());
+    }
+}
@@ -0,0 +1,258 @@
+package com.changyang.scheduling.solver;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.impl.heuristic.move.AbstractMove;
+import ai.timefold.solver.core.impl.heuristic.selector.move.factory.MoveIteratorFactory;
+import com.changyang.scheduling.domain.MotherRollOrder;
+import com.changyang.scheduling.domain.MotherRollSchedule;
+import com.changyang.scheduling.domain.ProductionLine;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * 换型感知的邻近列表移动（Local Search 用）
+ * <p>
+ * 社区版 Timefold 不支持 nearbySelection，这里用自定义 MoveIteratorFactory 实现同样的效果：
+ * 随机选一个订单，再从按 {@link ChangeoverNearbyDistanceMeter} 排好序的前 nearbySize 个邻居中随机选一个，
+ * 生成 {@link OrderChangeMove}（插到邻居前/后）或 {@link OrderSwapMove}（与邻居前/后一位的订单互换），
+ * 让订单尽量落在换型代价小的同类订单旁边，而不是大量尝试 180 分钟换型的位置。
+ * </p>
+ * <p>
+ * 邻居表在每个阶段开始时按"配方_型号_厚度"分组构建：同组订单距离相同，只需计算组与组之间的距离。
+ * 不兼容目标产线（HC1）和执行后不变的移动直接跳过，不会生成空操作移动。
+ * 顺序选择时按订单逐个展开全部邻居候选。
+ * </p>
+ */
+public class ChangeoverNearbyMoveIteratorFactory
+        implements MoveIteratorFactory<MotherRollSchedule, AbstractMove<MotherRollSchedule>> {
+
+    private static final int DEFAULT_NEARBY_SIZE = 20;
+    /** 随机选择时连续抽取候选的最大尝试次数 */
+    private static final int MAX_ATTEMPTS = 10;
+
+    /** 每个订单的候选邻居数，可通过 moveIteratorFactoryCustomProperties 配置 */
+    private int nearbySize = DEFAULT_NEARBY_SIZE;
+
+    private List<MotherRollOrder> orders;
+    /** 订单 → 按距离升序的邻居（同组订单共用一个数组，可能包含自身） */
+    private Map<MotherRollOrder, MotherRollOrder[]> nearbyOrders;
+
+    public void setNearbySize(int nearbySize) {
+        if (nearbySize <= 0) {
+            throw new IllegalArgumentException("nearbySize must be positive: " + nearbySize);
+        }
+        this.nearbySize = nearbySize;
+    }
+
+    @Override
+    public void phaseStarted(ScoreDirector<MotherRollSchedule> scoreDirector) {
+        buildNearbyOrders(scoreDirector.getWorkingSolution());
+    }
+
+    @Override
+    public void phaseEnded(ScoreDirector<MotherRollSchedule> scoreDirector) {
+        orders = null;
+        nearbyOrders = null;
+    }
+
+    @Override
+    public long getSize(ScoreDirector<MotherRollSchedule> scoreDirector) {
+        List<MotherRollOrder> allOrders = scoreDirector.getWorkingSolution().getOrders();
+        return allOrders == null ? 0 : (long) allOrders.size() * nearbySize;
+    }
+
+    @Override
+    public Iterator<AbstractMove<MotherRollSchedule>> createOriginalMoveIterator(
+            ScoreDirector<MotherRollSchedule> scoreDirector) {
+        if (nearbyOrders == null) {
+            buildNearbyOrders(scoreDirector.getWorkingSolution());
+        }
+        // 按订单顺序逐个展开：每个 (订单, 邻居) 对依次尝试插到前/后、与前/后一位互换
+        return new Iterator<>() {
+            private int originIndex;
+            private int neighborIndex;
+            private int variant;
+            private AbstractMove<MotherRollSchedule> upcoming = advance();
+
+            @Override
+            public boolean hasNext() {
+                return upcoming != null;
+            }
+
+            @Override
+            public AbstractMove<MotherRollSchedule> next() {
+                if (upcoming == null) {
+                    throw new NoSuchElementException();
+                }
+                AbstractMove<MotherRollSchedule> move = upcoming;
+                upcoming = advance();
+                return move;
+            }
+
+            private AbstractMove<MotherRollSchedule> advance() {
+                while (originIndex < orders.size()) {
+                    MotherRollOrder origin = orders.get(originIndex);
+                    MotherRollOrder[] candidates = nearbyOrders.get(origin);
+                    while (neighborIndex < candidates.length) {
+                        MotherRollOrder neighbor = candidates[neighborIndex];
+                        while (variant < 4) {
+                            int current = variant++;
+                            AbstractMove<MotherRollSchedule> move =
+                                    nearbyMove(origin, neighbor, (current & 1) != 0, (current & 2) != 0);
+                            if (move != null) {
+                                return move;
+                            }
+                        }
+                        neighborIndex++;
+                        variant = 0;
+                    }
+                    originIndex++;
+                    neighborIndex = 0;
+                }
+                return null;
+            }
+        };
+    }
+
+    @Override
+    public Iterator<AbstractMove<MotherRollSchedule>> createRandomMoveIterator(
+            ScoreDirector<MotherRollSchedule> scoreDirector, Random workingRandom) {
+        if (nearbyOrders == null) {
+            buildNearbyOrders(scoreDirector.getWorkingSolution());
+        }
+        // 连续 MAX_ATTEMPTS 次抽不到可执行的候选时结束，不返回空操作移动
+        return new Iterator<>() {
+            private AbstractMove<MotherRollSchedule> upcoming;
+
+            @Override
+            public boolean hasNext() {
+                if (upcoming == null) {
+                    upcoming = randomMove(workingRandom);
+                }
+                return upcoming != null;
+            }
+
+            @Override
+            public AbstractMove<MotherRollSchedule> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                AbstractMove<MotherRollSchedule> move = upcoming;
+                upcoming = null;
+                return move;
+            }
+        };
+    }
+
+    private AbstractMove<MotherRollSchedule> randomMove(Random random) {
+        if (orders.isEmpty()) {
+            return null;
+        }
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            MotherRollOrder origin = orders.get(random.nextInt(orders.size()));
+            MotherRollOrder[] candidates = nearbyOrders.get(origin);
+            MotherRollOrder neighbor = candidates[random.nextInt(candidates.length)];
+            AbstractMove<MotherRollSchedule> move =
+                    nearbyMove(origin, neighbor, random.nextBoolean(), random.nextBoolean());
+            if (move != null) {
+                return move;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 让 origin 落到 neighbor 旁边的移动；不可用（未分配、不兼容、或执行后不变）时返回 null
+     *
+     * @param after 落在邻居之后（否则之前）
+     * @param swap  与邻居前/后一位的订单互换（否则直接插入）
+     */
+    private static AbstractMove<MotherRollSchedule> nearbyMove(MotherRollOrder origin, MotherRollOrder neighbor,
+                                                               boolean after, boolean swap) {
+        ProductionLine originLine = origin.getAssignedLine();
+        ProductionLine line = neighbor.getAssignedLine();
+        if (neighbor == origin || originLine == null || line == null
+                || origin.getSequenceIndex() == null || neighbor.getSequenceIndex() == null
+                || !origin.isCompatibleWith(line)) {
+            return null;
+        }
+
+        int originIndex = origin.getSequenceIndex();
+        int neighborIndex = neighbor.getSequenceIndex();
+        if (!swap) {
+            // 插到邻居前/后；同产线且原位置在前时，移除后邻居下标左移一位
+            int destinationIndex = after ? neighborIndex + 1 : neighborIndex;
+            if (line == originLine && originIndex < neighborIndex) {
+                destinationIndex--;
+            }
+            if (line == originLine && destinationIndex == originIndex) {
+                return null;
+            }
+            return new OrderChangeMove(originLine, originIndex, line, destinationIndex);
+        }
+
+        // 与邻居前/后一位的订单互换，使 origin 落到邻居旁边
+        int partnerIndex = after ? neighborIndex + 1 : neighborIndex - 1;
+        if (partnerIndex < 0 || partnerIndex >= line.getOrders().size()) {
+            return null;
+        }
+        MotherRollOrder partner = line.getOrders().get(partnerIndex);
+        if (partner == origin || !partner.isCompatibleWith(originLine)) {
+            return null;
+        }
+        return new OrderSwapMove(originLine, originIndex, line, partnerIndex);
+    }
+
+    /**
+     * 按"配方_型号_厚度"分组，组间按距离排序后展开为每组的前 nearbySize + 1 个订单
+     * （多留一个位置，抵消候选中包含订单自身的情况）
+     */
+    private void buildNearbyOrders(MotherRollSchedule schedule) {
+        orders = schedule.getOrders() == null ? List.of() : schedule.getOrders();
+        ChangeoverNearbyDistanceMeter distanceMeter =
+                new ChangeoverNearbyDistanceMeter(schedule.getChangeoverMatrix());
+
+        Map<String, List<MotherRollOrder>> groups = new LinkedHashMap<>();
+        for (MotherRollOrder order : orders) {
+            groups.computeIfAbsent(groupKey(order), key -> new ArrayList<>()).add(order);
+        }
+        List<List<MotherRollOrder>> groupList = new ArrayList<>(groups.values());
+
+        nearbyOrders = new IdentityHashMap<>(orders.size());
+        for (List<MotherRollOrder> group : groupList) {
+            MotherRollOrder origin = group.get(0);
+            List<List<MotherRollOrder>> sortedGroups = new ArrayList<>(groupList);
+            sortedGroups.sort(Comparator.comparingDouble(
+                    other -> distanceMeter.getNearbyDistance(origin, other.get(0))));
+
+            List<MotherRollOrder> nearest = new ArrayList<>(nearbySize + 1);
+            for (List<MotherRollOrder> other : sortedGroups) {
+                for (MotherRollOrder order : other) {
+                    if (nearest.size() > nearbySize) {
+                        break;
+                    }
+                    nearest.add(order);
+                }
+                if (nearest.size() > nearbySize) {
+                    break;
+                }
+            }
+            MotherRollOrder[] nearestArray = nearest.toArray(new MotherRollOrder[0]);
+            for (MotherRollOrder order : group) {
+                nearbyOrders.put(order, nearestArray);
+            }
+        }
+    }
+
+    private static String groupKey(MotherRollOrder order) {
+        return order.getFormulaCode() + "_" + order.getProductCode() + "_" + order.getThickness();
+    }
+}
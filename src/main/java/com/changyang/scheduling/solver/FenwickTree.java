@@ -0,0 +1,72 @@
+package com.changyang.scheduling.solver;
+
+/**
+ * 按位置下标计数的树状数组（Fenwick Tree）
+ * <p>
+ * 供约束收集器做"某位置之前/之后有多少个元素"的 O(log n) 查询；
+ * 下标超出当前容量时自动扩容，无需预先知道产线上的订单数。
+ * </p>
+ */
+final class FenwickTree {
+
+    private long[] tree;
+    private long total;
+
+    FenwickTree() {
+        this(64);
+    }
+
+    FenwickTree(int capacity) {
+        this.tree = new long[Math.max(capacity, 1) + 1];
+    }
+
+    /** 在位置 index（0-based）上累加 delta */
+    void add(int index, long delta) {
+        ensureCapacity(index + 1);
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+        total += delta;
+    }
+
+    /** 位置严格小于 index 的累加和 */
+    long sumBefore(int index) {
+        long sum = 0;
+        for (int i = Math.min(index, tree.length - 1); i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /** 位置严格大于 index 的累加和 */
+    long sumAfter(int index) {
+        return total - sumBefore(index + 1);
+    }
+
+    long total() {
+        return total;
+    }
+
+    private void ensureCapacity(int size) {
+        if (size < tree.length) {
+            return;
+        }
+        int newLength = tree.length;
+        while (newLength <= size) {
+            newLength <<= 1;
+        }
+        // 按原始值重建：先还原各位置的值，再在新容量上累加
+        long[] values = new long[tree.length];
+        for (int i = 1; i < tree.length; i++) {
+            values[i] = sumBefore(i) - sumBefore(i - 1);
+        }
+        tree = new long[newLength];
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] != 0) {
+                for (int j = i; j < tree.length; j += j & -j) {
+                    tree[j] += values[i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.changyang.scheduling.solver;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.impl.partitionedsearch.partitioner.SolutionPartitioner;
+import com.changyang.scheduling.domain.MotherRollOrder;
+import com.changyang.scheduling.domain.MotherRollSchedule;
+import com.changyang.scheduling.domain.ProductionLine;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 按产线兼容关系把排程问题拆成互不相关的子问题（分区求解）
+ * <p>
+ * 拆分分两级：
+ * </p>
+ * <ol>
+ *     <li>兼容簇：订单的兼容产线把产线连成连通分量，不同分量之间没有可共享的订单，拆开后互不影响。</li>
+ *     <li>按产线：分区数仍少于上限时，把多产线的簇（工时大的先拆）再按产线拆开。
+ *     只兼容一条产线的订单（如 QDJY）直接归入该产线；其余订单按"配方 + 兼容产线"成块，
+ *     大块优先放到累计工时最少的兼容产线，同配方尽量落在同一产线以减少换型；
+ *     超过单线平均工时的块按订单逐个均衡分配。跨产线的调整留给分区之后的全局合并阶段。</li>
+ * </ol>
+ * <p>
+ * 每个分区是独立的 {@link MotherRollSchedule}：产线与订单是问题属性的副本（按 @PlanningId 与原问题对应），
+ * 停机与过滤器计划按产线过滤，换型矩阵、工厂日历、约束配置等只读事实共享引用。
+ * 已分配或已锁定的订单随所在产线进入同一分区，保持原有顺序。
+ * </p>
+ * <p>
+ * 可直接作为 Timefold Enterprise {@code <partitionedSearch>} 的 solutionPartitionerClass 使用
+ * （custom property {@code partCount} 限制分区数）；社区版下由 SchedulingService 的 PARTITIONED 求解模式
+ * 调用 {@link #split} / {@link #merge} 自行并行求解各分区。
+ * </p>
+ */
+@Getter
+@Setter
+public class LineCompatibilityPartitioner implements SolutionPartitioner<MotherRollSchedule> {
+
+    /** 分区数上限，为空时取求解器给出的可运行线程数 */
+    private Integer partCount;
+
+    @Override
+    public List<MotherRollSchedule> splitWorkingSolution(ScoreDirector<MotherRollSchedule> scoreDirector,
+                                                         Integer runnablePartThreadLimit) {
+        int limit = partCount != null ? partCount
+                : runnablePartThreadLimit != null ? runnablePartThreadLimit
+                : Runtime.getRuntime().availableProcessors();
+        return split(scoreDirector.getWorkingSolution(), limit);
+    }
+
+    /**
+     * 把问题拆成最多 maxParts 个分区；只有一个兼容簇且不允许按产线拆时返回单个分区（整体副本）
+     */
+    public static List<MotherRollSchedule> split(MotherRollSchedule schedule, int maxParts) {
+        List<ProductionLine> lines = schedule.getProductionLines();
+        List<MotherRollOrder> orders = schedule.getOrders() == null ? List.of() : schedule.getOrders();
+        if (lines == null || lines.isEmpty()) {
+            return List.of(copy(schedule, List.of(), orders, Map.of()));
+        }
+
+        // 1. 兼容簇：按兼容产线做并查集
+        int[] parent = new int[lines.size()];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        Map<MotherRollOrder, List<Integer>> compatibleIndexes = new IdentityHashMap<>();
+        for (MotherRollOrder order : orders) {
+            List<Integer> indexes = new ArrayList<>();
+            for (int i = 0; i < lines.size(); i++) {
+                if (order.isCompatibleWith(lines.get(i))) {
+                    indexes.add(i);
+                }
+            }
+            compatibleIndexes.put(order, indexes);
+            for (int i = 1; i < indexes.size(); i++) {
+                union(parent, indexes.get(0), indexes.get(i));
+            }
+        }
+
+        Map<Integer, Cluster> clustersByRoot = new LinkedHashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            clustersByRoot.computeIfAbsent(find(parent, i), root -> new Cluster()).lines.add(lines.get(i));
+        }
+        Map<MotherRollOrder, ProductionLine> fixedLine = new IdentityHashMap<>();
+        for (ProductionLine line : lines) {
+            for (MotherRollOrder assigned : line.getOrders()) {
+                fixedLine.put(assigned, line);
+            }
+        }
+        Cluster firstCluster = clustersByRoot.values().iterator().next();
+        for (MotherRollOrder order : orders) {
+            ProductionLine assignedLine = fixedLine.get(order);
+            List<Integer> indexes = compatibleIndexes.get(order);
+            Cluster cluster;
+            if (assignedLine != null) {
+                cluster = clustersByRoot.get(find(parent, lines.indexOf(assignedLine)));
+            } else if (!indexes.isEmpty()) {
+                cluster = clustersByRoot.get(find(parent, indexes.get(0)));
+            } else {
+                // 没有兼容产线的订单无法排程，放在第一个分区里保持原样
+                cluster = firstCluster;
+            }
+            cluster.orders.add(order);
+            cluster.hours += order.getProductionDurationHours();
+        }
+
+        // 2. 分区数不足时把工时大的多产线簇按产线拆开
+        List<Cluster> clusters = new ArrayList<>(clustersByRoot.values());
+        List<Cluster> bySize = new ArrayList<>(clusters);
+        bySize.sort(Comparator.comparingDouble((Cluster cluster) -> cluster.hours).reversed());
+        int parts = clusters.size();
+        for (Cluster cluster : bySize) {
+            int extraParts = cluster.lines.size() - 1;
+            if (extraParts > 0 && parts + extraParts <= maxParts) {
+                cluster.perLine = true;
+                parts += extraParts;
+            }
+        }
+
+        List<MotherRollSchedule> result = new ArrayList<>(parts);
+        for (Cluster cluster : clusters) {
+            if (!cluster.perLine) {
+                result.add(copy(schedule, cluster.lines, cluster.orders, Map.of()));
+                continue;
+            }
+            Map<ProductionLine, List<MotherRollOrder>> byLine = assignByFamily(cluster, fixedLine, compatibleIndexes,
+                    lines);
+            for (Map.Entry<ProductionLine, List<MotherRollOrder>> entry : byLine.entrySet()) {
+                result.add(copy(schedule, List.of(entry.getKey()), entry.getValue(), Map.of()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 把各分区的解合并回原问题的一个副本：每条产线的订单序列取自其所在分区，按 ID 对应到副本中的订单
+     */
+    public static MotherRollSchedule merge(MotherRollSchedule problem, List<MotherRollSchedule> partSolutions) {
+        Map<String, List<String>> sequenceByLineId = new HashMap<>();
+        for (MotherRollSchedule part : partSolutions) {
+            for (ProductionLine line : part.getProductionLines()) {
+                sequenceByLineId.put(line.getId(), line.getOrders().stream().map(MotherRollOrder::getId).toList());
+            }
+        }
+        List<MotherRollOrder> orders = problem.getOrders() == null ? List.of() : problem.getOrders();
+        return copy(problem, problem.getProductionLines(), orders, sequenceByLineId);
+    }
+
+    /**
+     * 按块把簇内未固定的订单分到各产线；已分配的订单留在原产线
+     */
+    private static Map<ProductionLine, List<MotherRollOrder>> assignByFamily(
+            Cluster cluster, Map<MotherRollOrder, ProductionLine> fixedLine,
+            Map<MotherRollOrder, List<Integer>> compatibleIndexes, List<ProductionLine> allLines) {
+        Map<ProductionLine, List<MotherRollOrder>> byLine = new LinkedHashMap<>();
+        Map<ProductionLine, Double> loadHours = new IdentityHashMap<>();
+        long earliestAvailable = Long.MAX_VALUE;
+        for (ProductionLine line : cluster.lines) {
+            if (line.getAvailableFromMinute() != MotherRollOrder.UNSCHEDULED) {
+                earliestAvailable = Math.min(earliestAvailable, line.getAvailableFromMinute());
+            }
+        }
+        for (ProductionLine line : cluster.lines) {
+            byLine.put(line, new ArrayList<>());
+            long availableFrom = line.getAvailableFromMinute();
+            loadHours.put(line, availableFrom == MotherRollOrder.UNSCHEDULED
+                    ? 0 : (availableFrom - earliestAvailable) / 60.0);
+        }
+
+        Map<String, List<MotherRollOrder>> blocks = new LinkedHashMap<>();
+        for (MotherRollOrder order : cluster.orders) {
+            ProductionLine line = fixedLine.get(order);
+            List<Integer> indexes = compatibleIndexes.get(order);
+            if (line == null && indexes.size() <= 1) {
+                line = indexes.isEmpty() ? cluster.lines.get(0) : allLines.get(indexes.get(0));
+            }
+            if (line != null) {
+                byLine.get(line).add(order);
+                loadHours.merge(line, order.getProductionDurationHours(), Double::sum);
+            } else {
+                blocks.computeIfAbsent(order.getFormulaCode() + "|" + indexes, key -> new ArrayList<>()).add(order);
+            }
+        }
+
+        double targetHours = cluster.hours / cluster.lines.size();
+        List<List<MotherRollOrder>> sortedBlocks = new ArrayList<>(blocks.values());
+        sortedBlocks.sort(Comparator.comparingDouble(LineCompatibilityPartitioner::hours).reversed());
+        for (List<MotherRollOrder> block : sortedBlocks) {
+            List<ProductionLine> compatible = compatibleIndexes.get(block.get(0)).stream()
+                    .map(allLines::get)
+                    .toList();
+            if (hours(block) <= targetHours) {
+                ProductionLine selected = leastLoaded(compatible, loadHours);
+                byLine.get(selected).addAll(block);
+                loadHours.merge(selected, hours(block), Double::sum);
+                continue;
+            }
+            List<MotherRollOrder> longestFirst = new ArrayList<>(block);
+            longestFirst.sort(Comparator.comparingDouble(MotherRollOrder::getProductionDurationHours).reversed());
+            for (MotherRollOrder order : longestFirst) {
+                ProductionLine selected = leastLoaded(compatible, loadHours);
+                byLine.get(selected).add(order);
+                loadHours.merge(selected, order.getProductionDurationHours(), Double::sum);
+            }
+        }
+        return byLine;
+    }
+
+    private static ProductionLine leastLoaded(List<ProductionLine> lines, Map<ProductionLine, Double> loadHours) {
+        ProductionLine selected = null;
+        for (ProductionLine line : lines) {
+            if (selected == null || loadHours.get(line) < loadHours.get(selected)) {
+                selected = line;
+            }
+        }
+        return selected;
+    }
+
+    private static double hours(List<MotherRollOrder> orders) {
+        double hours = 0;
+        for (MotherRollOrder order : orders) {
+            hours += order.getProductionDurationHours();
+        }
+        return hours;
+    }
+
+    /**
+     * 构造只含给定产线和订单的问题副本
+     * <p>
+     * sequenceByLineId 为空时各产线沿用原问题中已分配订单的顺序，否则按其中的订单 ID 序列重建。
+     * </p>
+     */
+    private static MotherRollSchedule copy(MotherRollSchedule schedule, List<ProductionLine> lines,
+                                           List<MotherRollOrder> orders, Map<String, List<String>> sequenceByLineId) {
+        Map<String, MotherRollOrder> orderCopies = new LinkedHashMap<>();
+        for (MotherRollOrder order : orders) {
+            orderCopies.put(order.getId(), order.copyProblem());
+        }
+
+        List<ProductionLine> lineCopies = new ArrayList<>(lines.size());
+        for (ProductionLine line : lines) {
+            ProductionLine lineCopy = new ProductionLine(line.getId(), line.getName(), line.getLineCode(),
+                    line.getAvailableFrom());
+            lineCopy.setDailyCapacity(line.getDailyCapacity());
+            lineCopy.setChangeoverMatrix(line.getChangeoverMatrix());
+            lineCopy.setFilterPriorityWindows(line.getFilterPriorityWindows());
+            List<String> sequence = sequenceByLineId.containsKey(line.getId())
+                    ? sequenceByLineId.get(line.getId())
+                    : line.getOrders().stream().map(MotherRollOrder::getId).toList();
+            for (String orderId : sequence) {
+                lineCopy.getOrders().add(Objects.requireNonNull(orderCopies.get(orderId),
+                        () -> "Order " + orderId + " on line " + line.getId() + " is not part of the partition"));
+            }
+            lineCopies.add(lineCopy);
+        }
+
+        Set<String> lineIds = lines.stream().map(ProductionLine::getId).collect(Collectors.toSet());
+        MotherRollSchedule copy = new MotherRollSchedule();
+        copy.setProductionLines(lineCopies);
+        copy.setOrders(new ArrayList<>(orderCopies.values()));
+        copy.setConstraintConfiguration(schedule.getConstraintConfiguration());
+        copy.setExceptionTimes(schedule.getExceptionTimes() == null ? null : schedule.getExceptionTimes().stream()
+                .filter(exception -> lineIds.contains(exception.getLineId()))
+                .toList());
+        copy.setFilterChangePlans(schedule.getFilterChangePlans() == null ? null : schedule.getFilterChangePlans()
+                .stream()
+                .filter(plan -> lineIds.contains(plan.getLineId()))
+                .toList());
+        copy.setChangeoverEntries(schedule.getChangeoverEntries());
+        copy.setFactoryCalendar(schedule.getFactoryCalendar());
+        copy.setChangeoverMatrix(schedule.getChangeoverMatrix());
+        return copy;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA != rootB) {
+            parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+
+    private static final class Cluster {
+
+        private final List<ProductionLine> lines = new ArrayList<>();
+        private final List<MotherRollOrder> orders = new ArrayList<>();
+        private double hours;
+        /** 是否按产线拆成多个分区 */
+        private boolean perLine;
+    }
+}
@@ -6,13 +6,11 @@ import ai.timefold.solver.core.api.score.stream.ConstraintCollectors;
 import ai.timefold.solver.core.api.score.stream.ConstraintFactory;
 import ai.timefold.solver.core.api.score.stream.ConstraintProvider;
 import ai.timefold.solver.core.api.score.stream.Joiners;
+import ai.timefold.solver.core.api.score.stream.uni.UniConstraintStream;
 import com.changyang.scheduling.domain.ExceptionTime;
-import com.changyang.scheduling.domain.FilterChangePlan;
+import com.changyang.scheduling.domain.FilterPriorityWindows;
 import com.changyang.scheduling.domain.MotherRollOrder;
 
-import java.time.temporal.ChronoUnit;
-import java.util.Map;
-
 /**
  * 母卷排程约束提供者
  * <p>
@@ -21,6 +19,8 @@ import java.util.Map;
  */
 public class MotherRollConstraintProvider implements ConstraintProvider {
 
+    private static final long MINUTES_PER_HOUR = 60;
+
     @Override
     public Constraint[] defineConstraints(ConstraintFactory factory) {
         return new Constraint[]{
@@ -59,30 +59,20 @@ public class MotherRollConstraintProvider implements ConstraintProvider {
      *
      * 修正点（Codex Review P3）：增加 isFirstDayTask() 过滤，
      * 只有 dayIndex=1 或未拆分的任务才参与紧急度比较。
+     * 每个"非紧急在前、紧急在后"的任务对惩罚 1 分。
      */
     Constraint urgentInventoryMustBePrioritized(ConstraintFactory factory) {
-        return factory.forEachUniquePair(MotherRollOrder.class,
-                        Joiners.equal(order ->
-                                order.getAssignedLine() == null ? null : order.getAssignedLine().getId()))
-                .filter((o1, o2) -> {
-                    if (o1.getSequenceIndex() == null || o2.getSequenceIndex() == null) return false;
-
-                    // 只看首日子任务（dayIndex=1 或未拆分的任务）
-                    if (!o1.isFirstDayTask() || !o2.isFirstDayTask()) return false;
-
-                    boolean o1Urgent = o1.getInventorySupplyDays() < 10.0;
-                    boolean o2Urgent = o2.getInventorySupplyDays() < 10.0;
-                    
-                    if (o1Urgent == o2Urgent) return false;
-
-                    if (o1.getSequenceIndex() < o2.getSequenceIndex()) {
-                        return !o1Urgent && o2Urgent; // o1 先，且 o1 不紧急、o2 紧急
-                    } else if (o2.getSequenceIndex() < o1.getSequenceIndex()) {
-                        return !o2Urgent && o1Urgent; // o2 先，且 o2 不紧急、o1 紧急
-                    }
-                    return false;
-                })
-                .penalizeConfigurable()
+        // 等价于按产线两两比较"非紧急首日任务排在紧急首日任务之前"的次数，
+        // 但按产线聚合成逆序对计数，每次变更 O(log n)，避免 O(n²) 二元组
+        return factory.forEach(MotherRollOrder.class)
+                .filter(order -> order.getAssignedLine() != null
+                        && order.getSequenceIndex() != null
+                        && order.isFirstDayTask())
+                .groupBy(order -> order.getAssignedLine().getId(),
+                        InversionCountCollector.inversions(MotherRollOrder::getSequenceIndex,
+                                order -> order.getInventorySupplyDays() < 10.0))
+                .filter((lineId, inversionCount) -> inversionCount > 0)
+                .penalizeConfigurable((lineId, inversionCount) -> inversionCount)
                 .asConstraint(SchedulingConstraintIds.HC2);
     }
 
@@ -91,22 +81,26 @@ public class MotherRollConstraintProvider implements ConstraintProvider {
     /**
      * HC3：生产任务的时间段不能与例外停机时间（ExceptionTime）重叠。
      * 重叠分钟数即为惩罚值。
+     * <p>
+     * 停机窗口在加载时已按产线合并排序（{@link ExceptionTime#coalesce}），
+     * 连接时用 epoch 分钟做区间索引，只会匹配到真正重叠的窗口。
+     * </p>
      */
     Constraint noOverlapWithExceptionTime(ConstraintFactory factory) {
         return factory.forEach(MotherRollOrder.class)
-                .filter(order -> order.getStartTime() != null && order.getEndTime() != null)
+                .filter(order -> order.getStartMinute() != MotherRollOrder.UNSCHEDULED)
                 .join(ExceptionTime.class,
                         Joiners.equal(
                                 order -> order.getAssignedLine().getId(),
-                                ExceptionTime::getLineId))
-                .filter((order, exception) -> 
-                        order.getStartTime().isBefore(exception.getEndTime()) && 
-                        order.getEndTime().isAfter(exception.getStartTime()))
-                .penalizeConfigurable((order, exception) -> {
-                    java.time.LocalDateTime overlapStart = order.getStartTime().isAfter(exception.getStartTime()) ? order.getStartTime() : exception.getStartTime();
-                    java.time.LocalDateTime overlapEnd = order.getEndTime().isBefore(exception.getEndTime()) ? order.getEndTime() : exception.getEndTime();
-                    return (int) ChronoUnit.MINUTES.between(overlapStart, overlapEnd);
-                })
+                                ExceptionTime::getLineId),
+                        Joiners.overlapping(
+                                MotherRollOrder::getStartMinute,
+                                MotherRollOrder::getEndMinute,
+                                ExceptionTime::getStartMinute,
+                                ExceptionTime::getEndMinute))
+                .penalizeConfigurable((order, exception) -> (int) (
+                        Math.min(order.getEndMinute(), exception.getEndMinute())
+                                - Math.max(order.getStartMinute(), exception.getStartMinute())))
                 .asConstraint(SchedulingConstraintIds.HC3);
     }
 
@@ -118,28 +112,14 @@ public class MotherRollConstraintProvider implements ConstraintProvider {
      *
      * 修正点（Codex Review P2）：原实现为严格单调（0次反转），把合法的单峰也判违规。
      *
-     * 实现方式：找到所有"方向反转点"（prevPrev→prev 方向与 prev→current 方向不同），
-     * 按产线分组统计反转点数量。第1次反转合法（形成单峰），第2次及以后的每次反转惩罚1分。
+     * 实现方式："方向反转点"（prevPrev→prev 方向与 prev→current 方向不同，平段不算）
+     * 由影子变量 thicknessReversal 在级联更新中标记，这里只按产线增量计数。
+     * 第1次反转合法（形成单峰），第2次及以后的每次反转惩罚1分。
      */
     Constraint thicknessSinglePeak(ConstraintFactory factory) {
         return factory.forEach(MotherRollOrder.class)
-                .filter(order -> {
-                    if (order.getPreviousOrder() == null) return false;
-                    if (order.getPreviousOrder().getPreviousOrder() == null) return false;
-
-                    int prevPrevT = order.getPreviousOrder().getPreviousOrder().getThickness();
-                    int prevT = order.getPreviousOrder().getThickness();
-                    int curT = order.getThickness();
-
-                    int dir1 = Integer.compare(prevT, prevPrevT);
-                    int dir2 = Integer.compare(curT, prevT);
-
-                    // 平段不算方向变化
-                    if (dir1 == 0 || dir2 == 0) return false;
-                    // 方向不同才是反转点
-                    return dir1 != dir2;
-                })
-                .groupBy(order -> order.getAssignedLine() == null ? null : order.getAssignedLine().getId(),
+                .filter(MotherRollOrder::isThicknessReversal)
+                .groupBy(order -> order.getAssignedLine().getId(),
                         ConstraintCollectors.count())
                 .filter((lineId, reversalCount) -> reversalCount > 1)
                 .penalizeConfigurable((lineId, reversalCount) -> reversalCount - 1)
@@ -174,63 +154,41 @@ public class MotherRollConstraintProvider implements ConstraintProvider {
     // ===== MC1：过滤器后20天优先顺序 =====
 
     /**
-     * 过滤器后优先级映射：使用 "productCode_thickness" 组合键。
-     * 修正点（Codex Review P4）：原来用 T19EST 等 key 无法匹配实际 productCode。
-     * 对照 plan.md 第128-132行的完整优先级序列重建。
-     */
-    private static final Map<String, Integer> FILTER_PREFERRED_ORDER = Map.ofEntries(
-            Map.entry("EST_19", 1),   // T19EST 厚度188 高光
-            Map.entry("FDX_4", 2),    // T4FDX
-            Map.entry("FDY_4", 2),    // T4FDY（同 rank）
-            Map.entry("FDX_5", 3),    // T5FDX
-            Map.entry("FDX_7", 4),    // T7FDX
-            Map.entry("DJX_24", 5),   // T24DJX
-            Map.entry("EST_9", 6)     // T9EST
-    );
-
-    /** 构建 MC1 的查找 key */
-    private static String filterKey(MotherRollOrder order) {
-        return order.getProductCode() + "_" + order.getThickness();
-    }
-
-    /**
-     * MC1：换过滤器后20天内，优先生产特定的型号（按预设字典排序）。
-     * 如果处于20天保护期内出现非预期倒装，每跨越一级扣除 1 Medium。
+     * MC1：换过滤器后20天内，优先生产特定的型号（按 SchedulingConstraintIds.MC1_PRIORITY_RANKS 排序）。
+     * 如果处于20天保护期内出现非预期倒装，每跨越一级扣除 1 Medium；
+     * 两单同时落在多个窗口内时按窗口数累计。
+     * <p>
+     * 优先级已在加载时解析为 filterPriorityRank，窗口已按产线排序为 epoch 分钟区间，
+     * 先筛出"有优先级且落在窗口内"的订单再配对。
+     * </p>
      */
     Constraint filterChangePreferredOrder(ConstraintFactory factory) {
-        return factory.forEachUniquePair(MotherRollOrder.class,
-                        Joiners.equal(order ->
-                                order.getAssignedLine() == null ? null : order.getAssignedLine().getId()))
-                .filter((o1, o2) -> {
-                    if (o1.getSequenceIndex() == null || o2.getSequenceIndex() == null) return false;
-                    Integer rank1 = FILTER_PREFERRED_ORDER.get(filterKey(o1));
-                    Integer rank2 = FILTER_PREFERRED_ORDER.get(filterKey(o2));
-                    if (rank1 == null || rank2 == null) return false;
-                    
-                    if (o1.getSequenceIndex() < o2.getSequenceIndex()) {
-                        return rank1 > rank2;
-                    } else if (o2.getSequenceIndex() < o1.getSequenceIndex()) {
-                        return rank2 > rank1;
-                    }
-                    return false;
-                })
-                .join(FilterChangePlan.class,
-                        Joiners.equal((o1, o2) -> o1.getAssignedLine().getId(),
-                                FilterChangePlan::getLineId))
-                .filter((o1, o2, filter) -> {
-                    if (o1.getStartTime() == null || o2.getStartTime() == null) return false;
-                    long d1 = ChronoUnit.DAYS.between(filter.getChangeTime(), o1.getStartTime());
-                    long d2 = ChronoUnit.DAYS.between(filter.getChangeTime(), o2.getStartTime());
-                    return d1 >= 0 && d1 <= 20 && d2 >= 0 && d2 <= 20;
-                })
-                .penalizeConfigurable((o1, o2, filter) -> {
-                    int rank1 = FILTER_PREFERRED_ORDER.get(filterKey(o1));
-                    int rank2 = FILTER_PREFERRED_ORDER.get(filterKey(o2));
-                    return Math.abs(rank1 - rank2);
-                })
+        UniConstraintStream<MotherRollOrder> rankedInWindow = factory.forEach(MotherRollOrder.class)
+                .filter(order -> order.getFilterPriorityRank() > 0
+                        && order.getSequenceIndex() != null
+                        && order.getStartMinute() != MotherRollOrder.UNSCHEDULED
+                        && order.getAssignedLine().getFilterPriorityWindows() != null
+                        && order.getAssignedLine().getFilterPriorityWindows()
+                                .covers(order.getStartMinute()));
+        return rankedInWindow
+                .join(rankedInWindow,
+                        Joiners.equal(order -> order.getAssignedLine().getId()),
+                        Joiners.lessThan(MotherRollOrder::getSequenceIndex))
+                .filter((earlier, later) -> earlier.getFilterPriorityRank() > later.getFilterPriorityRank()
+                        && sharedFilterWindows(earlier, later) > 0)
+                .penalizeConfigurable((earlier, later) ->
+                        (earlier.getFilterPriorityRank() - later.getFilterPriorityRank())
+                                * sharedFilterWindows(earlier, later))
                 .asConstraint(SchedulingConstraintIds.MC1);
     }
 
+    /** 同时包含两单开始时间的过滤器窗口数 */
+    private static int sharedFilterWindows(MotherRollOrder earlier, MotherRollOrder later) {
+        return earlier.getAssignedLine().getFilterPriorityWindows().countCovering(
+                earlier.getStartMinute(),
+                later.getStartMinute());
+    }
+
     // ===== MC2：库存>30天不前移 =====
 
     /**
@@ -239,12 +197,12 @@ public class MotherRollConstraintProvider implements ConstraintProvider {
      */
     Constraint highInventoryShouldNotBeAdvanced(ConstraintFactory factory) {
         return factory.forEach(MotherRollOrder.class)
-                .filter(order -> order.getStartTime() != null 
-                        && order.getExpectedStartTime() != null
+                .filter(order -> order.getStartMinute() != MotherRollOrder.UNSCHEDULED
+                        && order.getExpectedStartMinute() != MotherRollOrder.UNSCHEDULED
                         && order.getInventorySupplyDays() > 30.0
-                        && order.getStartTime().isBefore(order.getExpectedStartTime()))
-                .penalizeConfigurable(order -> 
-                        (int) ChronoUnit.HOURS.between(order.getStartTime(), order.getExpectedStartTime()))
+                        && order.getStartMinute() < order.getExpectedStartMinute())
+                .penalizeConfigurable(order ->
+                        (int) ((order.getExpectedStartMinute() - order.getStartMinute()) / MINUTES_PER_HOUR))
                 .asConstraint(SchedulingConstraintIds.MC2);
     }
 
@@ -266,22 +224,14 @@ public class MotherRollConstraintProvider implements ConstraintProvider {
      * SC2：同型号优先排库存天数低的，倒置将惩罚天数差值。
      */
     Constraint prioritizeByInventorySupplyDays(ConstraintFactory factory) {
-        return factory.forEachUniquePair(MotherRollOrder.class,
-                        Joiners.equal(order ->
-                                order.getAssignedLine() == null ? null : order.getAssignedLine().getId()))
-                .filter((o1, o2) -> {
-                    if (o1.getSequenceIndex() == null || o2.getSequenceIndex() == null) return false;
-                    if (o1.getSequenceIndex() < o2.getSequenceIndex()) {
-                        return o1.getInventorySupplyDays() > o2.getInventorySupplyDays();
-                    } else if (o2.getSequenceIndex() < o1.getSequenceIndex()) {
-                        return o2.getInventorySupplyDays() > o1.getInventorySupplyDays();
-                    }
-                    return false;
-                })
-                .penalizeConfigurable((o1, o2) -> {
-                    double diff = Math.abs(o1.getInventorySupplyDays() - o2.getInventorySupplyDays());
-                    return (int) diff;
-                })
+        // 按产线聚合为加权逆序对：每对惩罚 (int) 天数差，与逐对写法一致，插入/撤销只与同线订单比较一次
+        return factory.forEach(MotherRollOrder.class)
+                .filter(order -> order.getAssignedLine() != null && order.getSequenceIndex() != null)
+                .groupBy(order -> order.getAssignedLine().getId(),
+                        WeightedInversionCollector.weightedInversions(MotherRollOrder::getSequenceIndex,
+                                MotherRollOrder::getInventorySupplyDays))
+                .filter((lineId, penalty) -> penalty != 0)
+                .penalizeConfigurable((lineId, penalty) -> penalty)
                 .asConstraint(SchedulingConstraintIds.SC2);
     }
 
@@ -292,10 +242,11 @@ public class MotherRollConstraintProvider implements ConstraintProvider {
      */
     Constraint respectExpectedStartTime(ConstraintFactory factory) {
         return factory.forEach(MotherRollOrder.class)
-                .filter(order -> order.getStartTime() != null && order.getExpectedStartTime() != null
-                        && order.getStartTime().isAfter(order.getExpectedStartTime()))
-                .penalizeConfigurable(order -> 
-                        (int) ChronoUnit.HOURS.between(order.getExpectedStartTime(), order.getStartTime()))
+                .filter(order -> order.getStartMinute() != MotherRollOrder.UNSCHEDULED
+                        && order.getExpectedStartMinute() != MotherRollOrder.UNSCHEDULED
+                        && order.getStartMinute() > order.getExpectedStartMinute())
+                .penalizeConfigurable(order ->
+                        (int) ((order.getStartMinute() - order.getExpectedStartMinute()) / MINUTES_PER_HOUR))
                 .asConstraint(SchedulingConstraintIds.SC3);
     }
 
@@ -0,0 +1,91 @@
+package com.changyang.scheduling.solver;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.impl.heuristic.move.AbstractMove;
+import com.changyang.scheduling.domain.MotherRollOrder;
+import com.changyang.scheduling.domain.MotherRollSchedule;
+import com.changyang.scheduling.domain.ProductionLine;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 把一个订单从产线 A 的 sourceIndex 移到产线 B 的 destinationIndex（A、B 可相同）
+ * <p>
+ * 只通过 ScoreDirector 的列表变量通知修改规划列表，不依赖 Timefold 内部的变量描述符；
+ * 同产线时 destinationIndex 是移除订单后的下标，与 ListChangeMove 语义一致。
+ * </p>
+ */
+final class OrderChangeMove extends AbstractMove<MotherRollSchedule> {
+
+    private static final String ORDERS = "orders";
+
+    private final ProductionLine sourceLine;
+    private final int sourceIndex;
+    private final ProductionLine destinationLine;
+    private final int destinationIndex;
+    /** 被移动的订单，构造时捕获；移动执行后 sourceIndex 上已不是它（禁忌搜索在步骤结束后读取） */
+    private final MotherRollOrder movedOrder;
+
+    OrderChangeMove(ProductionLine sourceLine, int sourceIndex, ProductionLine destinationLine, int destinationIndex) {
+        this(sourceLine, sourceIndex, destinationLine, destinationIndex, sourceLine.getOrders().get(sourceIndex));
+    }
+
+    private OrderChangeMove(ProductionLine sourceLine, int sourceIndex, ProductionLine destinationLine,
+                            int destinationIndex, MotherRollOrder movedOrder) {
+        this.sourceLine = sourceLine;
+        this.sourceIndex = sourceIndex;
+        this.destinationLine = destinationLine;
+        this.destinationIndex = destinationIndex;
+        this.movedOrder = movedOrder;
+    }
+
+    @Override
+    public boolean isMoveDoable(ScoreDirector<MotherRollSchedule> scoreDirector) {
+        return sourceLine != destinationLine || sourceIndex != destinationIndex;
+    }
+
+    @Override
+    protected void doMoveOnGenuineVariables(ScoreDirector<MotherRollSchedule> scoreDirector) {
+        if (sourceLine == destinationLine) {
+            int fromIndex = Math.min(sourceIndex, destinationIndex);
+            int toIndex = Math.max(sourceIndex, destinationIndex) + 1;
+            scoreDirector.beforeListVariableChanged(sourceLine, ORDERS, fromIndex, toIndex);
+            MotherRollOrder order = sourceLine.getOrders().remove(sourceIndex);
+            sourceLine.getOrders().add(destinationIndex, order);
+            scoreDirector.afterListVariableChanged(sourceLine, ORDERS, fromIndex, toIndex);
+            return;
+        }
+        scoreDirector.beforeListVariableChanged(sourceLine, ORDERS, sourceIndex, sourceIndex + 1);
+        MotherRollOrder order = sourceLine.getOrders().remove(sourceIndex);
+        scoreDirector.afterListVariableChanged(sourceLine, ORDERS, sourceIndex, sourceIndex);
+
+        scoreDirector.beforeListVariableChanged(destinationLine, ORDERS, destinationIndex, destinationIndex);
+        destinationLine.getOrders().add(destinationIndex, order);
+        scoreDirector.afterListVariableChanged(destinationLine, ORDERS, destinationIndex, destinationIndex + 1);
+    }
+
+    @Override
+    public OrderChangeMove rebase(ScoreDirector<MotherRollSchedule> destinationScoreDirector) {
+        return new OrderChangeMove(destinationScoreDirector.lookUpWorkingObject(sourceLine), sourceIndex,
+                destinationScoreDirector.lookUpWorkingObject(destinationLine), destinationIndex,
+                destinationScoreDirector.lookUpWorkingObject(movedOrder));
+    }
+
+    @Override
+    public Collection<?> getPlanningEntities() {
+        return sourceLine == destinationLine ? List.of(sourceLine) : Set.of(sourceLine, destinationLine);
+    }
+
+    @Override
+    public Collection<?> getPlanningValues() {
+        return List.of(movedOrder);
+    }
+
+    @Override
+    public String toString() {
+        return "OrderChangeMove(" + sourceLine.getId() + "[" + sourceIndex + "] -> "
+                + destinationLine.getId() + "[" + destinationIndex + "])";
+    }
+}
@@ -0,0 +1,82 @@
+package com.changyang.scheduling.solver;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.impl.heuristic.move.AbstractMove;
+import com.changyang.scheduling.domain.MotherRollOrder;
+import com.changyang.scheduling.domain.MotherRollSchedule;
+import com.changyang.scheduling.domain.ProductionLine;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 交换产线 A 的 leftIndex 与产线 B 的 rightIndex 上的两个订单（A、B 可相同）
+ * <p>
+ * 只通过 ScoreDirector 的列表变量通知修改规划列表，不依赖 Timefold 内部的变量描述符。
+ * </p>
+ */
+final class OrderSwapMove extends AbstractMove<MotherRollSchedule> {
+
+    private static final String ORDERS = "orders";
+
+    private final ProductionLine leftLine;
+    private final int leftIndex;
+    private final ProductionLine rightLine;
+    private final int rightIndex;
+
+    OrderSwapMove(ProductionLine leftLine, int leftIndex, ProductionLine rightLine, int rightIndex) {
+        this.leftLine = leftLine;
+        this.leftIndex = leftIndex;
+        this.rightLine = rightLine;
+        this.rightIndex = rightIndex;
+    }
+
+    @Override
+    public boolean isMoveDoable(ScoreDirector<MotherRollSchedule> scoreDirector) {
+        return leftLine != rightLine || leftIndex != rightIndex;
+    }
+
+    @Override
+    protected void doMoveOnGenuineVariables(ScoreDirector<MotherRollSchedule> scoreDirector) {
+        MotherRollOrder leftOrder = leftLine.getOrders().get(leftIndex);
+        MotherRollOrder rightOrder = rightLine.getOrders().get(rightIndex);
+        if (leftLine == rightLine) {
+            int fromIndex = Math.min(leftIndex, rightIndex);
+            int toIndex = Math.max(leftIndex, rightIndex) + 1;
+            scoreDirector.beforeListVariableChanged(leftLine, ORDERS, fromIndex, toIndex);
+            leftLine.getOrders().set(leftIndex, rightOrder);
+            leftLine.getOrders().set(rightIndex, leftOrder);
+            scoreDirector.afterListVariableChanged(leftLine, ORDERS, fromIndex, toIndex);
+            return;
+        }
+        scoreDirector.beforeListVariableChanged(leftLine, ORDERS, leftIndex, leftIndex + 1);
+        scoreDirector.beforeListVariableChanged(rightLine, ORDERS, rightIndex, rightIndex + 1);
+        leftLine.getOrders().set(leftIndex, rightOrder);
+        rightLine.getOrders().set(rightIndex, leftOrder);
+        scoreDirector.afterListVariableChanged(leftLine, ORDERS, leftIndex, leftIndex + 1);
+        scoreDirector.afterListVariableChanged(rightLine, ORDERS, rightIndex, rightIndex + 1);
+    }
+
+    @Override
+    public OrderSwapMove rebase(ScoreDirector<MotherRollSchedule> destinationScoreDirector) {
+        return new OrderSwapMove(destinationScoreDirector.lookUpWorkingObject(leftLine), leftIndex,
+                destinationScoreDirector.lookUpWorkingObject(rightLine), rightIndex);
+    }
+
+    @Override
+    public Collection<?> getPlanningEntities() {
+        return leftLine == rightLine ? List.of(leftLine) : Set.of(leftLine, rightLine);
+    }
+
+    @Override
+    public Collection<?> getPlanningValues() {
+        return List.of(leftLine.getOrders().get(leftIndex), rightLine.getOrders().get(rightIndex));
+    }
+
+    @Override
+    public String toString() {
+        return "OrderSwapMove(" + leftLine.getId() + "[" + leftIndex + "] <-> "
+                + rightLine.getId() + "[" + rightIndex + "])";
+    }
+}
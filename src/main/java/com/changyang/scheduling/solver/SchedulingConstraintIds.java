@@ -1,5 +1,6 @@
 package com.changyang.scheduling.solver;
 
+import java.util.Map;
 import java.util.Set;
 
 public final class SchedulingConstraintIds {
@@ -23,10 +24,29 @@ public final class SchedulingConstraintIds {
 
     public static final Set<String> SPLIT_REQUIRED = Set.of(HC5, SC5);
 
-    public static final Set<String> MC1_PRIORITY_KEYS = Set.of(
-            "EST_19", "FDX_4", "FDY_4", "FDX_5", "FDX_7", "DJX_24", "EST_9"
+    /**
+     * MC1 过滤器后优先级：使用 "productCode_thickness" 组合键，rank 越小越优先。
+     * 对照 plan.md 第128-132行的完整优先级序列。
+     */
+    public static final Map<String, Integer> MC1_PRIORITY_RANKS = Map.ofEntries(
+            Map.entry("EST_19", 1),   // T19EST 厚度188 高光
+            Map.entry("FDX_4", 2),    // T4FDX
+            Map.entry("FDY_4", 2),    // T4FDY（同 rank）
+            Map.entry("FDX_5", 3),    // T5FDX
+            Map.entry("FDX_7", 4),    // T7FDX
+            Map.entry("DJX_24", 5),   // T24DJX
+            Map.entry("EST_9", 6)     // T9EST
     );
 
+    public static final Set<String> MC1_PRIORITY_KEYS = MC1_PRIORITY_RANKS.keySet();
+
+    /**
+     * 查询 MC1 优先级，不在优先序列中的返回 0
+     */
+    public static int mc1PriorityRank(String productCode, int thickness) {
+        return MC1_PRIORITY_RANKS.getOrDefault(productCode + "_" + thickness, 0);
+    }
+
     private SchedulingConstraintIds() {
     }
 }
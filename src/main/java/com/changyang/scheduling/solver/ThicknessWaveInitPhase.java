@@ -0,0 +1,220 @@
+package com.changyang.scheduling.solver;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.impl.phase.custom.CustomPhaseCommand;
+import com.changyang.scheduling.domain.MotherRollOrder;
+import com.changyang.scheduling.domain.MotherRollSchedule;
+import com.changyang.scheduling.domain.ProductionLine;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 按工时均衡、厚度单峰波浪排列的初始化阶段（Custom Phase）
+ * <p>
+ * 与 {@link FastAssignInitPhase} 的轮询追加不同，本阶段分两步构造一个接近可行的初始解：
+ * </p>
+ * <ol>
+ *     <li>分线：兼容产线少的订单先分、同等条件下长订单先分，每次放到累计生产工时最少的兼容产线；
+ *     偏好产线的负载不超过"最少负载 + 本单工时"时优先放到偏好产线（SC4）。</li>
+ *     <li>排序：紧急库存订单（HC2）排在最前，其余订单按期望开工时间把工时对半分为前后两段，
+ *     前段按厚度由薄到厚、后段由厚到薄，整条产线只有一个峰（HC4 合法）；
+ *     同一厚度内按配方排列，必要时整层反向，让厚度切换尽量发生在同配方同型号的订单之间，减少 SC1 换型。</li>
+ * </ol>
+ * <p>
+ * 每条产线整批追加后只触发一次影子变量更新，而不是每追加一个订单触发一次。
+ * 已分配或已固定的订单保持不动，新订单追加在其后。
+ * </p>
+ */
+public class ThicknessWaveInitPhase implements CustomPhaseCommand<MotherRollSchedule> {
+
+    private static final String ORDERS = "orders";
+    /** 库存可维持天数低于该值为紧急订单，与 HC2 一致 */
+    private static final double URGENT_SUPPLY_DAYS = 10.0;
+
+    @Override
+    public void changeWorkingSolution(ScoreDirector<MotherRollSchedule> scoreDirector) {
+        MotherRollSchedule schedule = scoreDirector.getWorkingSolution();
+        List<ProductionLine> lines = schedule.getProductionLines();
+        List<MotherRollOrder> orders = schedule.getOrders();
+        if (lines == null || lines.isEmpty() || orders == null || orders.isEmpty()) {
+            return;
+        }
+
+        Map<ProductionLine, List<MotherRollOrder>> batches = assignToLines(lines, orders);
+        for (Map.Entry<ProductionLine, List<MotherRollOrder>> entry : batches.entrySet()) {
+            List<MotherRollOrder> batch = entry.getValue();
+            if (!batch.isEmpty()) {
+                appendBatch(scoreDirector, entry.getKey(), waveSequence(batch));
+            }
+        }
+    }
+
+    /**
+     * 按累计工时均衡地把未分配订单分到兼容产线，返回每条产线待追加的订单（未排序）
+     */
+    static Map<ProductionLine, List<MotherRollOrder>> assignToLines(
+            List<ProductionLine> lines, List<MotherRollOrder> orders) {
+        Map<ProductionLine, List<MotherRollOrder>> batches = new LinkedHashMap<>();
+        Map<ProductionLine, Double> loadHours = new IdentityHashMap<>();
+        long earliestAvailable = Long.MAX_VALUE;
+        for (ProductionLine line : lines) {
+            if (line.getAvailableFromMinute() != MotherRollOrder.UNSCHEDULED) {
+                earliestAvailable = Math.min(earliestAvailable, line.getAvailableFromMinute());
+            }
+        }
+        for (ProductionLine line : lines) {
+            batches.put(line, new ArrayList<>());
+            // 产线可用时间晚于其他产线的部分也计入负载
+            long availableFrom = line.getAvailableFromMinute();
+            double load = availableFrom == MotherRollOrder.UNSCHEDULED
+                    ? 0
+                    : (availableFrom - earliestAvailable) / 60.0;
+            for (MotherRollOrder assigned : line.getOrders()) {
+                load += assigned.getProductionDurationHours();
+            }
+            loadHours.put(line, load);
+        }
+
+        List<MotherRollOrder> unassigned = new ArrayList<>();
+        Map<MotherRollOrder, List<ProductionLine>> compatibleLines = new IdentityHashMap<>();
+        for (MotherRollOrder order : orders) {
+            if (order.getAssignedLine() != null || order.isPinned()) {
+                continue;
+            }
+            List<ProductionLine> compatible = new ArrayList<>();
+            for (ProductionLine line : lines) {
+                if (order.isCompatibleWith(line)) {
+                    compatible.add(line);
+                }
+            }
+            if (!compatible.isEmpty()) {
+                compatibleLines.put(order, compatible);
+                unassigned.add(order);
+            }
+        }
+        unassigned.sort(Comparator
+                .<MotherRollOrder>comparingInt(order -> compatibleLines.get(order).size())
+                .thenComparing(Comparator.comparingDouble(MotherRollOrder::getProductionDurationHours).reversed()));
+
+        for (MotherRollOrder order : unassigned) {
+            ProductionLine selected = null;
+            ProductionLine preferred = null;
+            for (ProductionLine line : compatibleLines.get(order)) {
+                if (selected == null || loadHours.get(line) < loadHours.get(selected)) {
+                    selected = line;
+                }
+                if (line.getLineCode().equals(order.getPreferredLineCode())) {
+                    preferred = line;
+                }
+            }
+            if (preferred != null
+                    && loadHours.get(preferred) <= loadHours.get(selected) + order.getProductionDurationHours()) {
+                selected = preferred;
+            }
+            batches.get(selected).add(order);
+            loadHours.merge(selected, order.getProductionDurationHours(), Double::sum);
+        }
+        return batches;
+    }
+
+    /**
+     * 把一条产线的订单排成单峰波浪
+     * <p>
+     * 紧急库存订单（HC2）放在最前并由薄到厚排列；其余订单按期望开工时间对半分工时，
+     * 前段中不薄于紧急订单最大厚度的接着升厚，其余全部放到后段降厚。
+     * </p>
+     */
+    static List<MotherRollOrder> waveSequence(List<MotherRollOrder> batch) {
+        List<MotherRollOrder> urgent = new ArrayList<>();
+        List<MotherRollOrder> normal = new ArrayList<>();
+        int peakFloor = Integer.MIN_VALUE;
+        double normalHours = 0;
+        for (MotherRollOrder order : batch) {
+            if (order.isFirstDayTask() && order.getInventorySupplyDays() < URGENT_SUPPLY_DAYS) {
+                urgent.add(order);
+                peakFloor = Math.max(peakFloor, order.getThickness());
+            } else {
+                normal.add(order);
+                normalHours += order.getProductionDurationHours();
+            }
+        }
+        normal.sort(Comparator.comparingLong(MotherRollOrder::getExpectedStartMinute)
+                .thenComparing(MotherRollOrder::getId));
+
+        List<MotherRollOrder> rising = new ArrayList<>();
+        List<MotherRollOrder> falling = new ArrayList<>();
+        double risingHours = 0;
+        for (MotherRollOrder order : normal) {
+            if (risingHours < normalHours / 2 && order.getThickness() >= peakFloor) {
+                rising.add(order);
+                risingHours += order.getProductionDurationHours();
+            } else {
+                falling.add(order);
+            }
+        }
+
+        List<MotherRollOrder> sequence = new ArrayList<>(batch.size());
+        appendByThickness(sequence, urgent, true);
+        appendByThickness(sequence, rising, true);
+        appendByThickness(sequence, falling, false);
+        return sequence;
+    }
+
+    /**
+     * 按厚度分层（升序或降序）追加到 sequence，层内按配方、型号排序；
+     * 若该层最后一个订单与 sequence 末尾的订单同配方同型号，则整层反向，使相邻层在同配方处衔接
+     */
+    private static void appendByThickness(List<MotherRollOrder> sequence, List<MotherRollOrder> orders,
+                                          boolean ascending) {
+        Comparator<MotherRollOrder> byThickness = Comparator.comparingInt(MotherRollOrder::getThickness);
+        List<MotherRollOrder> sorted = new ArrayList<>(orders);
+        sorted.sort((ascending ? byThickness : byThickness.reversed())
+                .thenComparing(MotherRollOrder::getFormulaCode, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(MotherRollOrder::getProductCode, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparingLong(MotherRollOrder::getExpectedStartMinute));
+
+        int layerStart = 0;
+        for (int i = 1; i <= sorted.size(); i++) {
+            if (i == sorted.size() || sorted.get(i).getThickness() != sorted.get(layerStart).getThickness()) {
+                List<MotherRollOrder> layer = sorted.subList(layerStart, i);
+                MotherRollOrder last = sequence.isEmpty() ? null : sequence.get(sequence.size() - 1);
+                if (last != null && sameProduct(last, layer.get(layer.size() - 1))
+                        && !sameProduct(last, layer.get(0))) {
+                    for (int j = layer.size() - 1; j >= 0; j--) {
+                        sequence.add(layer.get(j));
+                    }
+                } else {
+                    sequence.addAll(layer);
+                }
+                layerStart = i;
+            }
+        }
+    }
+
+    private static boolean sameProduct(MotherRollOrder a, MotherRollOrder b) {
+        return Objects.equals(a.getFormulaCode(), b.getFormulaCode())
+                && Objects.equals(a.getProductCode(), b.getProductCode());
+    }
+
+    private static void appendBatch(ScoreDirector<MotherRollSchedule> scoreDirector,
+                                    ProductionLine line, List<MotherRollOrder> batch) {
+        int size = line.getOrders().size();
+        for (MotherRollOrder order : batch) {
+            scoreDirector.beforeListVariableElementAssigned(line, ORDERS, order);
+        }
+        scoreDirector.beforeListVariableChanged(line, ORDERS, size, size);
+        line.getOrders().addAll(batch);
+        scoreDirector.afterListVariableChanged(line, ORDERS, size, size + batch.size());
+        for (MotherRollOrder order : batch) {
+            scoreDirector.afterListVariableElementAssigned(line, ORDERS, order);
+        }
+        // 整批追加后只触发一次，级联从 size 处向后计算一遍
+        scoreDirector.triggerVariableListeners();
+    }
+}
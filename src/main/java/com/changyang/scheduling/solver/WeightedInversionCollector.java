@@ -0,0 +1,125 @@
+package com.changyang.scheduling.solver;
+
+import ai.timefold.solver.core.api.score.stream.uni.UniConstraintCollector;
+
+import java.util.Arrays;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * 加权逆序对收集器
+ * <p>
+ * 统计同一分组内每个"数值大的排在数值小的前面"的逆序对，每对权重为 {@code (int) (v_a - v_b)}，
+ * 与 forEachUniquePair + 位置比较 + 差值取整的写法逐对一致（含负数、小数截断、
+ * {@link Double#MAX_VALUE} 差值饱和为 {@link Integer#MAX_VALUE}），但不产生 O(n²) 个二元组。
+ * </p>
+ * <p>
+ * 差值取整后的权重取决于两者小数部分的大小关系，无法拆成按位置、按数值的前缀和，
+ * 因此插入/撤销时与组内已有元素逐个比较，每次 O(n)，只读两个基本类型数组，不分配对象。
+ * 位置与数值在插入时捕获，撤销时使用捕获值。
+ * </p>
+ *
+ * @param <A> 被收集的元素类型
+ */
+public final class WeightedInversionCollector<A>
+        implements UniConstraintCollector<A, WeightedInversionCollector.Container, Integer> {
+
+    private final ToIntFunction<A> positionFunction;
+    private final ToDoubleFunction<A> valueFunction;
+
+    private WeightedInversionCollector(ToIntFunction<A> positionFunction, ToDoubleFunction<A> valueFunction) {
+        this.positionFunction = positionFunction;
+        this.valueFunction = valueFunction;
+    }
+
+    /**
+     * @param positionFunction 元素在序列中的位置（同组内唯一）
+     * @param valueFunction    元素数值（天数），数值小的应排在前面
+     */
+    public static <A> WeightedInversionCollector<A> weightedInversions(ToIntFunction<A> positionFunction,
+                                                                       ToDoubleFunction<A> valueFunction) {
+        return new WeightedInversionCollector<>(positionFunction, valueFunction);
+    }
+
+    @Override
+    public Supplier<Container> supplier() {
+        return Container::new;
+    }
+
+    @Override
+    public BiFunction<Container, A, Runnable> accumulator() {
+        return (container, element) -> {
+            int position = positionFunction.applyAsInt(element);
+            double value = valueFunction.applyAsDouble(element);
+            container.insert(position, value);
+            return () -> container.retract(position, value);
+        };
+    }
+
+    @Override
+    public Function<Container, Integer> finisher() {
+        return Container::result;
+    }
+
+    /** 排在前面的数值大于排在后面的数值时，按差值取整惩罚 */
+    static int pairPenalty(double earlier, double later) {
+        return earlier > later ? (int) (earlier - later) : 0;
+    }
+
+    /**
+     * 单个分组的累加状态
+     */
+    public static final class Container {
+
+        private int[] positions = new int[16];
+        private double[] values = new double[16];
+        private int size;
+        /** 组内所有逆序对的惩罚之和 */
+        private long total;
+
+        private void insert(int position, double value) {
+            total += penaltyWith(position, value);
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            positions[size] = position;
+            values[size] = value;
+            size++;
+        }
+
+        private void retract(int position, double value) {
+            for (int i = 0; i < size; i++) {
+                if (positions[i] == position && Double.compare(values[i], value) == 0) {
+                    size--;
+                    positions[i] = positions[size];
+                    values[i] = values[size];
+                    total -= penaltyWith(position, value);
+                    return;
+                }
+            }
+            throw new IllegalStateException("Element at position " + position + " was never inserted");
+        }
+
+        /** 与已有元素构成的逆序对惩罚：前面的元素对它，它对后面的元素 */
+        private long penaltyWith(int position, double value) {
+            long penalty = 0;
+            for (int i = 0; i < size; i++) {
+                if (positions[i] < position) {
+                    penalty += pairPenalty(values[i], value);
+                } else if (positions[i] > position) {
+                    penalty += pairPenalty(value, values[i]);
+                }
+            }
+            return penalty;
+        }
+
+        /** 结果按 int 截断，与逐对惩罚在 int 分数上的累加（含溢出回绕）一致 */
+        private int result() {
+            return (int) total;
+        }
+    }
+}
@@ -12,18 +12,16 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 
 class DomainTest {
 
-    private ChangeoverService changeoverService;
+    private ChangeoverMatrix changeoverMatrix;
 
     @BeforeEach
     void setUp() {
-        changeoverService = new ChangeoverService(); // 触发 INSTANCE 初始化
-
         // 模拟外部输入的换型数据
         List<ChangeoverEntry> entries = List.of(
                 new ChangeoverEntry(ChangeoverEntry.Type.FORMULA_MODEL, "F1", "M1", "F2", "M2", null, null, 40),
                 new ChangeoverEntry(ChangeoverEntry.Type.THICKNESS, null, null, null, null, 100, 150, 15)
         );
-        changeoverService.initCache(entries);
+        changeoverMatrix = new ChangeoverService().buildMatrix(entries, List.of());
     }
 
     @Test
@@ -31,6 +29,7 @@ class DomainTest {
         // 1. 准备一条产线
         LocalDateTime lineStart = LocalDateTime.of(2026, 3, 10, 8, 0);
         ProductionLine line = new ProductionLine("L1", "一线", "L1", lineStart);
+        line.setChangeoverMatrix(changeoverMatrix);
 
         // 2. 准备订单 1：队首任务
         MotherRollOrder order1 = new MotherRollOrder();
@@ -66,6 +65,9 @@ class DomainTest {
         LocalDateTime expectedStart2 = order1.getEndTime().plusMinutes(40);
         assertEquals(expectedStart2, order2.getStartTime());
         assertEquals(expectedStart2.plusHours(5), order2.getEndTime());
+        // 内部时间轴为 epoch 分钟
+        assertEquals(order1.getEndMinute() + 40, order2.getStartMinute());
+        assertEquals(EpochMinutes.of(expectedStart2), order2.getStartMinute());
 
         // 4. 准备订单 3：与订单 2 相同产品（如拆分后的第二天）
         MotherRollOrder order3 = new MotherRollOrder();
@@ -88,6 +90,55 @@ class DomainTest {
         order3.updateStartAndEndTime();
         assertNull(order3.getStartTime());
         assertNull(order3.getEndTime());
+        assertEquals(MotherRollOrder.UNSCHEDULED, order3.getStartMinute());
         assertNull(order3.getChangeoverMinutes());
     }
+
+    @Test
+    void testThicknessReversalShadow() {
+        ProductionLine line = new ProductionLine("L1", "一线", "L1", LocalDateTime.of(2026, 3, 10, 8, 0));
+        line.setChangeoverMatrix(changeoverMatrix);
+
+        // 厚度 10 → 20 → 20 → 15 → 25：平段后的变薄不算反转，随后的变厚算一次
+        int[] thicknesses = {10, 20, 20, 15, 25};
+        boolean[] expectedReversal = {false, false, false, false, true};
+        MotherRollOrder previous = null;
+        for (int i = 0; i < thicknesses.length; i++) {
+            MotherRollOrder order = new MotherRollOrder();
+            order.setId("O" + i);
+            order.setFormulaCode("F1");
+            order.setProductCode("M1");
+            order.setThickness(thicknesses[i]);
+            order.setProductionDurationHours(1.0);
+            order.setAssignedLine(line);
+            order.setPreviousOrder(previous);
+            order.updateStartAndEndTime();
+
+            assertEquals(expectedReversal[i], order.isThicknessReversal(), "O" + i);
+            previous = order;
+        }
+        assertEquals(1, previous.getThicknessDirection());
+
+        previous.setAssignedLine(null);
+        previous.updateStartAndEndTime();
+        assertEquals(0, previous.getThicknessDirection());
+        assertEquals(false, previous.isThicknessReversal());
+    }
+
+    @Test
+    void testExceptionTimeCoalesce() {
+        LocalDateTime base = LocalDateTime.of(2026, 3, 10, 8, 0);
+        List<ExceptionTime> merged = ExceptionTime.coalesce(List.of(
+                new ExceptionTime("L4", base, base.plusHours(1)),
+                new ExceptionTime("L2", base.plusHours(3), base.plusHours(5)),
+                new ExceptionTime("L2", base, base.plusHours(2)),
+                new ExceptionTime("L2", base.plusHours(1), base.plusHours(3)), // 与前后窗口重叠/相接
+                new ExceptionTime("L2", base.plusHours(6), base.plusHours(6))  // 长度为 0，丢弃
+        ));
+
+        assertEquals(2, merged.size());
+        assertEquals(new ExceptionTime("L2", base, base.plusHours(5)), merged.get(0));
+        assertEquals(new ExceptionTime("L4", base, base.plusHours(1)), merged.get(1));
+        assertEquals(EpochMinutes.of(base) + 300, merged.get(0).getEndMinute());
+    }
 }
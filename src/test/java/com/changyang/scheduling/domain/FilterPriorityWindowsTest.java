@@ -0,0 +1,78 @@
+package com.changyang.scheduling.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FilterPriorityWindowsTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 3, 1, 8, 0);
+
+    @Test
+    void windowMatchesDaysBetweenBoundaries() {
+        LocalDateTime change = LocalDateTime.of(2026, 3, 10, 8, 0);
+        FilterPriorityWindows windows = FilterPriorityWindows.build(
+                List.of(new FilterChangePlan("L1", change, 120)), "L1");
+
+        // DAYS.between 向零截断：提前不足 1 天记为第 0 天，第 20 天的最后一分钟仍在窗口内
+        assertTrue(windows.covers(minute(change.minusDays(1).plusMinutes(1))));
+        assertFalse(windows.covers(minute(change.minusDays(1))));
+        assertTrue(windows.covers(minute(change.plusDays(21).minusMinutes(1))));
+        assertFalse(windows.covers(minute(change.plusDays(21))));
+    }
+
+    @Test
+    void otherLinesAreIgnored() {
+        FilterPriorityWindows windows = FilterPriorityWindows.build(
+                List.of(new FilterChangePlan("L2", BASE, 120)), "L1");
+
+        assertTrue(windows.isEmpty());
+        assertFalse(windows.covers(minute(BASE)));
+    }
+
+    @Test
+    void countCoveringMatchesPerPlanDaysBetween() {
+        Random random = new Random(11);
+        List<FilterChangePlan> plans = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            // 更换时间带秒，覆盖非整分钟的边界
+            plans.add(new FilterChangePlan("L1", BASE.plusSeconds(random.nextInt(60 * 24 * 3600)), 120));
+        }
+        FilterPriorityWindows windows = FilterPriorityWindows.build(plans, "L1");
+
+        for (int i = 0; i < 5000; i++) {
+            LocalDateTime first = BASE.minusDays(2).plusMinutes(random.nextInt(70 * 24 * 60));
+            LocalDateTime second = BASE.minusDays(2).plusMinutes(random.nextInt(70 * 24 * 60));
+            int expected = 0;
+            for (FilterChangePlan plan : plans) {
+                if (inWindow(plan, first) && inWindow(plan, second)) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, windows.countCovering(minute(first), minute(second)), first + " / " + second);
+            assertEquals(inWindow(plans, first), windows.covers(minute(first)), first.toString());
+        }
+    }
+
+    /** 原 MC1 的窗口判定 */
+    private static boolean inWindow(FilterChangePlan plan, LocalDateTime start) {
+        long days = ChronoUnit.DAYS.between(plan.getChangeTime(), start);
+        return days >= 0 && days <= 20;
+    }
+
+    private static boolean inWindow(List<FilterChangePlan> plans, LocalDateTime start) {
+        return plans.stream().anyMatch(plan -> inWindow(plan, start));
+    }
+
+    private static long minute(LocalDateTime time) {
+        return EpochMinutes.of(time);
+    }
+}
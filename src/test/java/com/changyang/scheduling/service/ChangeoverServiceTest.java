@@ -0,0 +1,89 @@
+package com.changyang.scheduling.service;
+
+import com.changyang.scheduling.domain.ChangeoverEntry;
+import com.changyang.scheduling.domain.ChangeoverMatrix;
+import com.changyang.scheduling.domain.MotherRollOrder;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChangeoverServiceTest {
+
+    private static final String[] PRODUCT_CODES = {"EST", "ESY", "FDX", "FDY", "DJX", "DJY", "QDJY"};
+    private static final int[] THICKNESSES = {4, 5, 7, 9, 10, 14, 24, 29, 42, 61, 188};
+
+    @Test
+    void indexedLookupMatchesCodeLookup() {
+        ChangeoverService changeoverService = new ChangeoverService();
+        List<ChangeoverEntry> entries = new ExcelDataLoader(changeoverService).buildChangeoverMatrix();
+
+        List<MotherRollOrder> indexed = buildOrders();
+        List<MotherRollOrder> plain = buildOrders();
+        ChangeoverMatrix matrix = changeoverService.buildMatrix(entries, indexed);
+
+        for (int i = 0; i < indexed.size(); i++) {
+            assertTrue(indexed.get(i).getFormulaModelId() >= 0);
+            assertTrue(indexed.get(i).getThicknessId() >= 0);
+            for (int j = 0; j < indexed.size(); j++) {
+                assertEquals(matrix.calcChangeover(plain.get(i), plain.get(j)),
+                        matrix.calcChangeover(indexed.get(i), indexed.get(j)),
+                        plain.get(i) + " -> " + plain.get(j));
+            }
+        }
+    }
+
+    @Test
+    void codesOutsideMatrixFallBackToZero() {
+        ChangeoverService changeoverService = new ChangeoverService();
+        List<ChangeoverEntry> entries = List.of(
+                new ChangeoverEntry(ChangeoverEntry.Type.FORMULA_MODEL, "F1", "M1", "F2", "M2", null, null, 40),
+                new ChangeoverEntry(ChangeoverEntry.Type.THICKNESS, null, null, null, null, 100, 150, 15)
+        );
+
+        MotherRollOrder known = order("F1", "M1", 100);
+        MotherRollOrder unknown = order("F9", "M9", 150);
+        MotherRollOrder sameAsUnknown = order("F9", "M9", 150);
+        ChangeoverMatrix matrix = changeoverService.buildMatrix(entries, List.of(known, unknown, sameAsUnknown));
+
+        assertEquals(15, matrix.calcChangeover(known, unknown), "未配置的配方组合按 0 计，取厚度维度");
+        assertEquals(0, matrix.calcChangeover(unknown, sameAsUnknown), "同产品同厚度应为 0");
+    }
+
+    @Test
+    void matricesOfDifferentSolvesDoNotInterfere() {
+        ChangeoverService changeoverService = new ChangeoverService();
+        MotherRollOrder from = order("F1", "M1", 100);
+        MotherRollOrder to = order("F2", "M2", 100);
+
+        ChangeoverMatrix first = changeoverService.buildMatrix(List.of(
+                new ChangeoverEntry(ChangeoverEntry.Type.FORMULA_MODEL, "F1", "M1", "F2", "M2", null, null, 40)), List.of());
+        ChangeoverMatrix second = changeoverService.buildMatrix(List.of(
+                new ChangeoverEntry(ChangeoverEntry.Type.FORMULA_MODEL, "F1", "M1", "F2", "M2", null, null, 90)), List.of());
+
+        assertEquals(40, first.calcChangeover(from, to), "后构建的矩阵不应覆盖先前求解的矩阵");
+        assertEquals(90, second.calcChangeover(from, to));
+    }
+
+    private static List<MotherRollOrder> buildOrders() {
+        List<MotherRollOrder> orders = new ArrayList<>();
+        for (String productCode : PRODUCT_CODES) {
+            for (int thickness : THICKNESSES) {
+                orders.add(order(ExcelDataLoader.FORMULA_MAP.get(productCode), productCode, thickness));
+            }
+        }
+        return orders;
+    }
+
+    private static MotherRollOrder order(String formulaCode, String productCode, int thickness) {
+        MotherRollOrder order = new MotherRollOrder();
+        order.setId(productCode + "-" + thickness);
+        order.setFormulaCode(formulaCode);
+        order.setProductCode(productCode);
+        order.setThickness(thickness);
+        return order;
+    }
+}
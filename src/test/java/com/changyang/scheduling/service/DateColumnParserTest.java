@@ -0,0 +1,90 @@
+package com.changyang.scheduling.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 日期列文本解析测试
+ */
+class DateColumnParserTest {
+
+    private static final List<String> SAMPLES = List.of(
+            "2026-03-13 08:00", "2026.03.13 08:00", "2026-03-13T08:00", "2026-03-13T08:00:30",
+            "2026-03-13T08:00:30.5", "2026.03.13", "2026-03-13",
+            // SMART 规则修正、越界与不完整的文本
+            "2026-02-30 08:00", "2026.02.31", "2026-13-01 08:00", "2026-03-13 24:00", "2026-03-13 8:00",
+            "0000-01-01 08:00", "12026-03-13 08:00", "2026/03/13", "2026.3.13", "20260313", "abc", "2026-03-13 08:00:00",
+            "2026-03-1a 08:00", "2026.03.13 08:61");
+
+    @Test
+    void testParseDateTime_与依次尝试全部格式的结果一致() {
+        // 同一个解析器依次处理所有样本，检测到的格式随样本切换
+        DateColumnParser parser = new DateColumnParser();
+        for (int round = 0; round < 2; round++) {
+            for (String sample : SAMPLES) {
+                assertEquals(tryAllDateTime(sample), parser.parseDateTime(sample), sample);
+            }
+        }
+    }
+
+    @Test
+    void testParseDate_与依次尝试全部格式的结果一致() {
+        DateColumnParser parser = new DateColumnParser();
+        for (String sample : SAMPLES) {
+            assertEquals(tryAllDate(sample), parser.parseDate(sample), sample);
+        }
+    }
+
+    @Test
+    void testParseDateTime_记住列格式并在不匹配时切换() {
+        DateColumnParser parser = new DateColumnParser();
+        assertNull(parser.getDetected());
+
+        assertEquals(LocalDateTime.of(2026, 3, 13, 8, 0), parser.parseDateTime("2026.03.13 08:00"));
+        assertEquals(DateColumnParser.Format.DATE_TIME_DOT, parser.getDetected());
+        assertEquals(LocalDateTime.of(2026, 3, 14, 0, 0), parser.parseDateTime("2026.03.14"));
+        assertEquals(DateColumnParser.Format.DATE_DOT, parser.getDetected());
+        assertNull(parser.parseDateTime("not a date"));
+        assertEquals(DateColumnParser.Format.DATE_DOT, parser.getDetected());
+    }
+
+    /**
+     * 原先的做法：按固定顺序逐个格式尝试
+     */
+    private static LocalDateTime tryAllDateTime(String value) {
+        try {
+            return LocalDateTime.parse(value, DateColumnParser.DATE_TIME_FMT);
+        } catch (Exception ignored) {
+        }
+        try {
+            return LocalDateTime.parse(value, DateColumnParser.DATE_TIME_DOT_FMT);
+        } catch (Exception ignored) {
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (Exception ignored) {
+        }
+        try {
+            return LocalDate.parse(value, DateColumnParser.DATE_FMT).atStartOfDay();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static LocalDate tryAllDate(String value) {
+        try {
+            return LocalDate.parse(value);
+        } catch (Exception ignored) {
+        }
+        try {
+            return LocalDate.parse(value, DateColumnParser.DATE_FMT);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
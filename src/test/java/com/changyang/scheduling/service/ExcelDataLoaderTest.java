@@ -1,16 +1,27 @@
 package com.changyang.scheduling.service;
 
 import com.changyang.scheduling.domain.ChangeoverEntry;
+import com.changyang.scheduling.domain.ChangeoverMatrix;
 import com.changyang.scheduling.domain.MotherRollOrder;
 import com.changyang.scheduling.domain.MotherRollSchedule;
+import com.changyang.scheduling.rest.dto.ConstraintStatusDto;
+import com.changyang.scheduling.rest.dto.ExcelValidationSummaryDto;
+import com.changyang.scheduling.rest.dto.SyntheticWorkloadDto;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.core.io.ClassPathResource;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -179,12 +190,16 @@ class ExcelDataLoaderTest {
     void testLoadExcel_换型缓存已初始化() throws Exception {
         LocalDateTime solveStart = LocalDateTime.of(2026, 3, 13, 8, 0);
 
+        MotherRollSchedule schedule;
         try (InputStream is = new ClassPathResource("data/生产订单_排程导入版.xlsx").getInputStream()) {
-            loader.load(is, solveStart);
+            schedule = loader.load(is, solveStart);
         }
 
-        // 验证 ChangeoverService 缓存已初始化
-        assertNotNull(ChangeoverService.getInstance(), "ChangeoverService 单例应已初始化");
+        // 验证换型矩阵已构建并挂到方案与产线上
+        ChangeoverMatrix changeoverMatrix = schedule.getChangeoverMatrix();
+        assertNotNull(changeoverMatrix, "换型矩阵应已构建");
+        schedule.getProductionLines().forEach(line ->
+                assertSame(changeoverMatrix, line.getChangeoverMatrix(), "产线应共享方案的换型矩阵"));
 
         // 构造两个不同型号的订单测试换型计算
         MotherRollOrder est = new MotherRollOrder();
@@ -193,7 +208,84 @@ class ExcelDataLoaderTest {
         MotherRollOrder fdx = new MotherRollOrder();
         fdx.setFormulaCode("Formula_FD"); fdx.setProductCode("FDX"); fdx.setThickness(29);
 
-        int changeover = changeoverService.calcChangeover(est, fdx);
+        int changeover = changeoverMatrix.calcChangeover(est, fdx);
         assertEquals(120, changeover, "EST→FDX 换型时间应为120分钟");
     }
+
+    @Test
+    void testLoadStreaming_与整本读取结果一致() throws Exception {
+        LocalDateTime solveStart = LocalDateTime.of(2026, 3, 13, 8, 0);
+        List<byte[]> workbooks = new ArrayList<>();
+        try (InputStream is = new ClassPathResource("data/生产订单_排程导入版.xlsx").getInputStream()) {
+            workbooks.add(is.readAllBytes());
+        }
+        workbooks.add(Files.readAllBytes(Path.of("docs", "validation-data", "validation-workbook.xlsx")));
+        workbooks.add(Files.readAllBytes(Path.of("docs", "validation-data", "validation-workbook-small.xlsx")));
+        // 合成数据带"产线"工作表
+        SyntheticWorkloadDto spec = new SyntheticWorkloadDto();
+        spec.setOrderCount(300);
+        spec.setLineCount(4);
+        ByteArrayOutputStream synthetic = new ByteArrayOutputStream();
+        SyntheticWorkloadGenerator generator = new SyntheticWorkloadGenerator(loader, changeoverService);
+        generator.writeWorkbook(generator.generate(spec), synthetic);
+        workbooks.add(synthetic.toByteArray());
+
+        for (byte[] workbook : workbooks) {
+            MotherRollSchedule dom = loader.load(new ByteArrayInputStream(workbook), solveStart);
+            MotherRollSchedule streamed = loader.loadStreaming(new ByteArrayInputStream(workbook), solveStart);
+
+            assertFalse(dom.getOrders().isEmpty());
+            assertEquals(signature(dom), signature(streamed));
+            assertEquals(dom.getExceptionTimes(), streamed.getExceptionTimes());
+            assertEquals(dom.getFilterChangePlans(), streamed.getFilterChangePlans());
+            assertEquals(dom.getFactoryCalendar().getHolidays(), streamed.getFactoryCalendar().getHolidays());
+            assertNotNull(streamed.getChangeoverMatrix());
+        }
+
+        // 按大小自动选择：超过阈值时走流式读取，结果相同
+        byte[] small = workbooks.get(0);
+        MotherRollSchedule auto = loader.load(new ByteArrayInputStream(small),
+                ExcelDataLoader.STREAMING_THRESHOLD_BYTES, solveStart);
+        assertEquals(signature(loader.load(new ByteArrayInputStream(small), solveStart)), signature(auto));
+    }
+
+    @Test
+    void testIngest_一次读取同时得到校验计数() throws Exception {
+        LocalDateTime solveStart = LocalDateTime.of(2026, 3, 13, 8, 0);
+        byte[] workbook = Files.readAllBytes(Path.of("docs", "validation-data", "validation-workbook.xlsx"));
+        ExcelValidationService validationService = new ExcelValidationService();
+
+        LoadedWorkbook dom = loader.ingest(new ByteArrayInputStream(workbook), workbook.length, solveStart);
+        LoadedWorkbook streamed = loader.ingest(new ByteArrayInputStream(workbook),
+                ExcelDataLoader.STREAMING_THRESHOLD_BYTES, solveStart);
+        ExcelValidationSummaryDto domSummary = validationService.analyze("validation-workbook.xlsx", dom);
+        ExcelValidationSummaryDto streamedSummary = validationService.analyze("validation-workbook.xlsx", streamed);
+
+        Map<String, Object> metrics = domSummary.getMetrics();
+        assertEquals(dom.getSchedule().getOrders().size(), metrics.get("parsedOrders"));
+        assertTrue((int) metrics.get("rawOrderRows") >= dom.getSchedule().getOrders().size());
+        assertTrue((int) metrics.get("exceptionWindows") > 0);
+        assertTrue((int) metrics.get("filterChangePlans") > 0);
+        assertEquals(metrics, streamedSummary.getMetrics());
+        assertEquals(domSummary.getWarnings(), streamedSummary.getWarnings());
+        assertEquals(domSummary.getConstraintStatus().stream().map(ConstraintStatusDto::isDataReady).toList(),
+                streamedSummary.getConstraintStatus().stream().map(ConstraintStatusDto::isDataReady).toList());
+    }
+
+    private static String signature(MotherRollSchedule schedule) {
+        StringBuilder builder = new StringBuilder();
+        schedule.getProductionLines().forEach(line -> builder.append(line.getId()).append('|')
+                .append(line.getLineCode()).append('|').append(line.getName()).append('\n'));
+        for (MotherRollOrder order : schedule.getOrders()) {
+            builder.append(order.getId()).append('|').append(order.getMaterialCode()).append('|')
+                    .append(order.getProductCode()).append('|').append(order.getFormulaCode()).append('|')
+                    .append(order.getThickness()).append('|').append(order.getQuantity()).append('|')
+                    .append(order.getProductionDurationHours()).append('|').append(order.getCurrentInventory())
+                    .append('|').append(order.getMonthlyShipment()).append('|').append(order.getExpectedStartTime())
+                    .append('|').append(new TreeSet<>(order.getCompatibleLines())).append('|')
+                    .append(order.getPreferredLineCode()).append('|').append(order.getFilterPriorityRank())
+                    .append('\n');
+        }
+        return builder.toString();
+    }
 }
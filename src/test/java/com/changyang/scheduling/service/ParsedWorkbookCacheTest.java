@@ -0,0 +1,105 @@
+package com.changyang.scheduling.service;
+
+import com.changyang.scheduling.domain.MotherRollOrder;
+import com.changyang.scheduling.domain.MotherRollSchedule;
+import com.changyang.scheduling.domain.ProductionLine;
+import com.changyang.scheduling.rest.dto.WorkbookCacheStatsDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 解析后工作簿缓存测试
+ */
+class ParsedWorkbookCacheTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 3, 13, 8, 0);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private ByteArrayResource workbook;
+    private ExcelDataLoader loader;
+    private ExcelValidationService validationService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        loader = new ExcelDataLoader(new ChangeoverService());
+        validationService = new ExcelValidationService();
+        workbook = new ByteArrayResource(
+                new ClassPathResource("data/生产订单_排程导入版.xlsx").getContentAsByteArray());
+    }
+
+    @Test
+    void testLoad_相同内容命中缓存且每次返回独立副本() throws Exception {
+        ParsedWorkbookCache cache = cache(4, Duration.ofMinutes(30));
+
+        CachedWorkbook first = cache.load(workbook, workbook.contentLength(), START, "a.xlsx");
+        // 修改第一次拿到的副本：分配订单、改校验摘要
+        ProductionLine line = first.getSchedule().getProductionLines().get(0);
+        MotherRollOrder order = first.getSchedule().getOrders().get(0);
+        line.getOrders().add(order);
+        order.setPinned(true);
+        first.getValidation().getWarnings().add("modified");
+
+        ByteArrayResource sameBytes = new ByteArrayResource(workbook.getByteArray());
+        CachedWorkbook second = cache.load(sameBytes, sameBytes.contentLength(), START, "b.xlsx");
+
+        assertNotSame(first.getSchedule(), second.getSchedule());
+        assertTrue(second.getSchedule().getProductionLines().stream().allMatch(l -> l.getOrders().isEmpty()));
+        assertFalse(second.getSchedule().getOrders().get(0).isPinned());
+        assertFalse(second.getValidation().getWarnings().contains("modified"));
+        assertEquals("b.xlsx", second.getValidation().getSourceName());
+        assertEquals(first.getSchedule().getOrders().size(), second.getSchedule().getOrders().size());
+        assertEquals(first.getValidation().getMetrics(), second.getValidation().getMetrics());
+
+        WorkbookCacheStatsDto stats = cache.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getSize());
+        assertEquals(0.5, stats.getHitRate(), 1e-9);
+    }
+
+    @Test
+    void testLoad_起始时间不同不共用条目且按LRU淘汰() throws Exception {
+        ParsedWorkbookCache cache = cache(1, Duration.ofMinutes(30));
+
+        MotherRollSchedule early = cache.load(workbook, workbook.contentLength(), START, "a.xlsx").getSchedule();
+        MotherRollSchedule late = cache.load(workbook, workbook.contentLength(), START.plusDays(1), "a.xlsx")
+                .getSchedule();
+        cache.load(workbook, workbook.contentLength(), START, "a.xlsx");
+
+        assertNotEquals(early.getProductionLines().get(0).getAvailableFrom(),
+                late.getProductionLines().get(0).getAvailableFrom());
+        WorkbookCacheStatsDto stats = cache.getStats();
+        assertEquals(0, stats.getHits());
+        assertEquals(3, stats.getMisses());
+        assertEquals(2, stats.getEvictions());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    void testLoad_过期条目重新解析() throws Exception {
+        ParsedWorkbookCache cache = cache(4, Duration.ofMinutes(30));
+
+        cache.load(workbook, workbook.contentLength(), START, "a.xlsx");
+        nanos.addAndGet(Duration.ofMinutes(29).toNanos());
+        cache.load(workbook, workbook.contentLength(), START, "a.xlsx");
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+        cache.load(workbook, workbook.contentLength(), START, "a.xlsx");
+
+        WorkbookCacheStatsDto stats = cache.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals(1, stats.getEvictions());
+    }
+
+    private ParsedWorkbookCache cache(int maxEntries, Duration ttl) {
+        return new ParsedWorkbookCache(loader, validationService, maxEntries, ttl, nanos::get);
+    }
+}
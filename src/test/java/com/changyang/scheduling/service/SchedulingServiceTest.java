@@ -0,0 +1,225 @@
+package com.changyang.scheduling.service;
+
+import ai.timefold.solver.core.api.solver.SolverManager;
+import ai.timefold.solver.core.api.solver.SolverStatus;
+import ai.timefold.solver.core.config.localsearch.LocalSearchPhaseConfig;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import com.changyang.scheduling.domain.MotherRollSchedule;
+import com.changyang.scheduling.rest.dto.SolveRequestConfigDto;
+import com.changyang.scheduling.rest.dto.WarmStartSettingsDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SchedulingServiceTest {
+
+    private static final Path WORKBOOK_PATH = Path.of("docs", "validation-data", "validation-workbook-small.xlsx");
+
+    @Test
+    void normalizeMoveThreadCount() {
+        assertNull(SchedulingService.normalizeMoveThreadCount(null));
+        assertNull(SchedulingService.normalizeMoveThreadCount(" "));
+        assertEquals("AUTO", SchedulingService.normalizeMoveThreadCount("auto"));
+        assertEquals("NONE", SchedulingService.normalizeMoveThreadCount("None"));
+        assertEquals("4", SchedulingService.normalizeMoveThreadCount(" 4 "));
+        assertThrows(IllegalArgumentException.class, () -> SchedulingService.normalizeMoveThreadCount("0"));
+        assertThrows(IllegalArgumentException.class, () -> SchedulingService.normalizeMoveThreadCount("many"));
+
+        SolveRequestConfigDto config = new SolveRequestConfigDto();
+        assertNull(SchedulingService.resolveMoveThreadCount(null));
+        assertNull(SchedulingService.resolveMoveThreadCount(config));
+        config.setMoveThreadCount("none");
+        assertNull(SchedulingService.resolveMoveThreadCount(config));
+    }
+
+    @Test
+    void solveWithMoveThreadCount() throws Exception {
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource("solverConfig.xml");
+        solverConfig.getTerminationConfig().setSecondsSpentLimit(2L);
+        ChangeoverService changeoverService = new ChangeoverService();
+
+        MotherRollSchedule problem;
+        try (InputStream inputStream = Files.newInputStream(WORKBOOK_PATH)) {
+            problem = new ExcelDataLoader(changeoverService).load(inputStream, LocalDateTime.of(2026, 3, 13, 8, 0));
+        }
+
+        // 社区版下拒绝 moveThreadCount（返回 400）；Enterprise 下使用按取值共用的多线程 SolverManager
+        SolveRequestConfigDto config = new SolveRequestConfigDto();
+        config.getTermination().setTimeLimitSeconds(2);
+        config.setMoveThreadCount("2");
+        try (SolverManager<MotherRollSchedule, String> solverManager = SolverManager.create(solverConfig)) {
+            SchedulingService schedulingService = new SchedulingService(solverManager, changeoverService, solverConfig,
+                    new SolverJobStore(100, 256L << 20, Duration.ofHours(2), System::nanoTime), "AUTO");
+            if (!SchedulingService.isMultithreadedSolvingAvailable()) {
+                IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                        () -> schedulingService.solve(problem, config));
+                assertTrue(e.getMessage().contains("Enterprise"));
+                return;
+            }
+            MotherRollSchedule solution = schedulingService.solve(problem, config);
+
+            assertNotNull(solution.getScore());
+            assertEquals(0, SchedulingService.getUnassignedCount(solution));
+            schedulingService.shutdown();
+        }
+    }
+
+    @Test
+    void solveModeAndPortfolioMemberConfig() {
+        assertFalse(SchedulingService.isPortfolio(null));
+        SolveRequestConfigDto config = new SolveRequestConfigDto();
+        assertFalse(SchedulingService.isPortfolio(config));
+        config.setSolveMode("portfolio");
+        assertTrue(SchedulingService.isPortfolio(config));
+        config.setSolveMode("BEST_GUESS");
+        assertThrows(IllegalArgumentException.class, () -> SchedulingService.isPortfolio(config));
+        assertThrows(IllegalArgumentException.class, () -> PortfolioSolve.normalizeAlgorithm("GREAT_DELUGE"));
+
+        SolverConfig base = SolverConfig.createFromXmlResource("solverConfig.xml");
+        SolverConfig tabu = PortfolioSolve.memberConfig(base, "TABU_SEARCH", 3L);
+        assertEquals(3L, tabu.getRandomSeed());
+        LocalSearchPhaseConfig localSearch = (LocalSearchPhaseConfig) tabu.getPhaseConfigList().get(1);
+        assertNull(localSearch.getLocalSearchType());
+        assertEquals(7, localSearch.getAcceptorConfig().getValueTabuSize());
+        // 基础配置不受影响，移动选择器保留
+        LocalSearchPhaseConfig baseLocalSearch = (LocalSearchPhaseConfig) base.getPhaseConfigList().get(1);
+        assertNotNull(baseLocalSearch.getLocalSearchType());
+        assertNotNull(localSearch.getMoveSelectorConfig());
+    }
+
+    @Test
+    void solvePortfolio() throws Exception {
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource("solverConfig.xml");
+        ChangeoverService changeoverService = new ChangeoverService();
+
+        MotherRollSchedule problem;
+        try (InputStream inputStream = Files.newInputStream(WORKBOOK_PATH)) {
+            problem = new ExcelDataLoader(changeoverService).load(inputStream, LocalDateTime.of(2026, 3, 13, 8, 0));
+        }
+
+        SolveRequestConfigDto config = new SolveRequestConfigDto();
+        config.getTermination().setTimeLimitSeconds(2);
+        config.setSolveMode("PORTFOLIO");
+        config.getPortfolio().setAlgorithms(List.of("LATE_ACCEPTANCE", "TABU_SEARCH", "SIMULATED_ANNEALING"));
+        config.getPortfolio().setTerminateLosers(true);
+        try (SolverManager<MotherRollSchedule, String> solverManager = SolverManager.create(solverConfig)) {
+            SchedulingService schedulingService = new SchedulingService(solverManager, changeoverService, solverConfig,
+                    new SolverJobStore(100, 256L << 20, Duration.ofHours(2), System::nanoTime), "AUTO");
+            String jobId = schedulingService.solveAsync(problem, config);
+            assertNotNull(jobId);
+
+            long deadline = System.currentTimeMillis() + 30_000L;
+            while (schedulingService.getStatus(jobId) != SolverStatus.NOT_SOLVING
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(200L);
+            }
+            // 最终结果在所有成员结束后写入
+            while (schedulingService.getBestScore(jobId) == null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100L);
+            }
+            MotherRollSchedule solution = schedulingService.getResult(jobId);
+            assertNotNull(solution);
+            assertNotNull(solution.getScore());
+            assertEquals(0, SchedulingService.getUnassignedCount(solution));
+            // 由快照重建的方案与求解器给出的最终分数一致
+            assertEquals(schedulingService.getBestScore(jobId), solution.getScore());
+        }
+    }
+
+    @Test
+    void solvePartitioned() throws Exception {
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource("solverConfig.xml");
+        ChangeoverService changeoverService = new ChangeoverService();
+
+        MotherRollSchedule problem;
+        try (InputStream inputStream = Files.newInputStream(WORKBOOK_PATH)) {
+            problem = new ExcelDataLoader(changeoverService).load(inputStream, LocalDateTime.of(2026, 3, 13, 8, 0));
+        }
+
+        SolveRequestConfigDto config = new SolveRequestConfigDto();
+        config.getTermination().setTimeLimitSeconds(2);
+        config.setSolveMode("partitioned");
+        assertTrue(SchedulingService.isPartitioned(config));
+        assertFalse(SchedulingService.isPortfolio(config));
+        config.getPartition().setPartCount(2);
+        try (SolverManager<MotherRollSchedule, String> solverManager = SolverManager.create(solverConfig)) {
+            SchedulingService schedulingService = new SchedulingService(solverManager, changeoverService, solverConfig,
+                    new SolverJobStore(100, 256L << 20, Duration.ofHours(2), System::nanoTime), "AUTO");
+            MotherRollSchedule solution = schedulingService.solve(problem, config);
+
+            assertNotNull(solution.getScore());
+            assertEquals(0, SchedulingService.getUnassignedCount(solution));
+            assertEquals(problem.getOrders().size(), solution.getOrders().size());
+        }
+
+        config.getPartition().setMergeTimeFraction(1.0);
+        assertThrows(IllegalArgumentException.class,
+                () -> new PartitionedSolve("job", solverConfig, config.getPartition(), config.getTermination(), null));
+    }
+
+    @Test
+    void solveWarmStart() throws Exception {
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource("solverConfig.xml");
+        ChangeoverService changeoverService = new ChangeoverService();
+        LocalDateTime solveStart = LocalDateTime.of(2026, 3, 13, 8, 0);
+
+        MotherRollSchedule problem;
+        try (InputStream inputStream = Files.newInputStream(WORKBOOK_PATH)) {
+            problem = new ExcelDataLoader(changeoverService).load(inputStream, solveStart);
+        }
+        // 第二天的工作簿：前两个订单已完成
+        MotherRollSchedule nextProblem;
+        try (InputStream inputStream = Files.newInputStream(WORKBOOK_PATH)) {
+            nextProblem = new ExcelDataLoader(changeoverService).load(inputStream, solveStart);
+        }
+        nextProblem.getOrders().subList(0, 2).clear();
+
+        SolveRequestConfigDto config = new SolveRequestConfigDto();
+        config.getTermination().setTimeLimitSeconds(2);
+        try (SolverManager<MotherRollSchedule, String> solverManager = SolverManager.create(solverConfig)) {
+            SchedulingService schedulingService = new SchedulingService(solverManager, changeoverService, solverConfig,
+                    new SolverJobStore(100, 256L << 20, Duration.ofHours(2), System::nanoTime), "AUTO");
+            String baseJobId = schedulingService.solveAsync(problem, config);
+            awaitResult(schedulingService, baseJobId);
+
+            SolveRequestConfigDto replanConfig = new SolveRequestConfigDto();
+            replanConfig.getTermination().setTimeLimitSeconds(30);
+            replanConfig.setWarmStart(new WarmStartSettingsDto());
+            replanConfig.getWarmStart().setBaseJobId(baseJobId);
+            replanConfig.getWarmStart().setUnimprovedTimeLimitSeconds(1);
+            long started = System.currentTimeMillis();
+            MotherRollSchedule solution = schedulingService.solve(nextProblem, replanConfig);
+
+            // 未指定无改进终止时使用 warmStart 的默认值，不用满 30 秒
+            assertEquals(1, replanConfig.getTermination().getUnimprovedTimeLimitSeconds());
+            assertTrue(System.currentTimeMillis() - started < 30_000L);
+            assertEquals(0, SchedulingService.getUnassignedCount(solution));
+            assertEquals(nextProblem.getOrders().size(), solution.getOrders().size());
+
+            SolveRequestConfigDto missingBase = new SolveRequestConfigDto();
+            missingBase.setWarmStart(new WarmStartSettingsDto());
+            assertThrows(IllegalArgumentException.class, () -> schedulingService.solve(nextProblem, missingBase));
+        }
+    }
+
+    private static void awaitResult(SchedulingService schedulingService, String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000L;
+        while ((schedulingService.getStatus(jobId) != SolverStatus.NOT_SOLVING
+                || schedulingService.getBestScore(jobId) == null) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(200L);
+        }
+        assertNotNull(schedulingService.getBestScore(jobId));
+    }
+}
@@ -0,0 +1,180 @@
+package com.changyang.scheduling.service;
+
+import com.changyang.scheduling.domain.MotherRollOrder;
+import com.changyang.scheduling.domain.MotherRollSchedule;
+import com.changyang.scheduling.domain.ProductionLine;
+import com.changyang.scheduling.rest.dto.SolutionEventDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 求解进度推送的节流与增量测试
+ */
+class SolutionEventBroadcasterTest {
+
+    private final SolverJobStore store = new SolverJobStore(10, 1L << 30, Duration.ofHours(1), System::nanoTime);
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final SolutionEventBroadcaster broadcaster =
+            new SolutionEventBroadcaster(store, Duration.ofMillis(300), Duration.ofMinutes(1)) {
+                @Override
+                SseEmitter createEmitter(long timeoutMillis) {
+                    RecordingEmitter emitter = new RecordingEmitter();
+                    emitters.add(emitter);
+                    return emitter;
+                }
+            };
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void testSubscribe_节流推送最新解且只带有变化的产线() throws Exception {
+        MotherRollSchedule schedule = schedule();
+        SolutionSnapshot.Template template = new SolutionSnapshot.Template(schedule);
+        List<MotherRollOrder> orders = schedule.getOrders();
+        ProductionLine l1 = schedule.getProductionLines().get(0);
+        ProductionLine l2 = schedule.getProductionLines().get(1);
+
+        store.submit("job");
+        broadcaster.subscribe("job");
+        RecordingEmitter emitter = emitters.get(0);
+
+        l1.getOrders().add(orders.get(0));
+        store.putBestSolution("job", template.capture(schedule));
+        await(() -> emitter.events.size() == 1);
+        assertEquals(Map.of("L1", List.of("O1"), "L2", List.of()), emitter.events.get(0).getChangedLines());
+
+        // 间隔内的多个解只推送最后一个
+        for (int i = 1; i < orders.size(); i++) {
+            l2.getOrders().add(orders.get(i));
+            store.putBestSolution("job", template.capture(schedule));
+        }
+        Thread.sleep(100L);
+        assertEquals(1, emitter.events.size());
+        await(() -> emitter.events.size() == 2);
+        SolutionEventDto latest = emitter.events.get(1);
+        assertEquals("SOLVING", latest.getStatus());
+        assertEquals(orders.size(), latest.getAssignedCount());
+        assertEquals(Map.of("L2", List.of("O2", "O3", "O4")), latest.getChangedLines());
+
+        // 结束事件不受间隔限制，随后关闭连接
+        store.complete("job", template.capture(schedule));
+        await(() -> emitter.completed);
+        assertEquals(List.of("best-solution", "best-solution", "finished"), emitter.names);
+        assertEquals("FINISHED", emitter.events.get(2).getStatus());
+        assertTrue(emitter.events.get(2).getChangedLines().isEmpty());
+    }
+
+    @Test
+    void testSubscribe_已结束或已过期的任务推送一次后关闭() throws Exception {
+        MotherRollSchedule schedule = schedule();
+        schedule.getProductionLines().get(0).getOrders().addAll(schedule.getOrders());
+        store.complete("done", new SolutionSnapshot.Template(schedule).capture(schedule));
+
+        broadcaster.subscribe("done");
+        RecordingEmitter emitter = emitters.get(0);
+        await(() -> emitter.completed);
+        assertEquals(List.of("finished"), emitter.names);
+        assertEquals(List.of("O1", "O2", "O3", "O4"), emitter.events.get(0).getChangedLines().get("L1"));
+
+        SolverJobStore smallStore = new SolverJobStore(1, 1L << 30, Duration.ofHours(1), System::nanoTime);
+        smallStore.complete("old", new SolutionSnapshot.Template(schedule).capture(schedule));
+        smallStore.complete("new", new SolutionSnapshot.Template(schedule).capture(schedule));
+        SolutionEventBroadcaster expiredBroadcaster =
+                new SolutionEventBroadcaster(smallStore, Duration.ofMillis(300), Duration.ofMinutes(1)) {
+                    @Override
+                    SseEmitter createEmitter(long timeoutMillis) {
+                        RecordingEmitter recording = new RecordingEmitter();
+                        emitters.add(recording);
+                        return recording;
+                    }
+                };
+        try {
+            expiredBroadcaster.subscribe("old");
+            RecordingEmitter expired = emitters.get(1);
+            await(() -> expired.completed);
+            assertEquals(List.of("expired"), expired.names);
+        } finally {
+            expiredBroadcaster.shutdown();
+        }
+    }
+
+    @Test
+    void testSubscribe_不存在的任务推送not_found后关闭且不保留连接() throws Exception {
+        broadcaster.subscribe("unknown");
+        RecordingEmitter emitter = emitters.get(0);
+
+        assertTrue(emitter.completed);
+        assertEquals(List.of("not-found"), emitter.names);
+        assertEquals("NOT_FOUND", emitter.events.get(0).getStatus());
+
+        // 之后同名任务写入的解不会推送到已关闭的连接
+        MotherRollSchedule schedule = schedule();
+        store.putBestSolution("unknown", new SolutionSnapshot.Template(schedule).capture(schedule));
+        Thread.sleep(100L);
+        assertEquals(1, emitter.events.size());
+    }
+
+    private static MotherRollSchedule schedule() {
+        List<MotherRollOrder> orders = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            MotherRollOrder order = new MotherRollOrder();
+            order.setId("O" + i);
+            orders.add(order);
+        }
+        LocalDateTime start = LocalDateTime.of(2026, 3, 13, 8, 0);
+        return new MotherRollSchedule(new ArrayList<>(List.of(
+                new ProductionLine("L1", "L1", "L1", start),
+                new ProductionLine("L2", "L2", "L2", start))), orders);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000L;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10L);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    /**
+     * 记录发送的事件名与内容
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<String> names = new CopyOnWriteArrayList<>();
+        private final List<SolutionEventDto> events = new CopyOnWriteArrayList<>();
+        private volatile boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            for (ResponseBodyEmitter.DataWithMediaType data : builder.build()) {
+                if (data.getData() instanceof SolutionEventDto event) {
+                    events.add(event);
+                } else if (data.getData() instanceof String text && text.startsWith("event:")) {
+                    int end = text.indexOf('\n');
+                    names.add(text.substring("event:".length(), end < 0 ? text.length() : end).trim());
+                }
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}
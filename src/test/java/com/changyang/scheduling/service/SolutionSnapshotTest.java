@@ -0,0 +1,129 @@
+package com.changyang.scheduling.service;
+
+import ai.timefold.solver.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import ai.timefold.solver.core.api.solver.SolutionManager;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import com.changyang.scheduling.domain.MotherRollOrder;
+import com.changyang.scheduling.domain.MotherRollSchedule;
+import com.changyang.scheduling.domain.ProductionLine;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 求解结果快照的记录与重建测试
+ */
+class SolutionSnapshotTest {
+
+    private static final Path WORKBOOK_PATH = Path.of("docs", "validation-data", "validation-workbook-small.xlsx");
+
+    @Test
+    void testMaterialize_按下标重建得到相同的顺序时间与分数() throws Exception {
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource("solverConfig.xml");
+        solverConfig.getTerminationConfig().setSecondsSpentLimit(1L);
+        ChangeoverService changeoverService = new ChangeoverService();
+        MotherRollSchedule problem;
+        try (InputStream inputStream = Files.newInputStream(WORKBOOK_PATH)) {
+            problem = new ExcelDataLoader(changeoverService).load(inputStream, LocalDateTime.of(2026, 3, 13, 8, 0));
+        }
+        SolverFactory<MotherRollSchedule> solverFactory = SolverFactory.create(solverConfig);
+        SolutionSnapshot.Template template = new SolutionSnapshot.Template(problem);
+        MotherRollSchedule solution = solverFactory.buildSolver().solve(problem);
+
+        SolutionSnapshot snapshot = template.capture(solution);
+        MotherRollSchedule materialized = snapshot.materialize(SolutionManager.create(solverFactory));
+
+        assertEquals(solution.getScore(), snapshot.getScore());
+        assertEquals(solution.getScore(), materialized.getScore());
+        assertNotSame(solution.getOrders().get(0), materialized.getOrders().get(0));
+        for (int i = 0; i < solution.getProductionLines().size(); i++) {
+            ProductionLine expected = solution.getProductionLines().get(i);
+            ProductionLine actual = materialized.getProductionLines().get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(ids(expected.getOrders()), ids(actual.getOrders()));
+            for (int j = 0; j < expected.getOrders().size(); j++) {
+                assertEquals(expected.getOrders().get(j).getStartTime(), actual.getOrders().get(j).getStartTime());
+                assertEquals(expected.getOrders().get(j).getEndTime(), actual.getOrders().get(j).getEndTime());
+                assertSame(actual, actual.getOrders().get(j).getAssignedLine());
+            }
+        }
+        // 快照只有下标数组，远小于完整方案
+        assertTrue(snapshot.estimatedBytes() * 10 < SolverJobStore.estimateBytes(solution));
+    }
+
+    @Test
+    void testCapture_版本递增且只标记序列有变化的产线() {
+        LocalDateTime start = LocalDateTime.of(2026, 3, 13, 8, 0);
+        List<MotherRollOrder> orders = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            MotherRollOrder order = new MotherRollOrder();
+            order.setId("O" + i);
+            orders.add(order);
+        }
+        ProductionLine l1 = new ProductionLine("L1", "L1", "L1", start);
+        ProductionLine l2 = new ProductionLine("L2", "L2", "L2", start);
+        MotherRollSchedule problem = new MotherRollSchedule(List.of(l1, l2), orders);
+        SolutionSnapshot.Template template = new SolutionSnapshot.Template(problem);
+
+        l1.getOrders().add(orders.get(0));
+        SolutionSnapshot v1 = template.capture(problem);
+        l2.getOrders().add(orders.get(1));
+        SolutionSnapshot v2 = template.capture(problem);
+        SolutionSnapshot v3 = template.capture(problem);
+        l1.getOrders().add(0, orders.get(2));
+        SolutionSnapshot v4 = template.capture(problem);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L),
+                List.of(v1.getVersion(), v2.getVersion(), v3.getVersion(), v4.getVersion()));
+        assertEquals(Set.of("L1", "L2"), v4.linesChangedSince(0L));
+        assertEquals(Set.of("L1", "L2"), v4.linesChangedSince(1L));
+        assertEquals(Set.of("L1"), v4.linesChangedSince(2L));
+        assertEquals(Set.of("L1"), v4.linesChangedSince(3L));
+        assertEquals(Set.of(), v4.linesChangedSince(4L));
+        assertEquals(Set.of(), v3.linesChangedSince(2L));
+    }
+
+    @Test
+    void testPutBestSolution_乱序到达的旧版本不覆盖新版本() {
+        MotherRollOrder order = new MotherRollOrder();
+        order.setId("O1");
+        ProductionLine line = new ProductionLine("L1", "L1", "L1", LocalDateTime.of(2026, 3, 13, 8, 0));
+        MotherRollSchedule problem = new MotherRollSchedule(List.of(line), List.of(order));
+        SolutionSnapshot.Template template = new SolutionSnapshot.Template(problem);
+        SolutionSnapshot older = template.capture(problem);
+        SolutionSnapshot newer = template.capture(problem);
+
+        SolverJobStore store = new SolverJobStore(10, 1L << 30, Duration.ofHours(1), System::nanoTime);
+        store.putBestSolution("job", newer);
+        store.putBestSolution("job", older);
+        assertSame(newer, store.getSnapshot("job"));
+    }
+
+    @Test
+    void testCapture_未知订单报错() {
+        MotherRollOrder order = new MotherRollOrder();
+        order.setId("O1");
+        ProductionLine line = new ProductionLine("L1", "L1", "L1", LocalDateTime.of(2026, 3, 13, 8, 0));
+        MotherRollSchedule problem = new MotherRollSchedule(List.of(line), List.of(order));
+        SolutionSnapshot.Template template = new SolutionSnapshot.Template(problem);
+
+        MotherRollOrder stranger = new MotherRollOrder();
+        stranger.setId("O2");
+        line.getOrders().add(stranger);
+        assertThrows(IllegalStateException.class, () -> template.capture(problem));
+    }
+
+    private static List<String> ids(List<MotherRollOrder> orders) {
+        return orders.stream().map(MotherRollOrder::getId).toList();
+    }
+}
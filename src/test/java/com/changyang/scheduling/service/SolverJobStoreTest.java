@@ -0,0 +1,135 @@
+package com.changyang.scheduling.service;
+
+import com.changyang.scheduling.domain.MotherRollOrder;
+import com.changyang.scheduling.domain.MotherRollSchedule;
+import com.changyang.scheduling.domain.ProductionLine;
+import com.changyang.scheduling.rest.dto.JobStoreStatsDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 异步任务结果存储的淘汰测试
+ */
+class SolverJobStoreTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    void testComplete_结束后超过存活时间被淘汰() {
+        SolverJobStore store = new SolverJobStore(10, 1L << 30, Duration.ofMinutes(10), nanos::get);
+        SolutionSnapshot solution = snapshot(100);
+
+        store.putBestSolution("job", solution);
+        nanos.addAndGet(Duration.ofMinutes(30).toNanos());
+        // 求解中的任务不按存活时间淘汰
+        assertSame(solution, store.getSnapshot("job"));
+
+        store.complete("job", solution);
+        nanos.addAndGet(Duration.ofMinutes(9).toNanos());
+        assertSame(solution, store.getSnapshot("job"));
+        assertFalse(store.isExpired("job"));
+
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+        assertNull(store.getSnapshot("job"));
+        assertTrue(store.isExpired("job"));
+        assertFalse(store.isExpired("unknown"));
+
+        JobStoreStatsDto stats = store.getStats();
+        assertEquals(0, stats.getRetainedJobs());
+        assertEquals(0, stats.getRetainedBytes());
+        assertEquals(1, stats.getEvictedByTtl());
+        assertEquals(1, stats.getExpiredLookups());
+    }
+
+    @Test
+    void testComplete_超过任务数时先淘汰最早结束的任务且保留求解中的任务() {
+        SolverJobStore store = new SolverJobStore(2, 1L << 30, Duration.ofHours(1), nanos::get);
+
+        store.putBestSolution("running", snapshot(10));
+        store.complete("first", snapshot(10));
+        store.complete("second", snapshot(10));
+
+        assertTrue(store.isExpired("first"));
+        assertNotNull(store.getSnapshot("running"));
+        assertNotNull(store.getSnapshot("second"));
+        JobStoreStatsDto stats = store.getStats();
+        assertEquals(2, stats.getRetainedJobs());
+        assertEquals(1, stats.getRunningJobs());
+        assertEquals(1, stats.getEvictedByCount());
+    }
+
+    @Test
+    void testComplete_超过字节预算时淘汰且迟到的中间解不覆盖最终解() {
+        long oneJob = SolverJobStore.estimateBytes(snapshot(1_000));
+        SolverJobStore store = new SolverJobStore(10, oneJob * 2, Duration.ofHours(1), nanos::get);
+
+        SolutionSnapshot finalSolution = snapshot(1_000);
+        store.complete("a", finalSolution);
+        store.putBestSolution("a", snapshot(1_000));
+        assertSame(finalSolution, store.getSnapshot("a"));
+
+        store.complete("b", snapshot(1_000));
+        store.complete("c", snapshot(1_000));
+
+        assertTrue(store.isExpired("a"));
+        JobStoreStatsDto stats = store.getStats();
+        assertEquals(2, stats.getRetainedJobs());
+        assertEquals(oneJob * 2, stats.getRetainedBytes());
+        assertEquals(1, stats.getEvictedByBytes());
+    }
+
+    @Test
+    void testFail_保留错误并释放中间解() {
+        SolverJobStore store = new SolverJobStore(10, 1L << 30, Duration.ofHours(1), nanos::get);
+        IllegalStateException error = new IllegalStateException("boom");
+
+        store.putBestSolution("job", snapshot(100));
+        store.fail("job", error);
+
+        assertSame(error, store.getError("job"));
+        assertNull(store.getSnapshot("job"));
+        assertEquals(SolverJobStore.estimateBytes((SolutionSnapshot) null), store.getStats().getRetainedBytes());
+    }
+
+    @Test
+    void testSubmit_提交后在第一个解之前即可识别() {
+        SolverJobStore store = new SolverJobStore(10, 1L << 30, Duration.ofHours(1), nanos::get);
+        assertFalse(store.contains("job"));
+
+        store.submit("job");
+        assertTrue(store.contains("job"));
+        assertNull(store.getSnapshot("job"));
+        assertFalse(store.isFinished("job"));
+        assertEquals(1, store.getStats().getRunningJobs());
+
+        SolutionSnapshot solution = snapshot(10);
+        store.complete("job", solution);
+        // 重复登记不覆盖已有结果
+        store.submit("job");
+        assertSame(solution, store.getSnapshot("job"));
+        assertTrue(store.isFinished("job"));
+    }
+
+    private static SolutionSnapshot snapshot(int orderCount) {
+        MotherRollSchedule schedule = schedule(orderCount);
+        return new SolutionSnapshot.Template(schedule).capture(schedule);
+    }
+
+    private static MotherRollSchedule schedule(int orderCount) {
+        List<MotherRollOrder> orders = new ArrayList<>();
+        for (int i = 0; i < orderCount; i++) {
+            MotherRollOrder order = new MotherRollOrder();
+            order.setId("O" + i);
+            orders.add(order);
+        }
+        ProductionLine line = new ProductionLine("L1", "L1", "L1", LocalDateTime.of(2026, 3, 13, 8, 0));
+        return new MotherRollSchedule(new ArrayList<>(List.of(line)), orders);
+    }
+}
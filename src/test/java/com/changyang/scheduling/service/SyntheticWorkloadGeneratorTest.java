@@ -0,0 +1,169 @@
+package com.changyang.scheduling.service;
+
+import com.changyang.scheduling.domain.MotherRollOrder;
+import com.changyang.scheduling.domain.MotherRollSchedule;
+import com.changyang.scheduling.domain.ProductionLine;
+import com.changyang.scheduling.rest.dto.SyntheticWorkloadDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 合成排程数据生成器单元测试
+ */
+class SyntheticWorkloadGeneratorTest {
+
+    private SyntheticWorkloadGenerator generator;
+    private ExcelDataLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        ChangeoverService changeoverService = new ChangeoverService();
+        loader = new ExcelDataLoader(changeoverService);
+        generator = new SyntheticWorkloadGenerator(loader, changeoverService);
+    }
+
+    @Test
+    void testGenerate_相同种子结果一致() {
+        MotherRollSchedule first = generator.generate(spec(42L));
+        MotherRollSchedule second = generator.generate(spec(42L));
+        MotherRollSchedule other = generator.generate(spec(7L));
+
+        assertEquals(signature(first), signature(second));
+        assertNotEquals(signature(first), signature(other));
+        assertEquals(first.getExceptionTimes(), second.getExceptionTimes());
+        assertEquals(first.getFilterChangePlans(), second.getFilterChangePlans());
+    }
+
+    @Test
+    void testEffectiveSeed_未指定时与默认种子生成结果一致() {
+        SyntheticWorkloadDto unseeded = spec(42L);
+        unseeded.setSeed(null);
+
+        assertEquals(42L, SyntheticWorkloadGenerator.effectiveSeed(null));
+        assertEquals(42L, SyntheticWorkloadGenerator.effectiveSeed(unseeded));
+        assertEquals(7L, SyntheticWorkloadGenerator.effectiveSeed(spec(7L)));
+        assertEquals(signature(generator.generate(spec(42L))), signature(generator.generate(unseeded)));
+    }
+
+    @Test
+    void testGenerate_规模与兼容组() {
+        SyntheticWorkloadDto spec = spec(42L);
+        MotherRollSchedule schedule = generator.generate(spec);
+
+        assertEquals(2000, schedule.getOrders().size());
+        assertEquals(12, schedule.getProductionLines().size());
+        assertEquals("L1", schedule.getProductionLines().get(0).getId());
+        assertEquals("双拉12线", schedule.getProductionLines().get(11).getLineCode());
+        assertNotNull(schedule.getChangeoverMatrix(), "生成后应已挂载换型矩阵");
+
+        // 兼容产线不跨组：L1-L4、L5-L8、L9-L12
+        for (MotherRollOrder order : schedule.getOrders()) {
+            Set<Integer> groups = order.getCompatibleLines().stream()
+                    .map(code -> (Integer.parseInt(code.replaceAll("\\D", "")) - 1) / 4)
+                    .collect(Collectors.toSet());
+            assertEquals(1, groups.size(), order.getId() + " 跨兼容组: " + order.getCompatibleLines());
+            if ("QDJY".equals(order.getProductCode())) {
+                assertEquals(1, order.getCompatibleLines().size());
+            }
+        }
+
+        long singleLine = schedule.getOrders().stream()
+                .filter(order -> order.getCompatibleLines().size() == 1)
+                .count();
+        assertTrue(singleLine > 2000 * 0.2 && singleLine < 2000 * 0.45, "单线订单数: " + singleLine);
+
+        long longOrders = schedule.getOrders().stream()
+                .filter(order -> order.getProductionDurationHours() > 24)
+                .count();
+        assertTrue(longOrders > 2000 * 0.4 && longOrders < 2000 * 0.6, "超长订单数: " + longOrders);
+
+        // 每条产线每周 2 次，28 天共 8 次（重叠的会被合并）
+        assertTrue(schedule.getExceptionTimes().size() <= 12 * 8);
+        assertEquals(12 * 2, schedule.getFilterChangePlans().size());
+    }
+
+    @Test
+    void testGenerate_型号分布() {
+        SyntheticWorkloadDto spec = spec(42L);
+        spec.setProductMix(Map.of("EST", 3.0, "FDX", 1.0));
+        spec.setThicknesses(List.of(9, 10));
+        MotherRollSchedule schedule = generator.generate(spec);
+
+        Map<String, Long> products = schedule.getOrders().stream()
+                .collect(Collectors.groupingBy(MotherRollOrder::getProductCode, Collectors.counting()));
+        assertEquals(Set.of("EST", "FDX"), products.keySet());
+        assertTrue(products.get("EST") > products.get("FDX") * 2);
+        assertTrue(schedule.getOrders().stream().allMatch(o -> o.getThickness() == 9 || o.getThickness() == 10));
+    }
+
+    @Test
+    void testGenerate_非法参数() {
+        SyntheticWorkloadDto spec = spec(42L);
+        spec.setSingleLineFraction(1.5);
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(spec));
+
+        SyntheticWorkloadDto unknownProduct = spec(42L);
+        unknownProduct.setProductMix(Map.of("XYZ", 1.0));
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(unknownProduct));
+
+        SyntheticWorkloadDto badGroup = spec(42L);
+        badGroup.setLineGroupSize(13);
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(badGroup));
+
+        for (double exceptions : new double[]{-1, 22, Double.POSITIVE_INFINITY, Double.NaN}) {
+            SyntheticWorkloadDto badExceptions = spec(42L);
+            badExceptions.setExceptionsPerLinePerWeek(exceptions);
+            assertThrows(IllegalArgumentException.class, () -> generator.generate(badExceptions));
+        }
+    }
+
+    @Test
+    void testWriteWorkbook_可被ExcelDataLoader读回() throws Exception {
+        MotherRollSchedule generated = generator.generate(spec(42L));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        generator.writeWorkbook(generated, outputStream);
+
+        MotherRollSchedule loaded = loader.load(new ByteArrayInputStream(outputStream.toByteArray()),
+                LocalDateTime.of(2026, 3, 13, 8, 0));
+
+        assertEquals(generated.getProductionLines().stream().map(ProductionLine::getLineCode).toList(),
+                loaded.getProductionLines().stream().map(ProductionLine::getLineCode).toList());
+        assertEquals(signature(generated), signature(loaded));
+        assertEquals(generated.getExceptionTimes(), loaded.getExceptionTimes());
+        assertEquals(generated.getFilterChangePlans(), loaded.getFilterChangePlans());
+        assertEquals(generated.getFactoryCalendar().getHolidays(), loaded.getFactoryCalendar().getHolidays());
+    }
+
+    private static SyntheticWorkloadDto spec(long seed) {
+        SyntheticWorkloadDto spec = new SyntheticWorkloadDto();
+        spec.setSeed(seed);
+        spec.setOrderCount(2000);
+        spec.setLineCount(12);
+        spec.setLineGroupSize(4);
+        spec.setHorizonDays(28);
+        spec.setSingleLineFraction(0.2);
+        spec.setSplitFraction(0.5);
+        spec.setExceptionsPerLinePerWeek(2.0);
+        spec.setFilterChangesPerLine(2);
+        return spec;
+    }
+
+    private static String signature(MotherRollSchedule schedule) {
+        return schedule.getOrders().stream()
+                .map(order -> order.getId() + "|" + order.getProductCode() + "|" + order.getThickness() + "|"
+                        + order.getProductionDurationHours() + "|" + order.getExpectedStartTime() + "|"
+                        + order.getPreferredLineCode() + "|" + new TreeSet<>(order.getCompatibleLines()))
+                .collect(Collectors.joining("\n"));
+    }
+}
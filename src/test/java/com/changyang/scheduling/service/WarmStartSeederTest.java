@@ -0,0 +1,57 @@
+package com.changyang.scheduling.service;
+
+import com.changyang.scheduling.domain.MotherRollOrder;
+import com.changyang.scheduling.domain.MotherRollSchedule;
+import com.changyang.scheduling.domain.ProductionLine;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 热启动重排放回订单的测试
+ */
+class WarmStartSeederTest {
+
+    @Test
+    void testSeed_保留仍存在的订单顺序并跳过已删除和不兼容的订单() {
+        LocalDateTime start = LocalDateTime.of(2026, 3, 13, 8, 0);
+        ProductionLine l1 = new ProductionLine("L1", "L1", "L1", start);
+        ProductionLine l2 = new ProductionLine("L2", "L2", "L2", start);
+        List<MotherRollOrder> orders = new ArrayList<>(List.of(
+                order("O1", "L1"), order("O2", "L1"), order("O3", "L1", "L2"), order("O4", "L2"), order("NEW", "L1")));
+        MotherRollSchedule problem = new MotherRollSchedule(new ArrayList<>(List.of(l1, l2)), orders);
+
+        WarmStartSeeder.Result result = WarmStartSeeder.seed(problem, Map.of(
+                "L1", List.of("O2", "GONE", "O1", "O4"),
+                "L2", List.of("O3", "O2"),
+                "L9", List.of("O1")));
+
+        assertEquals(List.of("O2", "O1"), ids(l1.getOrders()));
+        assertEquals(List.of("O3"), ids(l2.getOrders()));
+        assertEquals(3, result.keptOrders());
+        assertEquals(1, result.droppedOrders());
+        // O4 不再兼容 L1，O2 不兼容 L2
+        assertEquals(2, result.incompatibleOrders());
+        assertEquals(2, result.newOrders());
+        assertNull(orders.get(4).getAssignedLine());
+
+        assertThrows(IllegalStateException.class, () -> WarmStartSeeder.seed(problem, Map.of()));
+    }
+
+    private static MotherRollOrder order(String id, String... lineCodes) {
+        MotherRollOrder order = new MotherRollOrder();
+        order.setId(id);
+        order.setCompatibleLines(Set.of(lineCodes));
+        return order;
+    }
+
+    private static List<String> ids(List<MotherRollOrder> orders) {
+        return orders.stream().map(MotherRollOrder::getId).toList();
+    }
+}
@@ -0,0 +1,47 @@
+package com.changyang.scheduling.solver;
+
+import com.changyang.scheduling.domain.ChangeoverEntry;
+import com.changyang.scheduling.domain.ChangeoverMatrix;
+import com.changyang.scheduling.domain.MotherRollOrder;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChangeoverNearbyDistanceMeterTest {
+
+    @Test
+    void similarProductsAreNearer() {
+        MotherRollOrder est9 = order("a", "F1", "EST", 9);
+        MotherRollOrder est9b = order("b", "F1", "EST", 9);
+        MotherRollOrder est10 = order("c", "F1", "EST", 10);
+        MotherRollOrder est24 = order("d", "F1", "EST", 24);
+        MotherRollOrder dj9 = order("e", "F2", "DJX", 9);
+        List<MotherRollOrder> orders = List.of(est9, est9b, est10, est24, dj9);
+
+        ChangeoverMatrix matrix = ChangeoverMatrix.build(List.of(
+                new ChangeoverEntry(ChangeoverEntry.Type.FORMULA_MODEL, "F1", "EST", "F2", "DJX", null, null, 180),
+                new ChangeoverEntry(ChangeoverEntry.Type.FORMULA_MODEL, "F2", "DJX", "F1", "EST", null, null, 180),
+                new ChangeoverEntry(ChangeoverEntry.Type.THICKNESS, null, null, null, null, 9, 10, 20),
+                new ChangeoverEntry(ChangeoverEntry.Type.THICKNESS, null, null, null, null, 9, 24, 20)
+        ), orders);
+        ChangeoverNearbyDistanceMeter meter = new ChangeoverNearbyDistanceMeter(matrix);
+
+        assertEquals(0.0, meter.getNearbyDistance(est9, est9b));
+        // 换型相同（20 分钟）时厚度差小者更近
+        assertTrue(meter.getNearbyDistance(est9, est10) < meter.getNearbyDistance(est9, est24));
+        assertTrue(meter.getNearbyDistance(est9, est24) < meter.getNearbyDistance(est9, dj9));
+        assertEquals(360.0, meter.getNearbyDistance(est9, dj9));
+    }
+
+    private static MotherRollOrder order(String id, String formulaCode, String productCode, int thickness) {
+        MotherRollOrder order = new MotherRollOrder();
+        order.setId(id);
+        order.setFormulaCode(formulaCode);
+        order.setProductCode(productCode);
+        order.setThickness(thickness);
+        return order;
+    }
+}
@@ -0,0 +1,163 @@
+package com.changyang.scheduling.solver;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.config.heuristic.selector.common.SelectionOrder;
+import ai.timefold.solver.core.config.heuristic.selector.move.factory.MoveIteratorFactoryConfig;
+import ai.timefold.solver.core.config.localsearch.LocalSearchPhaseConfig;
+import ai.timefold.solver.core.config.localsearch.decider.acceptor.LocalSearchAcceptorConfig;
+import ai.timefold.solver.core.config.localsearch.decider.forager.LocalSearchForagerConfig;
+import ai.timefold.solver.core.config.solver.EnvironmentMode;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import ai.timefold.solver.core.config.solver.termination.TerminationConfig;
+import ai.timefold.solver.core.impl.heuristic.move.AbstractMove;
+import com.changyang.scheduling.domain.ChangeoverMatrix;
+import com.changyang.scheduling.domain.MotherRollOrder;
+import com.changyang.scheduling.domain.MotherRollSchedule;
+import com.changyang.scheduling.domain.ProductionLine;
+import com.changyang.scheduling.service.ChangeoverService;
+import com.changyang.scheduling.service.ExcelDataLoader;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 换型感知邻近移动的生成与执行测试
+ */
+class ChangeoverNearbyMoveIteratorFactoryTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 3, 13, 8, 0);
+    private static final Path WORKBOOK_PATH = Path.of("docs", "validation-data", "validation-workbook-small.xlsx");
+
+    @Test
+    void testOriginalIterator_展开全部候选且不含空操作() {
+        ProductionLine l2 = new ProductionLine("L2", "双拉2线", "双拉2线", BASE);
+        ProductionLine l4 = new ProductionLine("L4", "双拉4线", "双拉4线", BASE);
+        assign(l2, order("A", 9, Set.of("双拉2线", "双拉4线")), order("B", 9, Set.of("双拉2线", "双拉4线")));
+        assign(l4, order("C", 9, Set.of("双拉2线", "双拉4线")), order("D", 12, Set.of("双拉4线")));
+        ScoreDirector<MotherRollSchedule> scoreDirector = scoreDirector(l2, l4);
+
+        ChangeoverNearbyMoveIteratorFactory factory = new ChangeoverNearbyMoveIteratorFactory();
+        factory.phaseStarted(scoreDirector);
+        List<AbstractMove<MotherRollSchedule>> moves = new ArrayList<>();
+        factory.createOriginalMoveIterator(scoreDirector).forEachRemaining(moves::add);
+
+        assertFalse(moves.isEmpty());
+        for (AbstractMove<MotherRollSchedule> move : moves) {
+            assertTrue(move.isMoveDoable(scoreDirector), move.toString());
+        }
+        // D 只兼容 L4，不会被移动到 L2
+        assertTrue(moves.stream().noneMatch(move -> move.toString().equals("OrderChangeMove(L4[1] -> L2[0])")));
+        // 同一输入展开结果确定
+        List<String> again = new ArrayList<>();
+        factory.createOriginalMoveIterator(scoreDirector).forEachRemaining(move -> again.add(move.toString()));
+        assertEquals(moves.stream().map(Object::toString).toList(), again);
+    }
+
+    @Test
+    void testRandomIterator_无可用候选时结束而不是返回空操作() {
+        ProductionLine l2 = new ProductionLine("L2", "双拉2线", "双拉2线", BASE);
+        MotherRollOrder only = order("A", 9, Set.of("双拉2线"));
+        assign(l2, only);
+        ScoreDirector<MotherRollSchedule> scoreDirector = scoreDirector(l2);
+
+        ChangeoverNearbyMoveIteratorFactory factory = new ChangeoverNearbyMoveIteratorFactory();
+        factory.phaseStarted(scoreDirector);
+        Iterator<AbstractMove<MotherRollSchedule>> iterator =
+                factory.createRandomMoveIterator(scoreDirector, new Random(0));
+
+        assertFalse(iterator.hasNext());
+        assertFalse(factory.createOriginalMoveIterator(scoreDirector).hasNext());
+    }
+
+    @Test
+    void testOrderChangeMove_执行后仍返回被移动的订单() {
+        ProductionLine l2 = new ProductionLine("L2", "双拉2线", "双拉2线", BASE);
+        ProductionLine l4 = new ProductionLine("L4", "双拉4线", "双拉4线", BASE);
+        MotherRollOrder tail = order("B", 9, Set.of("双拉2线", "双拉4线"));
+        assign(l2, order("A", 9, Set.of("双拉2线", "双拉4线")), tail);
+        assign(l4, order("C", 9, Set.of("双拉2线", "双拉4线")));
+        ScoreDirector<MotherRollSchedule> scoreDirector = scoreDirector(l2, l4);
+
+        // 取产线末尾的订单：执行后原下标越界，禁忌搜索在步骤结束后读取 getPlanningValues。
+        // doMoveOnly 只是把 ScoreDirector 包一层记录再调用 doMoveOnGenuineVariables，这里直接调用后者
+        OrderChangeMove move = new OrderChangeMove(l2, 1, l4, 0);
+        move.doMoveOnGenuineVariables(scoreDirector);
+
+        assertEquals(List.of("A"), l2.getOrders().stream().map(MotherRollOrder::getId).toList());
+        assertEquals(List.of("B", "C"), l4.getOrders().stream().map(MotherRollOrder::getId).toList());
+        assertEquals(List.of(tail), List.copyOf(move.getPlanningValues()));
+    }
+
+    @Test
+    void testSolve_随机与顺序选择在完全断言模式下通过() throws Exception {
+        for (SelectionOrder selectionOrder : List.of(SelectionOrder.RANDOM, SelectionOrder.ORIGINAL)) {
+            SolverConfig solverConfig = SolverConfig.createFromXmlResource("solverConfig.xml");
+            LocalSearchPhaseConfig localSearch = new LocalSearchPhaseConfig()
+                    .withMoveSelectorConfig(new MoveIteratorFactoryConfig()
+                            .withMoveIteratorFactoryClass(ChangeoverNearbyMoveIteratorFactory.class)
+                            .withSelectionOrder(selectionOrder))
+                    // 值禁忌在步骤执行后读取 getPlanningValues，与组合求解的 TABU_SEARCH 成员一致
+                    .withAcceptorConfig(new LocalSearchAcceptorConfig().withValueTabuSize(5))
+                    .withForagerConfig(new LocalSearchForagerConfig().withAcceptedCountLimit(1))
+                    .withTerminationConfig(new TerminationConfig().withStepCountLimit(20));
+            solverConfig.setPhaseConfigList(List.of(solverConfig.getPhaseConfigList().get(0), localSearch));
+            solverConfig.setEnvironmentMode(EnvironmentMode.FULL_ASSERT);
+            solverConfig.setTerminationConfig(new TerminationConfig());
+            MotherRollSchedule problem;
+            try (InputStream inputStream = Files.newInputStream(WORKBOOK_PATH)) {
+                problem = new ExcelDataLoader(new ChangeoverService()).load(inputStream, BASE);
+            }
+
+            // 移动的变量通知若有遗漏，FULL_ASSERT 会在影子变量或分数校验时抛出异常
+            MotherRollSchedule solution = SolverFactory.<MotherRollSchedule>create(solverConfig)
+                    .buildSolver().solve(problem);
+
+            assertNotNull(solution.getScore(), selectionOrder.name());
+        }
+    }
+
+    private static ScoreDirector<MotherRollSchedule> scoreDirector(ProductionLine... lines) {
+        List<MotherRollOrder> orders = new ArrayList<>();
+        for (ProductionLine line : lines) {
+            orders.addAll(line.getOrders());
+        }
+        MotherRollSchedule schedule = new MotherRollSchedule(List.of(lines), orders);
+        schedule.setChangeoverMatrix(ChangeoverMatrix.build(List.of(), orders));
+        @SuppressWarnings("unchecked")
+        ScoreDirector<MotherRollSchedule> scoreDirector = mock(ScoreDirector.class);
+        when(scoreDirector.getWorkingSolution()).thenReturn(schedule);
+        return scoreDirector;
+    }
+
+    private static void assign(ProductionLine line, MotherRollOrder... orders) {
+        for (MotherRollOrder order : orders) {
+            order.setAssignedLine(line);
+            order.setSequenceIndex(line.getOrders().size());
+            line.getOrders().add(order);
+        }
+    }
+
+    private static MotherRollOrder order(String id, int thickness, Set<String> compatibleLines) {
+        MotherRollOrder order = new MotherRollOrder();
+        order.setId(id);
+        order.setFormulaCode("Formula_EST");
+        order.setProductCode("EST");
+        order.setThickness(thickness);
+        order.setProductionDurationHours(8);
+        order.setCompatibleLines(compatibleLines);
+        return order;
+    }
+}
@@ -0,0 +1,70 @@
+package com.changyang.scheduling.solver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InversionCountCollectorTest {
+
+    /** 测试用元素：位置 + 是否应靠前 */
+    private record Item(int position, boolean first) {
+    }
+
+    private final InversionCountCollector<Item> collector =
+            InversionCountCollector.inversions(Item::position, Item::first);
+
+    @Test
+    void countsPairsWhereFirstElementComesLater() {
+        InversionCountCollector.Container container = collector.supplier().get();
+        // 非优先(0) 优先(1) 非优先(2) 优先(3)：逆序对 (0,1) (0,3) (2,3)
+        collector.accumulator().apply(container, new Item(0, false));
+        collector.accumulator().apply(container, new Item(1, true));
+        collector.accumulator().apply(container, new Item(2, false));
+        collector.accumulator().apply(container, new Item(3, true));
+
+        assertEquals(3, collector.finisher().apply(container));
+    }
+
+    @Test
+    void incrementalInsertAndRetractMatchesBruteForce() {
+        Random random = new Random(42);
+        InversionCountCollector.Container container = collector.supplier().get();
+        List<Item> items = new ArrayList<>();
+        List<Runnable> undos = new ArrayList<>();
+
+        for (int step = 0; step < 2000; step++) {
+            if (!items.isEmpty() && random.nextInt(3) == 0) {
+                int removed = random.nextInt(items.size());
+                undos.remove(removed).run();
+                items.remove(removed);
+            } else {
+                // 位置会超出初始容量，顺带覆盖扩容
+                Item item = new Item(random.nextInt(500), random.nextBoolean());
+                items.add(item);
+                undos.add(collector.accumulator().apply(container, item));
+            }
+            assertEquals(bruteForce(items), collector.finisher().apply(container), "step " + step);
+        }
+
+        Collections.reverse(undos);
+        undos.forEach(Runnable::run);
+        assertEquals(0, collector.finisher().apply(container));
+    }
+
+    private static int bruteForce(List<Item> items) {
+        int count = 0;
+        for (Item a : items) {
+            for (Item b : items) {
+                if (!a.first() && b.first() && a.position() < b.position()) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
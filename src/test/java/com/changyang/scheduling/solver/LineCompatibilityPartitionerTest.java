@@ -0,0 +1,130 @@
+package com.changyang.scheduling.solver;
+
+import com.changyang.scheduling.domain.MotherRollOrder;
+import com.changyang.scheduling.domain.MotherRollSchedule;
+import com.changyang.scheduling.domain.ProductionLine;
+import com.changyang.scheduling.rest.dto.SyntheticWorkloadDto;
+import com.changyang.scheduling.service.ChangeoverService;
+import com.changyang.scheduling.service.ExcelDataLoader;
+import com.changyang.scheduling.service.SyntheticWorkloadGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 按产线兼容关系分区的拆分与合并测试
+ */
+class LineCompatibilityPartitionerTest {
+
+    private MotherRollSchedule schedule;
+
+    @BeforeEach
+    void setUp() {
+        ChangeoverService changeoverService = new ChangeoverService();
+        SyntheticWorkloadDto spec = new SyntheticWorkloadDto();
+        spec.setSeed(42L);
+        spec.setOrderCount(600);
+        spec.setLineCount(6);
+        spec.setLineGroupSize(3);
+        spec.setHorizonDays(14);
+        schedule = new SyntheticWorkloadGenerator(new ExcelDataLoader(changeoverService), changeoverService)
+                .generate(spec);
+    }
+
+    @Test
+    void testSplit_兼容簇不可再合并() {
+        List<MotherRollSchedule> parts = LineCompatibilityPartitioner.split(schedule, 1);
+
+        // L1-L3、L4-L6 两个兼容簇之间没有共享订单，分区数不低于簇数
+        assertEquals(2, parts.size());
+        assertEquals(List.of("L1", "L2", "L3"), lineIds(parts.get(0)));
+        assertEquals(List.of("L4", "L5", "L6"), lineIds(parts.get(1)));
+        assertEachOrderOnce(parts);
+        for (MotherRollSchedule part : parts) {
+            Set<String> lineCodes = new HashSet<>();
+            part.getProductionLines().forEach(line -> lineCodes.add(line.getLineCode()));
+            for (MotherRollOrder order : part.getOrders()) {
+                assertTrue(lineCodes.containsAll(order.getCompatibleLines()), order.getId());
+            }
+            assertTrue(part.getExceptionTimes().stream().allMatch(e -> lineIds(part).contains(e.getLineId())));
+            assertSame(schedule.getChangeoverMatrix(), part.getChangeoverMatrix());
+        }
+    }
+
+    @Test
+    void testSplit_按产线拆分时单线订单留在本线() {
+        List<MotherRollSchedule> parts = LineCompatibilityPartitioner.split(schedule, 6);
+
+        assertEquals(6, parts.size());
+        assertEachOrderOnce(parts);
+        double totalHours = schedule.getOrders().stream().mapToDouble(MotherRollOrder::getProductionDurationHours).sum();
+        for (MotherRollSchedule part : parts) {
+            assertEquals(1, part.getProductionLines().size());
+            ProductionLine line = part.getProductionLines().get(0);
+            for (MotherRollOrder order : part.getOrders()) {
+                assertTrue(order.isCompatibleWith(line), order.getId() + " → " + line.getId());
+            }
+            // 同簇三条产线工时大致均衡
+            double hours = part.getOrders().stream().mapToDouble(MotherRollOrder::getProductionDurationHours).sum();
+            assertTrue(hours > totalHours / 6 * 0.5 && hours < totalHours / 6 * 1.5, line.getId() + ": " + hours);
+        }
+    }
+
+    @Test
+    void testMerge_按ID回填各产线顺序且不修改原问题() {
+        ProductionLine l1 = schedule.getProductionLines().get(0);
+        MotherRollOrder pinned = schedule.getOrders().stream()
+                .filter(order -> order.isCompatibleWith(l1))
+                .findFirst()
+                .orElseThrow();
+        l1.getOrders().add(pinned);
+
+        List<MotherRollSchedule> parts = LineCompatibilityPartitioner.split(schedule, 6);
+        MotherRollSchedule l1Part = parts.stream()
+                .filter(part -> lineIds(part).equals(List.of("L1")))
+                .findFirst()
+                .orElseThrow();
+        // 已分配的订单随产线进入分区，位置不变
+        assertEquals(pinned.getId(), l1Part.getProductionLines().get(0).getOrders().get(0).getId());
+
+        // 模拟各分区的求解结果：未分配订单按原顺序追加到分区内唯一的产线
+        for (MotherRollSchedule part : parts) {
+            ProductionLine line = part.getProductionLines().get(0);
+            for (MotherRollOrder order : part.getOrders()) {
+                if (!line.getOrders().contains(order)) {
+                    line.getOrders().add(order);
+                }
+            }
+        }
+        MotherRollSchedule merged = LineCompatibilityPartitioner.merge(schedule, parts);
+
+        assertNotSame(schedule, merged);
+        assertEquals(List.of(pinned), l1.getOrders());
+        assertEquals(schedule.getOrders().size(), merged.getOrders().size());
+        for (int i = 0; i < parts.size(); i++) {
+            ProductionLine mergedLine = merged.getProductionLines().get(i);
+            ProductionLine partLine = parts.get(i).getProductionLines().get(0);
+            assertEquals(partLine.getId(), mergedLine.getId());
+            assertEquals(partLine.getOrders().stream().map(MotherRollOrder::getId).toList(),
+                    mergedLine.getOrders().stream().map(MotherRollOrder::getId).toList());
+            assertTrue(merged.getOrders().containsAll(mergedLine.getOrders()));
+        }
+    }
+
+    private void assertEachOrderOnce(List<MotherRollSchedule> parts) {
+        List<String> ids = new ArrayList<>();
+        parts.forEach(part -> part.getOrders().forEach(order -> ids.add(order.getId())));
+        assertEquals(schedule.getOrders().size(), ids.size());
+        assertEquals(ids.size(), new HashSet<>(ids).size());
+    }
+
+    private static List<String> lineIds(MotherRollSchedule schedule) {
+        return schedule.getProductionLines().stream().map(ProductionLine::getId).toList();
+    }
+}
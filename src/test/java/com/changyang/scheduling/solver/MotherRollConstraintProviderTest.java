@@ -1,12 +1,17 @@
 package com.changyang.scheduling.solver;
 
 import ai.timefold.solver.test.api.score.stream.ConstraintVerifier;
+import com.changyang.scheduling.domain.ExceptionTime;
+import com.changyang.scheduling.domain.FilterChangePlan;
+import com.changyang.scheduling.domain.FilterPriorityWindows;
 import com.changyang.scheduling.domain.MotherRollOrder;
 import com.changyang.scheduling.domain.MotherRollSchedule;
 import com.changyang.scheduling.domain.ProductionLine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Set;
 
 class MotherRollConstraintProviderTest {
@@ -37,6 +42,102 @@ class MotherRollConstraintProviderTest {
                 .penalizesBy(1); // O2 违背 1 次
     }
 
+    @Test
+    void hc2UrgentInventoryMustBePrioritized() {
+        ProductionLine line = new ProductionLine("L1", "一线", "L1", null);
+        MotherRollOrder normal1 = orderAt(line, "n1", 0, 300); // 库存 30 天
+        MotherRollOrder urgent1 = orderAt(line, "u1", 1, 50);  // 库存 5 天
+        MotherRollOrder normal2 = orderAt(line, "n2", 2, 300);
+        MotherRollOrder urgent2 = orderAt(line, "u2", 3, 50);
+
+        // 逆序对：(n1,u1) (n1,u2) (n2,u2)
+        constraintVerifier.verifyThat(MotherRollConstraintProvider::urgentInventoryMustBePrioritized)
+                .given(line, normal1, urgent1, normal2, urgent2)
+                .penalizesBy(3);
+
+        // 非首日子任务不参与比较
+        normal1.setSplit(true);
+        normal1.setDayIndex(2);
+        constraintVerifier.verifyThat(MotherRollConstraintProvider::urgentInventoryMustBePrioritized)
+                .given(line, normal1, urgent1, normal2, urgent2)
+                .penalizesBy(1);
+    }
+
+    @Test
+    void sc2PrioritizeByInventorySupplyDays() {
+        ProductionLine line = new ProductionLine("L1", "一线", "L1", null);
+        MotherRollOrder o1 = orderAt(line, "o1", 0, 129); // 12.9 天
+        MotherRollOrder o2 = orderAt(line, "o2", 1, 35);  // 3.5 天
+        MotherRollOrder o3 = orderAt(line, "o3", 2, 200); // 20 天
+
+        // (o1,o2)：(int) 9.4 = 9
+        constraintVerifier.verifyThat(MotherRollConstraintProvider::prioritizeByInventorySupplyDays)
+                .given(line, o1, o2, o3)
+                .penalizesBy(9);
+    }
+
+    @Test
+    void hc3NoOverlapWithExceptionTime() {
+        LocalDateTime base = LocalDateTime.of(2026, 3, 10, 8, 0);
+        ProductionLine line = new ProductionLine("L1", "一线", "L1", null);
+        MotherRollOrder o1 = orderAt(line, "o1", 0, 300);
+        o1.setStartTime(base);
+        o1.setEndTime(base.plusHours(4));
+        MotherRollOrder o2 = orderAt(line, "o2", 1, 300);
+        o2.setStartTime(base.plusHours(4));
+        o2.setEndTime(base.plusHours(8));
+
+        // 停机 [10:00, 13:00)：o1 重叠 120 分钟，o2 重叠 60 分钟；与 o1 首尾相接的窗口、其他产线的窗口不计
+        ExceptionTime downtime = new ExceptionTime("L1", base.plusHours(2), base.plusHours(5));
+        ExceptionTime before = new ExceptionTime("L1", base.minusHours(3), base);
+        ExceptionTime otherLine = new ExceptionTime("L2", base, base.plusHours(8));
+        constraintVerifier.verifyThat(MotherRollConstraintProvider::noOverlapWithExceptionTime)
+                .given(line, o1, o2, downtime, before, otherLine)
+                .penalizesBy(120 + 60);
+    }
+
+    @Test
+    void hc4ThicknessSinglePeak() {
+        ProductionLine line1 = new ProductionLine("L1", "一线", "L1", null);
+        ProductionLine line2 = new ProductionLine("L2", "二线", "L2", null);
+        MotherRollOrder r1 = orderAt(line1, "r1", 2, 300);
+        r1.setThicknessReversal(true);
+        MotherRollOrder r2 = orderAt(line1, "r2", 3, 300);
+        r2.setThicknessReversal(true);
+        MotherRollOrder r3 = orderAt(line1, "r3", 4, 300);
+        r3.setThicknessReversal(true);
+        MotherRollOrder single = orderAt(line2, "s1", 2, 300);
+        single.setThicknessReversal(true);
+
+        // L1 三次反转，第一次合法；L2 仅一次，合法
+        constraintVerifier.verifyThat(MotherRollConstraintProvider::thicknessSinglePeak)
+                .given(line1, line2, r1, r2, r3, single)
+                .penalizesBy(2);
+    }
+
+    @Test
+    void mc1FilterChangePreferredOrder() {
+        LocalDateTime change = LocalDateTime.of(2026, 3, 10, 8, 0);
+        ProductionLine line = new ProductionLine("L1", "一线", "L1", null);
+        line.setFilterPriorityWindows(FilterPriorityWindows.build(
+                List.of(new FilterChangePlan("L1", change, 120)), "L1"));
+
+        MotherRollOrder t9est = orderAt(line, "o1", 0, 300);
+        t9est.setFilterPriorityRank(6);
+        t9est.setStartTime(change.plusDays(1));
+        MotherRollOrder t4fdx = orderAt(line, "o2", 1, 300);
+        t4fdx.setFilterPriorityRank(2);
+        t4fdx.setStartTime(change.plusDays(2));
+        MotherRollOrder outside = orderAt(line, "o3", 2, 300);
+        outside.setFilterPriorityRank(1);
+        outside.setStartTime(change.plusDays(25));
+
+        // 仅 o1/o2 同在窗口内且倒装：6 - 2 = 4
+        constraintVerifier.verifyThat(MotherRollConstraintProvider::filterChangePreferredOrder)
+                .given(line, t9est, t4fdx, outside)
+                .penalizesBy(4);
+    }
+
     @Test
     void sc1MinimizeChangeoverTime() {
         ProductionLine line = new ProductionLine("L1", "一线", "L1", null);
@@ -56,4 +157,14 @@ class MotherRollConstraintProviderTest {
                 .given(line, o1, o2)
                 .penalizesBy(45);
     }
+
+    private static MotherRollOrder orderAt(ProductionLine line, String id, int sequenceIndex, double inventory) {
+        MotherRollOrder order = new MotherRollOrder();
+        order.setId(id);
+        order.setAssignedLine(line);
+        order.setSequenceIndex(sequenceIndex);
+        order.setCurrentInventory(inventory);
+        order.setMonthlyShipment(300); // 库存天数 = inventory / 300 * 30
+        return order;
+    }
 }
@@ -0,0 +1,121 @@
+package com.changyang.scheduling.solver;
+
+import com.changyang.scheduling.domain.MotherRollOrder;
+import com.changyang.scheduling.domain.ProductionLine;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 厚度波浪初始化阶段的分线与排序逻辑测试
+ */
+class ThicknessWaveInitPhaseTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 3, 13, 8, 0);
+
+    @Test
+    void testAssignToLines_按工时均衡且遵守兼容() {
+        ProductionLine l2 = new ProductionLine("L2", "双拉2线", "双拉2线", BASE);
+        ProductionLine l4 = new ProductionLine("L4", "双拉4线", "双拉4线", BASE);
+        List<MotherRollOrder> orders = new ArrayList<>();
+        orders.add(order("Q1", "DJY", 10, 30, Set.of("双拉2线")));
+        orders.add(order("Q2", "DJY", 10, 30, Set.of("双拉2线")));
+        for (int i = 0; i < 6; i++) {
+            orders.add(order("A" + i, "EST", 10, 10, Set.of("双拉2线", "双拉4线")));
+        }
+
+        Map<ProductionLine, List<MotherRollOrder>> batches =
+                ThicknessWaveInitPhase.assignToLines(List.of(l2, l4), orders);
+
+        // 单线订单必须在 L2；L2 已有 60h，6 个 10h 的双线订单应全部落到 L4
+        assertTrue(batches.get(l2).stream().map(MotherRollOrder::getId).toList().containsAll(List.of("Q1", "Q2")));
+        assertEquals(60.0, hours(batches.get(l2)));
+        assertEquals(60.0, hours(batches.get(l4)));
+    }
+
+    @Test
+    void testAssignToLines_偏好产线在负载允许时优先() {
+        ProductionLine l2 = new ProductionLine("L2", "双拉2线", "双拉2线", BASE);
+        ProductionLine l4 = new ProductionLine("L4", "双拉4线", "双拉4线", BASE);
+        MotherRollOrder first = order("A", "EST", 10, 10, Set.of("双拉2线", "双拉4线"));
+        MotherRollOrder preferred = order("B", "EST", 10, 10, Set.of("双拉2线", "双拉4线"));
+        preferred.setPreferredLineCode("双拉2线");
+
+        Map<ProductionLine, List<MotherRollOrder>> batches =
+                ThicknessWaveInitPhase.assignToLines(List.of(l2, l4), List.of(first, preferred));
+
+        assertEquals(List.of(first, preferred), batches.get(l2));
+        assertTrue(batches.get(l4).isEmpty());
+    }
+
+    @Test
+    void testWaveSequence_紧急在前且只有一个峰() {
+        List<MotherRollOrder> batch = new ArrayList<>();
+        int[] thicknesses = {61, 4, 29, 9, 42, 5, 24, 10, 14, 7};
+        for (int i = 0; i < thicknesses.length; i++) {
+            MotherRollOrder order = order("N" + i, i % 2 == 0 ? "EST" : "FDX", thicknesses[i], 8,
+                    Set.of("双拉2线"));
+            order.setExpectedStartTime(BASE.plusDays(i));
+            batch.add(order);
+        }
+        MotherRollOrder urgent = order("U", "DJX", 14, 8, Set.of("双拉2线"));
+        urgent.setCurrentInventory(0);
+        batch.add(urgent);
+
+        List<MotherRollOrder> sequence = ThicknessWaveInitPhase.waveSequence(batch);
+
+        assertEquals(batch.size(), sequence.size());
+        assertSame(urgent, sequence.get(0));
+        int reversals = 0;
+        int previousDirection = 0;
+        for (int i = 1; i < sequence.size(); i++) {
+            int direction = Integer.compare(sequence.get(i).getThickness(), sequence.get(i - 1).getThickness());
+            if (previousDirection != 0 && direction != 0 && direction != previousDirection) {
+                reversals++;
+            }
+            previousDirection = direction;
+        }
+        assertTrue(reversals <= 1, "厚度方向反转次数: " + reversals);
+    }
+
+    @Test
+    void testWaveSequence_相邻厚度层在同配方处衔接() {
+        List<MotherRollOrder> batch = List.of(
+                order("A", "EST", 4, 8, Set.of("双拉2线")),
+                order("B", "FDX", 4, 8, Set.of("双拉2线")),
+                order("C", "EST", 9, 8, Set.of("双拉2线")),
+                order("D", "FDX", 9, 8, Set.of("双拉2线")));
+
+        List<MotherRollOrder> sequence = ThicknessWaveInitPhase.waveSequence(batch);
+
+        // 前段 4μm：EST、FDX；后段 9μm 层整层反向，从 FDX 接续
+        assertEquals(List.of("A", "B", "D", "C"), sequence.stream().map(MotherRollOrder::getId).toList());
+    }
+
+    private static MotherRollOrder order(String id, String productCode, int thickness, double hours,
+                                         Set<String> compatibleLines) {
+        MotherRollOrder order = new MotherRollOrder();
+        order.setId(id);
+        order.setProductCode(productCode);
+        order.setFormulaCode(productCode.startsWith("ES") ? "Formula_EST"
+                : productCode.startsWith("FD") ? "Formula_FD" : "Formula_DJ");
+        order.setThickness(thickness);
+        order.setProductionDurationHours(hours);
+        order.setQuantity(hours * 5000);
+        order.setCurrentInventory(100_000);
+        order.setMonthlyShipment(10_000);
+        order.setExpectedStartTime(BASE);
+        order.setCompatibleLines(compatibleLines);
+        return order;
+    }
+
+    private static double hours(List<MotherRollOrder> orders) {
+        return orders.stream().mapToDouble(MotherRollOrder::getProductionDurationHours).sum();
+    }
+}
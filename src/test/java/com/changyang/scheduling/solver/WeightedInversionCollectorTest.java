@@ -0,0 +1,121 @@
+package com.changyang.scheduling.solver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WeightedInversionCollectorTest {
+
+    /** 测试用元素：位置 + 库存天数 */
+    private record Item(int position, double supplyDays) {
+    }
+
+    private final WeightedInversionCollector<Item> collector =
+            WeightedInversionCollector.weightedInversions(Item::position, Item::supplyDays);
+
+    @Test
+    void penalizesTruncatedGapOfEachInversion() {
+        WeightedInversionCollector.Container container = collector.supplier().get();
+        // 12.9 在 3.5 之前：(int) 9.4 = 9；12.9 在 8.95 之前：(int) 3.95 = 3；8.95 在 3.5 之前：(int) 5.45 = 5
+        collector.accumulator().apply(container, new Item(0, 12.9));
+        collector.accumulator().apply(container, new Item(1, 8.95));
+        collector.accumulator().apply(container, new Item(2, 3.5));
+        collector.accumulator().apply(container, new Item(3, 20.0));
+
+        assertEquals(17, collector.finisher().apply(container));
+    }
+
+    @Test
+    void incrementalInsertAndRetractMatchesBruteForce() {
+        Random random = new Random(7);
+        WeightedInversionCollector.Container container = collector.supplier().get();
+        List<Item> items = new ArrayList<>();
+        List<Runnable> undos = new ArrayList<>();
+
+        for (int step = 0; step < 800; step++) {
+            if (!items.isEmpty() && random.nextInt(3) == 0) {
+                int removed = random.nextInt(items.size());
+                undos.remove(removed).run();
+                items.remove(removed);
+            } else {
+                // 同组内位置唯一（与产线列表下标一致）
+                int position;
+                do {
+                    position = random.nextInt(2000);
+                } while (containsPosition(items, position));
+                Item item = new Item(position, randomSupplyDays(random));
+                items.add(item);
+                undos.add(collector.accumulator().apply(container, item));
+            }
+            assertEquals(bruteForce(items), collector.finisher().apply(container), "step " + step);
+        }
+    }
+
+    @Test
+    void randomLinesMatchPairwiseBaseline() {
+        Random random = new Random(11);
+        for (int round = 0; round < 200; round++) {
+            WeightedInversionCollector.Container container = collector.supplier().get();
+            List<Item> items = new ArrayList<>();
+            int size = random.nextInt(40);
+            for (int position = 0; position < size; position++) {
+                Item item = new Item(position, randomEdgeDays(random, items));
+                items.add(item);
+                collector.accumulator().apply(container, item);
+            }
+            assertEquals(bruteForce(items), collector.finisher().apply(container), "round " + round);
+        }
+    }
+
+    /** 与 MotherRollOrder.getInventorySupplyDays 相同的算法，含无发货量与一位小数的情况 */
+    private static double randomSupplyDays(Random random) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return random.nextInt(5) == 0 ? Double.MAX_VALUE : random.nextInt(30) + random.nextInt(10) / 10.0;
+            case 1:
+                return (1 + random.nextInt(300)) / (double) (1 + random.nextInt(90)) * 30.0;
+            default:
+                return random.nextDouble() * 5000 / (1 + random.nextDouble() * 3000) * 30.0;
+        }
+    }
+
+    /** 小数、负库存、与已有元素相等、无发货量及超出 int 的天数 */
+    private static double randomEdgeDays(Random random, List<Item> items) {
+        switch (random.nextInt(6)) {
+            case 0:
+                return -random.nextInt(50) - random.nextInt(100) / 100.0;
+            case 1:
+                return items.isEmpty() ? 0.0 : items.get(random.nextInt(items.size())).supplyDays();
+            case 2:
+                return random.nextInt(8) == 0 ? 3e9 + random.nextInt(10) : Double.MAX_VALUE;
+            default:
+                return randomSupplyDays(random);
+        }
+    }
+
+    private static boolean containsPosition(List<Item> items, int position) {
+        return items.stream().anyMatch(item -> item.position() == position);
+    }
+
+    /** 与原 forEachUniquePair 写法相同：位置在前且数值更大时惩罚 (int) |差值|，按 int 累加 */
+    private static int bruteForce(List<Item> items) {
+        int total = 0;
+        for (int i = 0; i < items.size(); i++) {
+            for (int j = i + 1; j < items.size(); j++) {
+                Item o1 = items.get(i);
+                Item o2 = items.get(j);
+                boolean inverted = o1.position() < o2.position()
+                        ? o1.supplyDays() > o2.supplyDays()
+                        : o2.position() < o1.position() && o2.supplyDays() > o1.supplyDays();
+                if (inverted) {
+                    total += (int) Math.abs(o1.supplyDays() - o2.supplyDays());
+                }
+            }
+        }
+        return total;
+    }
+}